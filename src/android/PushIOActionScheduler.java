@@ -0,0 +1,275 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs plugin actions on lanes chosen by what the action does, so that a slow
+ * call cannot hold up unrelated cheap ones.
+ *
+ * <p>Ordering guarantees:
+ * <ul>
+ * <li>{@link Lane#READ} and {@link Lane#NETWORK} are thread pools; actions on
+ * them may run concurrently and complete in any order.</li>
+ * <li>{@link Lane#PREFERENCES}, {@link Lane#USER}, {@link Lane#BADGE},
+ * {@link Lane#REGION}, {@link Lane#SUBSCRIPTION} and {@link Lane#DEFAULT} each
+ * have a single worker;
+ * actions on the same lane run one at a time in the order they were submitted.
+ * Reads of a domain share the lane of its writes, so a read always observes
+ * earlier writes.</li>
+ * <li>Actions on different lanes are not ordered relative to each other. Callers
+ * that depend on a cross-lane order (e.g. {@code setMessageCenterEnabled}
+ * before {@code fetchMessagesForMessageCenter}) should wait for the first
+ * action's callback.</li>
+ * </ul>
+ * Actions that are not classified below run on {@link Lane#DEFAULT}, which keeps
+ * the single-executor behavior they had before lanes were introduced.
+ */
+class PushIOActionScheduler {
+    private static final String TAG = "pushio-cordova";
+
+    private static final int READ_POOL_SIZE = 2;
+    private static final int NETWORK_POOL_SIZE = 3;
+    private static final int NETWORK_QUEUE_CAPACITY = 256;
+
+    enum Lane {
+        /** Values that JS cannot change; served from a small unordered pool. */
+        READ,
+        /** Preference declarations, reads and writes. */
+        PREFERENCES,
+        /** User identity, API key/account token, configuration and registration. */
+        USER,
+        /** Badge count reads, writes and syncs. */
+        BADGE,
+        /**
+         * Geofence and beacon transitions. Ordered, so that the region filter and the
+         * SDK see the transitions of a region in the order JS reported them.
+         */
+        REGION,
+        /**
+         * Subscriptions to native events. Ordered, so that an unsubscribe followed by
+         * a subscribe, as on a page reload, leaves the new subscriber in place.
+         */
+        SUBSCRIPTION,
+        /** Calls that go to the Responsys servers; bounded unordered pool. */
+        NETWORK,
+        /** Everything else, in submission order. */
+        DEFAULT
+    }
+
+    private static final Map<String, Lane> ACTION_LANES = new HashMap<>();
+
+    static {
+        for (String action : new String[]{"getDeviceID", "getLibVersion", "getEngagementTimestamp",
+                "getEngagementMaxAge", "getConversionUrl", "getRIAppId", "getPluginMetrics",
+                "isResponsysPush"}) {
+            ACTION_LANES.put(action, Lane.READ);
+        }
+
+        for (String action : new String[]{"onDeepLinkReceived", "subscribeDeepLinks", "unsubscribeDeepLinks",
+                "subscribeEvents", "unsubscribeEvents"}) {
+            ACTION_LANES.put(action, Lane.SUBSCRIPTION);
+        }
+
+        for (String action : new String[]{"declarePreference", "getPreferences", "getPreference",
+                "setStringPreference", "setNumberPreference", "setBooleanPreference", "removePreference",
+                "clearAllPreferences", "setPreferences", "flushPreferences"}) {
+            ACTION_LANES.put(action, Lane.PREFERENCES);
+        }
+
+        for (String action : new String[]{"getAPIKey", "getAccountToken", "overwriteApiKey",
+                "overwriteAccountToken", "configure", "registerApp", "unregisterApp", "setDeviceToken",
+                "setExternalDeviceTrackingID", "getExternalDeviceTrackingID", "setAdvertisingID",
+                "getAdvertisingID", "registerUserId", "getRegisteredUserId", "unregisterUserId",
+                "getVerifiedUserId", "setVerifiedUserId"}) {
+            ACTION_LANES.put(action, Lane.USER);
+        }
+
+        for (String action : new String[]{"setBadgeCount", "getBadgeCount", "resetBadgeCount",
+                "setMessageCenterBadgingEnabled"}) {
+            ACTION_LANES.put(action, Lane.BADGE);
+        }
+
+        for (String action : new String[]{"onGeoRegionEntered", "onGeoRegionExited", "onBeaconRegionEntered",
+                "onBeaconRegionExited", "reportRegionEvents"}) {
+            ACTION_LANES.put(action, Lane.REGION);
+        }
+
+        for (String action : new String[]{"fetchMessagesForMessageCenter", "fetchMessagesForMessageCenterPaged",
+                "fetchRichContentForMessage", "prefetchRichContent", "trackEngagement"}) {
+            ACTION_LANES.put(action, Lane.NETWORK);
+        }
+    }
+
+    private final Map<Lane, ExecutorService> mExecutors = new EnumMap<>(Lane.class);
+    private final Map<Lane, LaneStats> mStats = new EnumMap<>(Lane.class);
+
+    PushIOActionScheduler() {
+        for (Lane lane : Lane.values()) {
+            mStats.put(lane, new LaneStats());
+        }
+
+        mExecutors.put(Lane.READ, Executors.newFixedThreadPool(READ_POOL_SIZE, new LaneThreadFactory(Lane.READ)));
+        mExecutors.put(Lane.PREFERENCES, Executors.newSingleThreadExecutor(new LaneThreadFactory(Lane.PREFERENCES)));
+        mExecutors.put(Lane.USER, Executors.newSingleThreadExecutor(new LaneThreadFactory(Lane.USER)));
+        mExecutors.put(Lane.BADGE, Executors.newSingleThreadExecutor(new LaneThreadFactory(Lane.BADGE)));
+        mExecutors.put(Lane.REGION, Executors.newSingleThreadExecutor(new LaneThreadFactory(Lane.REGION)));
+        mExecutors.put(Lane.SUBSCRIPTION,
+                Executors.newSingleThreadExecutor(new LaneThreadFactory(Lane.SUBSCRIPTION)));
+        mExecutors.put(Lane.NETWORK, new ThreadPoolExecutor(NETWORK_POOL_SIZE, NETWORK_POOL_SIZE, 0L,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(NETWORK_QUEUE_CAPACITY),
+                new LaneThreadFactory(Lane.NETWORK)));
+        mExecutors.put(Lane.DEFAULT, Executors.newSingleThreadExecutor(new LaneThreadFactory(Lane.DEFAULT)));
+    }
+
+    static Lane laneFor(String action) {
+        Lane lane = ACTION_LANES.get(action);
+        return (lane != null) ? lane : Lane.DEFAULT;
+    }
+
+    /**
+     * Queues the task on the lane of the given action.
+     *
+     * @return false if the lane is saturated or shut down and the task was not queued.
+     */
+    boolean execute(String action, final Runnable task) {
+        final Lane lane = laneFor(action);
+        final LaneStats stats = mStats.get(lane);
+        final long enqueuedAt = System.nanoTime();
+
+        stats.recordEnqueued(enqueuedAt);
+        try {
+            mExecutors.get(lane).execute(new Runnable() {
+                @Override
+                public void run() {
+                    stats.depth.decrementAndGet();
+                    stats.recordWait(System.nanoTime() - enqueuedAt);
+                    try {
+                        task.run();
+                    } finally {
+                        stats.recordCompleted(System.nanoTime());
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            stats.depth.decrementAndGet();
+            stats.rejected.incrementAndGet();
+            Log.v(TAG, "Exception: " + lane + " lane rejected " + action);
+            return false;
+        }
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        JSONObject lanes = new JSONObject();
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane.name(), mStats.get(lane).asJson());
+        }
+        return lanes;
+    }
+
+    void shutdown() {
+        for (ExecutorService executorService : mExecutors.values()) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Throughput is reported over the time the lane was in use, from the first
+     * task queued to the last one completed, so idle time before the first call
+     * does not dilute it.
+     */
+    private static class LaneStats {
+        final AtomicInteger depth = new AtomicInteger();
+        final AtomicInteger maxDepth = new AtomicInteger();
+        final AtomicLong started = new AtomicLong();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong totalWaitNanos = new AtomicLong();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+        final AtomicLong firstEnqueuedAt = new AtomicLong();
+        final AtomicLong lastCompletedAt = new AtomicLong();
+        final PushIOLatencyHistogram wait = new PushIOLatencyHistogram();
+
+        void recordEnqueued(long nanos) {
+            firstEnqueuedAt.compareAndSet(0, nanos);
+
+            final int current = depth.incrementAndGet();
+            int max = maxDepth.get();
+            while (current > max && !maxDepth.compareAndSet(max, current)) {
+                max = maxDepth.get();
+            }
+        }
+
+        void recordWait(long waitNanos) {
+            started.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            wait.record(waitNanos);
+
+            long max = maxWaitNanos.get();
+            while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+                max = maxWaitNanos.get();
+            }
+        }
+
+        void recordCompleted(long nanos) {
+            completed.incrementAndGet();
+            lastCompletedAt.set(nanos);
+        }
+
+        double throughputPerSec() {
+            final long elapsedNanos = lastCompletedAt.get() - firstEnqueuedAt.get();
+            return (elapsedNanos > 0) ? completed.get() * 1e9 / elapsedNanos : 0;
+        }
+
+        JSONObject asJson() throws JSONException {
+            final long count = started.get();
+
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("queueDepth", depth.get());
+            jsonObject.put("maxQueueDepth", maxDepth.get());
+            jsonObject.put("started", count);
+            jsonObject.put("completed", completed.get());
+            jsonObject.put("rejected", rejected.get());
+            jsonObject.put("avgWaitMs", count > 0 ? totalWaitNanos.get() / count / 1e6 : 0);
+            jsonObject.put("maxWaitMs", maxWaitNanos.get() / 1e6);
+            jsonObject.put("wait", wait.asJson());
+            jsonObject.put("throughputPerSec", throughputPerSec());
+            return jsonObject;
+        }
+    }
+
+    private static class LaneThreadFactory implements ThreadFactory {
+        private final String mName;
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        LaneThreadFactory(Lane lane) {
+            mName = "pushio-" + lane.name().toLowerCase();
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, mName + "-" + mCount.incrementAndGet());
+        }
+    }
+}
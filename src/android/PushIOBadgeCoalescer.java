@@ -0,0 +1,232 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.util.Log;
+
+import com.pushio.manager.PIOBadgeSyncListener;
+import com.pushio.manager.PushIOManager;
+
+import org.apache.cordova.CallbackContext;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the badge count and folds bursts of {@code setBadgeCount} and
+ * {@code resetBadgeCount} calls into one SDK badge sync.
+ *
+ * <p>A call updates the count at once, so {@code getBadgeCount} sees it without
+ * asking the SDK. The sync starts {@code coalesceMs} after the first call of a
+ * burst, or as soon as the previous sync has finished, and sends the count of
+ * the latest call, forced if any of the calls asked for it; calls made in the
+ * meantime replace each other. Every caller whose call went into a sync gets
+ * that sync's result.
+ *
+ * <p>The count is read from the SDK once and then served from memory. It is
+ * forgotten after a failed sync and on {@link #invalidate}, which the plugin
+ * calls whenever the SDK may have changed the badge: a push handed to
+ * {@code handleMessage}, a notification opening the app and a change of
+ * Message Center badging.
+ */
+class PushIOBadgeCoalescer {
+    private static final String TAG = "pushio-cordova";
+
+    static final int DEFAULT_COALESCE_MS = 100;
+
+    /**
+     * Told about the result of every sync.
+     */
+    interface Listener {
+        void onBadgeSynced(int count, boolean synced, String message);
+    }
+
+    private final PushIOManager mPushIOManager;
+    private final Listener mListener;
+    private final long mCoalesceMs;
+    private final ScheduledExecutorService mSyncExecutor;
+
+    private boolean mCountKnown;
+    private int mCount;
+
+    private boolean mPending;
+    private boolean mPendingReset;
+    private boolean mPendingForce;
+    private List<CallbackContext> mPendingCallers = new ArrayList<>();
+    private boolean mSyncScheduled;
+    private boolean mSyncInFlight;
+
+    private long mRequests;
+    private long mSyncs;
+    private long mErrors;
+
+    private final Runnable mSyncTask = new Runnable() {
+        @Override
+        public void run() {
+            sync();
+        }
+    };
+
+    PushIOBadgeCoalescer(PushIOManager pushIOManager, Listener listener, long coalesceMs) {
+        mPushIOManager = pushIOManager;
+        mListener = listener;
+        mCoalesceMs = Math.max(0, coalesceMs);
+        mSyncExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "pushio-badge");
+            }
+        });
+    }
+
+    synchronized int getCount() {
+        if (!mCountKnown) {
+            mCount = mPushIOManager.getBadgeCount();
+            mCountKnown = true;
+        }
+        return mCount;
+    }
+
+    void set(int count, boolean force, CallbackContext callbackContext) {
+        update(count, false, force, callbackContext);
+    }
+
+    void reset(boolean force, CallbackContext callbackContext) {
+        update(0, true, force, callbackContext);
+    }
+
+    /**
+     * Forgets the count, e.g. when a push may have changed it in the SDK; the next
+     * {@link #getCount} asks the SDK. A count set by a pending call is kept.
+     */
+    synchronized void invalidate() {
+        if (!mPending && !mSyncInFlight) {
+            mCountKnown = false;
+        }
+    }
+
+    private void update(int count, boolean reset, boolean force, CallbackContext callbackContext) {
+        final boolean schedule;
+        synchronized (this) {
+            mRequests++;
+            mCount = count;
+            mCountKnown = true;
+            mPending = true;
+            mPendingReset = reset;
+            mPendingForce |= force;
+            mPendingCallers.add(callbackContext);
+
+            schedule = !mSyncScheduled && !mSyncInFlight;
+            if (schedule) {
+                mSyncScheduled = true;
+            }
+        }
+
+        if (schedule) {
+            mSyncExecutor.schedule(mSyncTask, mCoalesceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void sync() {
+        final int count;
+        final boolean reset;
+        final boolean force;
+        final List<CallbackContext> callers;
+        synchronized (this) {
+            mSyncScheduled = false;
+            if (!mPending) {
+                return;
+            }
+
+            count = mCount;
+            reset = mPendingReset;
+            force = mPendingForce;
+            callers = mPendingCallers;
+            mPending = false;
+            mPendingForce = false;
+            mPendingCallers = new ArrayList<>();
+            mSyncInFlight = true;
+            mSyncs++;
+        }
+
+        PIOBadgeSyncListener listener = new PIOBadgeSyncListener() {
+            @Override
+            public void onBadgeSyncedSuccess(String s) {
+                onSynced(count, callers, true, s);
+            }
+
+            @Override
+            public void onBadgeSyncedFailure(String s) {
+                onSynced(count, callers, false, s);
+            }
+        };
+
+        try {
+            if (reset) {
+                mPushIOManager.resetBadgeCount(force, listener);
+            } else {
+                mPushIOManager.setBadgeCount(count, force, listener);
+            }
+        } catch (RuntimeException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            onSynced(count, callers, false, e.getMessage());
+        }
+    }
+
+    private void onSynced(int count, List<CallbackContext> callers, boolean synced, String message) {
+        final boolean syncNext;
+        synchronized (this) {
+            mSyncInFlight = false;
+            if (!synced) {
+                mErrors++;
+                if (!mPending) {
+                    // The SDK may not have the count the callers set.
+                    mCountKnown = false;
+                }
+            }
+            syncNext = mPending && !mSyncScheduled;
+            if (syncNext) {
+                mSyncScheduled = true;
+            }
+        }
+
+        for (CallbackContext callbackContext : callers) {
+            if (synced) {
+                callbackContext.success(message);
+            } else {
+                callbackContext.error(message);
+            }
+        }
+        if (mListener != null) {
+            mListener.onBadgeSynced(count, synced, message);
+        }
+
+        if (syncNext) {
+            mSyncExecutor.execute(mSyncTask);
+        }
+    }
+
+    void shutdown() {
+        mSyncExecutor.shutdown();
+    }
+
+    synchronized JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("requests", mRequests);
+        jsonObject.put("syncs", mSyncs);
+        jsonObject.put("errors", mErrors);
+        jsonObject.put("coalescingRatio", mSyncs > 0 ? (double) mRequests / mSyncs : 0);
+        jsonObject.put("pendingCallers", mPendingCallers.size());
+        jsonObject.put("syncInFlight", mSyncInFlight);
+        return jsonObject;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.content.Intent;
+import android.content.IntentFilter;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Formats dates as ISO-8601 in the device time zone, reusing one
+ * {@link SimpleDateFormat} per thread instead of creating one per date.
+ *
+ * <p>A cached formatter keeps the time zone and locale it was created with, so
+ * {@link #invalidate()} must be called when either changes, i.e. on the
+ * broadcasts matched by {@link #invalidationIntentFilter()}.
+ */
+final class PushIODateFormatter {
+    private static final String DATE_FORMAT_ISO8601 = "yyyy-MM-dd'T'HH:mm:ssZZZZZ";
+
+    private static volatile int sGeneration;
+
+    private static final class CachedFormat {
+        final DateFormat format;
+        final int generation;
+
+        CachedFormat(int generation) {
+            this.generation = generation;
+            this.format = new SimpleDateFormat(DATE_FORMAT_ISO8601, Locale.getDefault());
+            this.format.setTimeZone(TimeZone.getDefault());
+        }
+    }
+
+    private static final ThreadLocal<CachedFormat> sFormats = new ThreadLocal<>();
+
+    private PushIODateFormatter() {
+    }
+
+    static String format(Date date) {
+        if (date == null) {
+            return null;
+        }
+
+        final int generation = sGeneration;
+        CachedFormat cached = sFormats.get();
+        if (cached == null || cached.generation != generation) {
+            cached = new CachedFormat(generation);
+            sFormats.set(cached);
+        }
+        return cached.format.format(date);
+    }
+
+    /**
+     * Makes every thread create a new formatter on its next use.
+     */
+    static synchronized void invalidate() {
+        sGeneration++;
+    }
+
+    static IntentFilter invalidationIntentFilter() {
+        IntentFilter intentFilter = new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED);
+        intentFilter.addAction(Intent.ACTION_LOCALE_CHANGED);
+        return intentFilter;
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+import android.util.Log;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+
+/**
+ * Deep links received through {@code trackEmailConversion} that JS has not seen yet.
+ *
+ * <p>Links are kept in arrival order, at most {@code capacity} of them; when the
+ * queue is full the oldest link is dropped. The queue is written to
+ * {@link SharedPreferences} on every change, so a link that arrived while the
+ * WebView was still starting survives the process being killed.
+ *
+ * <p>A link leaves the queue once it has been handed to JS, either to the
+ * subscriber registered with {@code subscribeDeepLinks}, which first gets every
+ * queued link replayed, or to a one-shot {@code onDeepLinkReceived} call. A
+ * one-shot call made while the queue is empty waits for the next link.
+ */
+class PushIODeepLinkQueue {
+    private static final String TAG = "pushio-cordova";
+
+    static final int DEFAULT_CAPACITY = 20;
+
+    private static final String PREFS_NAME = "pushio-cordova-deeplinks";
+    private static final String PREFS_KEY = "queue";
+
+    private static final class DeepLink {
+        final String deepLinkUrl;
+        final String webLinkUrl;
+        final long receivedAt;
+
+        DeepLink(String deepLinkUrl, String webLinkUrl, long receivedAt) {
+            this.deepLinkUrl = deepLinkUrl;
+            this.webLinkUrl = webLinkUrl;
+            this.receivedAt = receivedAt;
+        }
+
+        boolean sameLinkAs(String otherDeepLinkUrl, String otherWebLinkUrl) {
+            return TextUtils.equals(deepLinkUrl, otherDeepLinkUrl) && TextUtils.equals(webLinkUrl, otherWebLinkUrl);
+        }
+
+        JSONObject asJson() throws JSONException {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("deepLinkUrl", deepLinkUrl);
+            jsonObject.put("webLinkUrl", webLinkUrl);
+            jsonObject.put("receivedAt", receivedAt);
+            return jsonObject;
+        }
+    }
+
+    private final Context mContext;
+    private final int mCapacity;
+
+    private ArrayDeque<DeepLink> mQueue;
+    private CallbackContext mSubscriber;
+    private CallbackContext mWaiter;
+
+    private long mReceived;
+    private long mDuplicates;
+    private long mDropped;
+    private long mDelivered;
+    private long mReplayed;
+
+    PushIODeepLinkQueue(Context context, int capacity) {
+        mContext = context;
+        mCapacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Queues a link, or hands it straight to the subscriber or waiting one-shot
+     * call. A link equal to one still queued is dropped, so an intent that is
+     * handled again after a restart does not queue its link twice. Results are
+     * sent while holding the lock, which keeps links in arrival order; sending
+     * only hands them to the bridge queue.
+     */
+    synchronized void offer(String deepLinkUrl, String webLinkUrl) {
+        if (TextUtils.isEmpty(deepLinkUrl) && TextUtils.isEmpty(webLinkUrl)) {
+            return;
+        }
+
+        ensureLoaded();
+        mReceived++;
+        for (DeepLink queued : mQueue) {
+            if (queued.sameLinkAs(deepLinkUrl, webLinkUrl)) {
+                mDuplicates++;
+                return;
+            }
+        }
+
+        final DeepLink link = new DeepLink(deepLinkUrl, webLinkUrl, System.currentTimeMillis());
+        if (mSubscriber != null) {
+            mDelivered++;
+            send(mSubscriber, link, false, true);
+        } else if (mWaiter != null) {
+            mDelivered++;
+            send(mWaiter, link, false, false);
+            mWaiter = null;
+        } else {
+            while (mQueue.size() >= mCapacity) {
+                mQueue.poll();
+                mDropped++;
+            }
+            mQueue.add(link);
+            persist();
+        }
+    }
+
+    /**
+     * Makes {@code callbackContext} the subscriber, replaying every queued link to
+     * it. A previous subscriber is closed.
+     */
+    synchronized void subscribe(CallbackContext callbackContext) {
+        ensureLoaded();
+        close(mSubscriber);
+        mSubscriber = callbackContext;
+
+        if (mQueue.isEmpty()) {
+            PluginResult result = new PluginResult(PluginResult.Status.NO_RESULT);
+            result.setKeepCallback(true);
+            callbackContext.sendPluginResult(result);
+            return;
+        }
+
+        for (DeepLink link : mQueue) {
+            send(callbackContext, link, true, true);
+        }
+        mDelivered += mQueue.size();
+        mReplayed += mQueue.size();
+        mQueue.clear();
+        persist();
+    }
+
+    synchronized void unsubscribe() {
+        close(mSubscriber);
+        mSubscriber = null;
+    }
+
+    /**
+     * Answers a one-shot {@code onDeepLinkReceived} call with the oldest queued
+     * link, or keeps it until the next link arrives. Only the latest waiting call
+     * is kept.
+     */
+    synchronized void poll(CallbackContext callbackContext) {
+        ensureLoaded();
+        final DeepLink link = mQueue.poll();
+        if (link == null) {
+            close(mWaiter);
+            mWaiter = callbackContext;
+            return;
+        }
+
+        mDelivered++;
+        persist();
+        send(callbackContext, link, false, false);
+    }
+
+    /**
+     * Forgets the subscriber and waiting call when the WebView navigates or
+     * reloads; their callbacks no longer reach a page. Links queue up again
+     * until the new page subscribes.
+     */
+    synchronized void onReset() {
+        mSubscriber = null;
+        mWaiter = null;
+    }
+
+    synchronized JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("queued", (mQueue != null) ? mQueue.size() : 0);
+        jsonObject.put("capacity", mCapacity);
+        jsonObject.put("subscribed", mSubscriber != null);
+        jsonObject.put("received", mReceived);
+        jsonObject.put("duplicates", mDuplicates);
+        jsonObject.put("dropped", mDropped);
+        jsonObject.put("delivered", mDelivered);
+        jsonObject.put("replayed", mReplayed);
+        return jsonObject;
+    }
+
+    private static void send(CallbackContext callbackContext, DeepLink link, boolean replayed, boolean keepCallback) {
+        try {
+            JSONObject jsonObject = link.asJson();
+            jsonObject.put("replayed", replayed);
+
+            PluginResult result = new PluginResult(PluginResult.Status.OK, jsonObject);
+            result.setKeepCallback(keepCallback);
+            callbackContext.sendPluginResult(result);
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+        }
+    }
+
+    private static void close(CallbackContext callbackContext) {
+        if (callbackContext != null && !callbackContext.isFinished()) {
+            callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.NO_RESULT));
+        }
+    }
+
+    private void ensureLoaded() {
+        if (mQueue != null) {
+            return;
+        }
+
+        mQueue = new ArrayDeque<>();
+        final String json = prefs().getString(PREFS_KEY, null);
+        if (TextUtils.isEmpty(json)) {
+            return;
+        }
+
+        try {
+            JSONArray links = new JSONArray(json);
+            for (int i = Math.max(0, links.length() - mCapacity); i < links.length(); i++) {
+                JSONObject link = links.optJSONObject(i);
+                if (link != null) {
+                    mQueue.add(new DeepLink(link.optString("deepLinkUrl", null), link.optString("webLinkUrl", null),
+                            link.optLong("receivedAt")));
+                }
+            }
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+        }
+    }
+
+    private void persist() {
+        SharedPreferences.Editor editor = prefs().edit();
+        if (mQueue.isEmpty()) {
+            editor.remove(PREFS_KEY);
+        } else {
+            JSONArray links = new JSONArray();
+            try {
+                for (DeepLink link : mQueue) {
+                    links.put(link.asJson());
+                }
+            } catch (JSONException e) {
+                Log.v(TAG, "Exception: " + e.getMessage());
+            }
+            editor.putString(PREFS_KEY, links.toString());
+        }
+        editor.apply();
+    }
+
+    private SharedPreferences prefs() {
+        return mContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.util.Log;
+
+import com.pushio.manager.PushIOManager;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory buffer for events received through {@code trackEvents}.
+ *
+ * <p>Events are handed to {@link PushIOManager#trackEvent} in batches, either as
+ * soon as {@code batchSize} events are pending or {@code flushIntervalMs} after
+ * the first pending event arrived, whichever comes first. When the buffer is
+ * full new events are dropped and counted, so JS can back off.
+ */
+class PushIOEventBuffer {
+    private static final String TAG = "pushio-cordova";
+
+    static final int DEFAULT_CAPACITY = 1000;
+    static final int DEFAULT_BATCH_SIZE = 50;
+    static final int DEFAULT_FLUSH_INTERVAL_MS = 1000;
+
+    private final PushIOManager mPushIOManager;
+    private final PushIOEventJournal mEventJournal;
+    private final int mCapacity;
+    private final int mBatchSize;
+    private final long mFlushIntervalMs;
+
+    private final ArrayDeque<PendingEvent> mPending;
+    private boolean mFlushScheduled;
+
+    private final ScheduledExecutorService mFlushExecutor;
+
+    private final AtomicLong mAccepted = new AtomicLong();
+    private final AtomicLong mDropped = new AtomicLong();
+    private final AtomicLong mFlushed = new AtomicLong();
+    private final AtomicLong mFlushes = new AtomicLong();
+
+    private final Runnable mFlushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    PushIOEventBuffer(PushIOManager pushIOManager, PushIOEventJournal eventJournal, int capacity, int batchSize,
+            long flushIntervalMs) {
+        mPushIOManager = pushIOManager;
+        mEventJournal = eventJournal;
+        mCapacity = Math.max(1, capacity);
+        mBatchSize = Math.max(1, Math.min(batchSize, mCapacity));
+        mFlushIntervalMs = Math.max(0, flushIntervalMs);
+        mPending = new ArrayDeque<>(Math.min(mCapacity, 256));
+        mFlushExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "pushio-events");
+            }
+        });
+    }
+
+    /**
+     * Adds an event to the buffer. {@code journalSeq} is acknowledged in the
+     * event journal once the event is handed to the SDK; pass -1 if the event
+     * was not journaled.
+     *
+     * @return false if the buffer is full and the event was dropped.
+     */
+    boolean offer(String eventType, Map<String, Object> properties, long journalSeq) {
+        boolean flushNow = false;
+        boolean scheduleFlush = false;
+
+        synchronized (mPending) {
+            if (mPending.size() >= mCapacity) {
+                mDropped.incrementAndGet();
+                return false;
+            }
+
+            mPending.add(new PendingEvent(eventType, properties, journalSeq));
+            mAccepted.incrementAndGet();
+
+            if (mPending.size() >= mBatchSize) {
+                flushNow = true;
+            } else if (!mFlushScheduled) {
+                mFlushScheduled = true;
+                scheduleFlush = true;
+            }
+        }
+
+        if (flushNow) {
+            mFlushExecutor.execute(mFlushTask);
+        } else if (scheduleFlush) {
+            mFlushExecutor.schedule(mFlushTask, mFlushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    int pendingCount() {
+        synchronized (mPending) {
+            return mPending.size();
+        }
+    }
+
+    long droppedCount() {
+        return mDropped.get();
+    }
+
+    /**
+     * Hands every pending event to the SDK, one batch at a time. Runs on the flush thread.
+     */
+    void flush() {
+        while (true) {
+            final List<PendingEvent> batch;
+
+            synchronized (mPending) {
+                if (mPending.isEmpty()) {
+                    mFlushScheduled = false;
+                    return;
+                }
+
+                batch = new ArrayList<>(Math.min(mPending.size(), mBatchSize));
+                while (!mPending.isEmpty() && batch.size() < mBatchSize) {
+                    batch.add(mPending.poll());
+                }
+            }
+
+            for (PendingEvent event : batch) {
+                try {
+                    mPushIOManager.trackEvent(event.eventType, event.properties);
+                } catch (Exception e) {
+                    Log.v(TAG, "Exception: " + e.getMessage());
+                }
+                if (mEventJournal != null) {
+                    mEventJournal.ack(event.journalSeq);
+                }
+            }
+
+            mFlushed.addAndGet(batch.size());
+            mFlushes.incrementAndGet();
+        }
+    }
+
+    void flushAsync() {
+        mFlushExecutor.execute(mFlushTask);
+    }
+
+    void shutdown() {
+        mFlushExecutor.execute(mFlushTask);
+        mFlushExecutor.shutdown();
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("pending", pendingCount());
+        jsonObject.put("capacity", mCapacity);
+        jsonObject.put("accepted", mAccepted.get());
+        jsonObject.put("dropped", mDropped.get());
+        jsonObject.put("flushed", mFlushed.get());
+        jsonObject.put("flushes", mFlushes.get());
+        return jsonObject;
+    }
+
+    private static class PendingEvent {
+        final String eventType;
+        final Map<String, Object> properties;
+        final long journalSeq;
+
+        PendingEvent(String eventType, Map<String, Object> properties, long journalSeq) {
+            this.eventType = eventType;
+            this.properties = properties;
+            this.journalSeq = journalSeq;
+        }
+    }
+}
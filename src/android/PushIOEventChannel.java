@@ -0,0 +1,275 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.util.Log;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Native to JS event stream over the single callback kept open by {@code subscribeEvents}.
+ *
+ * <p>Events are sent in batches of up to {@code batchSize}, either as soon as that
+ * many are pending or {@code flushIntervalMs} after the first pending event was
+ * published. An event published with a coalescing key replaces a pending event
+ * of the same type and key, so JS only sees the latest state, e.g. of the badge.
+ *
+ * <p>Without a subscriber, up to {@code capacity} events are kept, dropping the
+ * oldest, and sent when JS subscribes.
+ */
+class PushIOEventChannel {
+    private static final String TAG = "pushio-cordova";
+
+    static final int DEFAULT_CAPACITY = 200;
+    static final int DEFAULT_BATCH_SIZE = 20;
+    static final int DEFAULT_FLUSH_INTERVAL_MS = 100;
+
+    static final String REGISTRATION = "registration";
+    static final String IAM_HYPERLINK = "iamHyperlink";
+    static final String DEEP_LINK = "deepLink";
+    static final String BADGE = "badge";
+    static final String MESSAGE_CENTER = "messageCenter";
+
+    private static final class Event {
+        final String type;
+        final String coalescingKey;
+        JSONObject data;
+        long timestamp;
+
+        Event(String type, String coalescingKey, JSONObject data) {
+            this.type = type;
+            this.coalescingKey = coalescingKey;
+            this.data = data;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        JSONObject asJson() throws JSONException {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("type", type);
+            jsonObject.put("timestamp", timestamp);
+            jsonObject.put("data", data);
+            return jsonObject;
+        }
+    }
+
+    private final int mCapacity;
+    private final int mBatchSize;
+    private final long mFlushIntervalMs;
+
+    private final ArrayDeque<Event> mPending;
+    private final Map<String, Event> mCoalescable = new HashMap<>();
+    private CallbackContext mSubscriber;
+    private boolean mFlushScheduled;
+    private long mDroppedSinceLastBatch;
+
+    private final ScheduledExecutorService mFlushExecutor;
+
+    private final AtomicLong mPublished = new AtomicLong();
+    private final AtomicLong mCoalesced = new AtomicLong();
+    private final AtomicLong mDropped = new AtomicLong();
+    private final AtomicLong mSent = new AtomicLong();
+    private final AtomicLong mBatches = new AtomicLong();
+
+    private final Runnable mFlushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    PushIOEventChannel(int capacity, int batchSize, long flushIntervalMs) {
+        mCapacity = Math.max(1, capacity);
+        mBatchSize = Math.max(1, Math.min(batchSize, mCapacity));
+        mFlushIntervalMs = Math.max(0, flushIntervalMs);
+        mPending = new ArrayDeque<>(Math.min(mCapacity, 64));
+        mFlushExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "pushio-channel");
+            }
+        });
+    }
+
+    /**
+     * Queues an event for the subscriber.
+     *
+     * @param coalescingKey if not null, replaces a pending event of the same type and key.
+     */
+    void publish(String type, String coalescingKey, JSONObject data) {
+        mPublished.incrementAndGet();
+
+        boolean flushNow = false;
+        boolean scheduleFlush = false;
+        synchronized (mPending) {
+            final String key = (coalescingKey != null) ? type + '\u0000' + coalescingKey : null;
+            Event pending = (key != null) ? mCoalescable.get(key) : null;
+            if (pending != null) {
+                pending.data = data;
+                pending.timestamp = System.currentTimeMillis();
+                mCoalesced.incrementAndGet();
+                return;
+            }
+
+            if (mPending.size() >= mCapacity) {
+                Event dropped = mPending.poll();
+                if (dropped.coalescingKey != null) {
+                    mCoalescable.remove(dropped.type + '\u0000' + dropped.coalescingKey);
+                }
+                mDropped.incrementAndGet();
+                mDroppedSinceLastBatch++;
+            }
+
+            Event event = new Event(type, coalescingKey, data);
+            mPending.add(event);
+            if (key != null) {
+                mCoalescable.put(key, event);
+            }
+
+            if (mSubscriber == null) {
+                return;
+            }
+            if (mPending.size() >= mBatchSize) {
+                flushNow = true;
+            } else if (!mFlushScheduled) {
+                mFlushScheduled = true;
+                scheduleFlush = true;
+            }
+        }
+
+        if (flushNow) {
+            mFlushExecutor.execute(mFlushTask);
+        } else if (scheduleFlush) {
+            mFlushExecutor.schedule(mFlushTask, mFlushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Makes {@code callbackContext} the subscriber and sends it the events kept so
+     * far. A previous subscriber is closed.
+     */
+    void subscribe(CallbackContext callbackContext) {
+        final CallbackContext previous;
+        synchronized (mPending) {
+            previous = mSubscriber;
+            mSubscriber = callbackContext;
+        }
+        close(previous);
+
+        PluginResult result = new PluginResult(PluginResult.Status.NO_RESULT);
+        result.setKeepCallback(true);
+        callbackContext.sendPluginResult(result);
+        mFlushExecutor.execute(mFlushTask);
+    }
+
+    void unsubscribe() {
+        final CallbackContext previous;
+        synchronized (mPending) {
+            previous = mSubscriber;
+            mSubscriber = null;
+        }
+        close(previous);
+    }
+
+    /**
+     * Forgets the subscriber when the WebView navigates or reloads; events are kept
+     * again until the new page subscribes.
+     */
+    void onReset() {
+        synchronized (mPending) {
+            mSubscriber = null;
+        }
+    }
+
+    /**
+     * Sends every pending event to the subscriber, one batch at a time. Runs on the
+     * flush thread, so batches go out in publishing order.
+     */
+    void flush() {
+        while (true) {
+            final CallbackContext subscriber;
+            final List<Event> batch;
+            final long dropped;
+
+            synchronized (mPending) {
+                subscriber = mSubscriber;
+                if (subscriber == null || mPending.isEmpty()) {
+                    mFlushScheduled = false;
+                    return;
+                }
+
+                batch = new ArrayList<>(Math.min(mPending.size(), mBatchSize));
+                while (!mPending.isEmpty() && batch.size() < mBatchSize) {
+                    Event event = mPending.poll();
+                    if (event.coalescingKey != null) {
+                        mCoalescable.remove(event.type + '\u0000' + event.coalescingKey);
+                    }
+                    batch.add(event);
+                }
+                dropped = mDroppedSinceLastBatch;
+                mDroppedSinceLastBatch = 0;
+            }
+
+            try {
+                JSONArray events = new JSONArray();
+                for (Event event : batch) {
+                    events.put(event.asJson());
+                }
+                JSONObject jsonObject = new JSONObject();
+                jsonObject.put("events", events);
+                jsonObject.put("dropped", dropped);
+
+                PluginResult result = new PluginResult(PluginResult.Status.OK, jsonObject);
+                result.setKeepCallback(true);
+                subscriber.sendPluginResult(result);
+            } catch (JSONException e) {
+                Log.v(TAG, "Exception: " + e.getMessage());
+            }
+
+            mSent.addAndGet(batch.size());
+            mBatches.incrementAndGet();
+        }
+    }
+
+    void shutdown() {
+        mFlushExecutor.shutdown();
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        synchronized (mPending) {
+            jsonObject.put("pending", mPending.size());
+            jsonObject.put("subscribed", mSubscriber != null);
+        }
+        jsonObject.put("capacity", mCapacity);
+        jsonObject.put("published", mPublished.get());
+        jsonObject.put("coalesced", mCoalesced.get());
+        jsonObject.put("dropped", mDropped.get());
+        jsonObject.put("sent", mSent.get());
+        jsonObject.put("batches", mBatches.get());
+        return jsonObject;
+    }
+
+    private static void close(CallbackContext callbackContext) {
+        if (callbackContext != null && !callbackContext.isFinished()) {
+            callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.NO_RESULT));
+        }
+    }
+}
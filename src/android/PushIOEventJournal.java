@@ -0,0 +1,512 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * Append-only, segment-rotated journal of events and engagements that have not
+ * yet been handed over to the SDK.
+ *
+ * <p>Every record is written before it is passed to {@code PushIOManager} and
+ * acknowledged once the SDK has accepted it. After a crash or process death the
+ * records that were never acknowledged are returned by {@link #recover()} so
+ * they can be replayed.
+ *
+ * <p>On disk each segment is a UTF-8 text file of one line per entry:
+ * {@code A <seq> <kind> <timestamp> <payload>} for a record and {@code K <seq>}
+ * for its acknowledgement. Only lines ending in a newline are read on recovery,
+ * so a line torn by a crash, which can only be the last one of a segment, is
+ * skipped whole. A
+ * segment is deleted once it is no longer the active segment and all of its
+ * records are acknowledged. When the journal grows past its size limit, the
+ * records still pending in the oldest segment are copied into the active
+ * segment so that the oldest one can be deleted; if that is not enough, new
+ * records are refused.
+ *
+ * <p>All writes reach the OS before {@link #append} returns, so records survive
+ * process death. {@link FsyncPolicy} controls how often they are also forced
+ * to the storage device.
+ */
+class PushIOEventJournal {
+    private static final String TAG = "pushio-cordova";
+
+    static final String KIND_EVENT = "E";
+    static final String KIND_ENGAGEMENT = "G";
+
+    static final long DEFAULT_SEGMENT_BYTES = 256 * 1024;
+    static final long DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+    static final long DEFAULT_FSYNC_INTERVAL_MS = 1000;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    enum FsyncPolicy {
+        /** Force every write to the device. */
+        ALWAYS,
+        /** Force at most once per fsync interval, on the next write. */
+        INTERVAL,
+        /** Leave flushing to the OS. */
+        NEVER;
+
+        static FsyncPolicy fromString(String value) {
+            for (FsyncPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(value)) {
+                    return policy;
+                }
+            }
+            return INTERVAL;
+        }
+    }
+
+    static class Record {
+        final long seq;
+        final String kind;
+        final long timestamp;
+        final String payload;
+        private Segment segment;
+
+        Record(long seq, String kind, long timestamp, String payload) {
+            this.seq = seq;
+            this.kind = kind;
+            this.timestamp = timestamp;
+            this.payload = payload;
+        }
+    }
+
+    private static class Segment {
+        final long id;
+        final File file;
+        long size;
+        int live;
+
+        Segment(long id, File file) {
+            this.id = id;
+            this.file = file;
+            this.size = file.length();
+        }
+    }
+
+    private static PushIOEventJournal sInstance;
+
+    private final File mDirectory;
+    private final FsyncPolicy mFsyncPolicy;
+    private final long mFsyncIntervalMs;
+    private final long mSegmentBytes;
+    private final long mMaxBytes;
+
+    private final LinkedList<Segment> mSegments = new LinkedList<>();
+    private final TreeMap<Long, Record> mLive = new TreeMap<>();
+    private FileOutputStream mOutputStream;
+    private FileChannel mChannel;
+    private long mNextSeq = 1;
+    private long mLastSyncMs;
+    private boolean mOpen;
+    private boolean mScanned;
+    /** Records found pending on disk when the journal was first opened; null once recovered. */
+    private List<Record> mRecoverable;
+
+    private long mAppended;
+    private long mAcked;
+    private long mRefused;
+    private long mSyncs;
+
+    /**
+     * Returns the process-wide journal for the given directory. The journal is
+     * shared so that a re-created plugin instance does not open the same files twice.
+     */
+    static synchronized PushIOEventJournal getInstance(File directory, FsyncPolicy fsyncPolicy,
+            long fsyncIntervalMs, long segmentBytes, long maxBytes) {
+        if (sInstance == null) {
+            sInstance = new PushIOEventJournal(directory, fsyncPolicy, fsyncIntervalMs, segmentBytes, maxBytes);
+        }
+        return sInstance;
+    }
+
+    PushIOEventJournal(File directory, FsyncPolicy fsyncPolicy, long fsyncIntervalMs, long segmentBytes,
+            long maxBytes) {
+        mDirectory = directory;
+        mFsyncPolicy = fsyncPolicy;
+        mFsyncIntervalMs = Math.max(0, fsyncIntervalMs);
+        mSegmentBytes = Math.max(1024, segmentBytes);
+        mMaxBytes = Math.max(mSegmentBytes, maxBytes);
+    }
+
+    /**
+     * Returns the records that were not acknowledged before the journal was last
+     * closed, oldest first. Records appended in this process are never returned,
+     * even if they are not acknowledged yet, because they belong to work that is
+     * still in flight. Only the first call per process returns anything.
+     */
+    synchronized List<Record> recover() {
+        if (!ensureOpen() || mRecoverable == null) {
+            return new ArrayList<>();
+        }
+
+        final List<Record> records = new ArrayList<>(mRecoverable.size());
+        for (Record record : mRecoverable) {
+            if (mLive.containsKey(record.seq)) {
+                records.add(record);
+            }
+        }
+        mRecoverable = null;
+        return records;
+    }
+
+    /**
+     * Writes a record.
+     *
+     * @return the sequence number to acknowledge, or -1 if the record could not be written.
+     */
+    synchronized long append(String kind, String payload) {
+        if (!ensureOpen()) {
+            return -1;
+        }
+
+        final long seq = mNextSeq;
+        final Record record = new Record(seq, kind, System.currentTimeMillis(), payload);
+        final byte[] line = recordLine(record);
+
+        if (totalBytes() + line.length > mMaxBytes) {
+            compact(true);
+            if (totalBytes() + line.length > mMaxBytes) {
+                mRefused++;
+                return -1;
+            }
+        }
+
+        if (!write(line)) {
+            return -1;
+        }
+
+        mNextSeq++;
+        mAppended++;
+        record.segment = mSegments.getLast();
+        record.segment.live++;
+        mLive.put(seq, record);
+
+        if (record.segment.size >= mSegmentBytes) {
+            rotate();
+        }
+        return seq;
+    }
+
+    /**
+     * Marks a record as handed over. Unknown or already acknowledged sequence
+     * numbers are ignored.
+     */
+    synchronized void ack(long seq) {
+        if (seq <= 0 || !mOpen) {
+            return;
+        }
+
+        final Record record = mLive.remove(seq);
+        if (record == null) {
+            return;
+        }
+
+        mAcked++;
+        record.segment.live--;
+        write(("K " + seq + "\n").getBytes(UTF_8));
+
+        if (record.segment != mSegments.getLast()) {
+            compact(false);
+        }
+    }
+
+    synchronized int pendingCount() {
+        return mLive.size();
+    }
+
+    synchronized JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("pending", mLive.size());
+        jsonObject.put("segments", mSegments.size());
+        jsonObject.put("bytes", totalBytes());
+        jsonObject.put("appended", mAppended);
+        jsonObject.put("acked", mAcked);
+        jsonObject.put("refused", mRefused);
+        jsonObject.put("syncs", mSyncs);
+        jsonObject.put("fsyncPolicy", mFsyncPolicy.name());
+        return jsonObject;
+    }
+
+    private boolean ensureOpen() {
+        if (mOpen) {
+            return true;
+        }
+
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            Log.v(TAG, "Exception: Unable to create journal directory " + mDirectory);
+            return false;
+        }
+
+        mSegments.clear();
+        mLive.clear();
+
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            files = new File[0];
+        }
+
+        final List<Segment> existing = new ArrayList<>();
+        for (File file : files) {
+            final long id = segmentId(file);
+            if (id >= 0) {
+                existing.add(new Segment(id, file));
+            }
+        }
+        Segment[] sorted = existing.toArray(new Segment[0]);
+        Arrays.sort(sorted, new Comparator<Segment>() {
+            @Override
+            public int compare(Segment lhs, Segment rhs) {
+                return lhs.id < rhs.id ? -1 : (lhs.id == rhs.id ? 0 : 1);
+            }
+        });
+
+        long nextSegmentId = 1;
+        for (Segment segment : sorted) {
+            mSegments.add(segment);
+            readSegment(segment);
+            nextSegmentId = segment.id + 1;
+        }
+
+        // A re-open after a failed rotation also reads this process's records; only
+        // what the first open found is left over from an earlier process.
+        if (!mScanned) {
+            mScanned = true;
+            mRecoverable = new ArrayList<>(mLive.values());
+        }
+
+        // Always start a fresh segment, so nothing is appended after a torn line.
+        if (!openSegment(nextSegmentId)) {
+            return false;
+        }
+
+        mOpen = true;
+        compact(false);
+        return true;
+    }
+
+    private void readSegment(Segment segment) {
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(segment.file), UTF_8));
+            final StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '\n') {
+                    readLine(segment, line.toString());
+                    line.setLength(0);
+                } else {
+                    line.append((char) c);
+                }
+            }
+            if (line.length() > 0) {
+                // Cut short by a crash: "K 12" may read as "K 1", and a record may
+                // have lost the end of its payload.
+                Log.v(TAG, "Skipping torn journal entry in " + segment.file.getName());
+            }
+        } catch (IOException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    Log.v(TAG, "Exception: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void readLine(Segment segment, String line) {
+        try {
+            if (line.startsWith("A ")) {
+                final String[] parts = line.split(" ", 5);
+                if (parts.length < 5) {
+                    return;
+                }
+                final Record record = new Record(Long.parseLong(parts[1]), parts[2], Long.parseLong(parts[3]),
+                        parts[4]);
+                // A record relocated by compaction appears twice; the later copy wins.
+                final Record previous = mLive.put(record.seq, record);
+                if (previous != null) {
+                    previous.segment.live--;
+                }
+                record.segment = segment;
+                segment.live++;
+                mNextSeq = Math.max(mNextSeq, record.seq + 1);
+
+            } else if (line.startsWith("K ")) {
+                final long seq = Long.parseLong(line.substring(2).trim());
+                final Record record = mLive.remove(seq);
+                if (record != null) {
+                    record.segment.live--;
+                }
+                mNextSeq = Math.max(mNextSeq, seq + 1);
+            }
+        } catch (NumberFormatException e) {
+            Log.v(TAG, "Skipping unreadable journal entry in " + segment.file.getName());
+        }
+    }
+
+    private boolean openSegment(long id) {
+        final File file = new File(mDirectory, String.format(Locale.US, "%s%010d%s", SEGMENT_PREFIX, id,
+                SEGMENT_SUFFIX));
+        try {
+            mOutputStream = new FileOutputStream(file, true);
+            mChannel = mOutputStream.getChannel();
+            mSegments.add(new Segment(id, file));
+            return true;
+        } catch (IOException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void rotate() {
+        final long nextId = mSegments.getLast().id + 1;
+        try {
+            mChannel.force(false);
+            mSyncs++;
+            mOutputStream.close();
+        } catch (IOException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+        }
+
+        if (!openSegment(nextId)) {
+            mOpen = false;
+            return;
+        }
+        compact(false);
+    }
+
+    /**
+     * Deletes fully acknowledged segments from the oldest end. With
+     * {@code relocate}, the pending records of the oldest segment are first
+     * copied into the active segment so that it can be deleted too, provided
+     * that frees at least half of it.
+     */
+    private void compact(boolean relocate) {
+        while (mSegments.size() > 1) {
+            final Segment oldest = mSegments.getFirst();
+
+            if (oldest.live > 0) {
+                if (!relocate || !relocateLive(oldest)) {
+                    return;
+                }
+                relocate = false;
+            }
+
+            mSegments.removeFirst();
+            if (!oldest.file.delete()) {
+                Log.v(TAG, "Unable to delete journal segment " + oldest.file.getName());
+            }
+        }
+    }
+
+    private boolean relocateLive(Segment segment) {
+        long liveBytes = 0;
+        for (Record record : mLive.values()) {
+            if (record.segment == segment) {
+                liveBytes += recordLine(record).length;
+            }
+        }
+
+        // Copying only pays off if it frees a meaningful part of the segment.
+        if (liveBytes > segment.size / 2) {
+            return false;
+        }
+
+        final Segment active = mSegments.getLast();
+        for (Record record : mLive.values()) {
+            if (record.segment == segment) {
+                if (!write(recordLine(record))) {
+                    return false;
+                }
+                segment.live--;
+                active.live++;
+                record.segment = active;
+            }
+        }
+        return true;
+    }
+
+    private boolean write(byte[] bytes) {
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                mChannel.write(buffer);
+            }
+            mSegments.getLast().size += bytes.length;
+            maybeSync();
+            return true;
+        } catch (IOException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void maybeSync() throws IOException {
+        if (mFsyncPolicy == FsyncPolicy.NEVER) {
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+        if (mFsyncPolicy == FsyncPolicy.ALWAYS || now - mLastSyncMs >= mFsyncIntervalMs) {
+            mChannel.force(false);
+            mLastSyncMs = now;
+            mSyncs++;
+        }
+    }
+
+    private long totalBytes() {
+        long total = 0;
+        for (Segment segment : mSegments) {
+            total += segment.size;
+        }
+        return total;
+    }
+
+    private static byte[] recordLine(Record record) {
+        return ("A " + record.seq + " " + record.kind + " " + record.timestamp + " " + record.payload + "\n")
+                .getBytes(UTF_8);
+    }
+
+    private static long segmentId(File file) {
+        final String name = file.getName();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,535 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass JSON reader that builds {@link HashMap}/{@link ArrayList} trees
+ * straight from the raw action arguments, without an intermediate
+ * {@code JSONObject}/{@code JSONArray} tree.
+ *
+ * <p>Values are produced with the same types as {@code org.json} on Android:
+ * {@link Integer}, {@link Long} or {@link Double} for numbers, {@link Boolean},
+ * {@link String} and {@link JSONObject#NULL}. Members are collected on a value
+ * stack and copied into a collection of the exact size once the enclosing
+ * object or array is closed. Object keys are interned through a small shared
+ * table, so repeated property names do not allocate a new string per payload.
+ *
+ * <p>For journaling and forwarding, {@link Args} also keeps the raw text of every
+ * top-level argument and of the elements of top-level array arguments.
+ */
+final class PushIOJsonParser {
+    static final int DEFAULT_MAX_DEPTH = 32;
+    static final int DEFAULT_MAX_VALUES = 100000;
+
+    private static final int INTERN_TABLE_SIZE = 1024;
+    private static final String[] sInternedKeys = new String[INTERN_TABLE_SIZE];
+
+    /**
+     * Parsed action arguments.
+     */
+    static final class Args {
+        private final String mRaw;
+        private final List<Object> mValues;
+        private final int[] mSpans;
+        private final int[][] mElementSpans;
+
+        private Args(String raw, List<Object> values, int[] spans, int[][] elementSpans) {
+            mRaw = raw;
+            mValues = values;
+            mSpans = spans;
+            mElementSpans = elementSpans;
+        }
+
+        int length() {
+            return mValues.size();
+        }
+
+        Object get(int index) {
+            return (index >= 0 && index < mValues.size()) ? mValues.get(index) : null;
+        }
+
+        /**
+         * Mirrors {@code JSONArray.optString}: missing and null values read as "".
+         */
+        String optString(int index) {
+            final Object value = get(index);
+            return (value == null || value == JSONObject.NULL) ? "" : String.valueOf(value);
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> optMap(int index) {
+            final Object value = get(index);
+            return (value instanceof Map) ? (Map<String, Object>) value : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object> optList(int index) {
+            final Object value = get(index);
+            return (value instanceof List) ? (List<Object>) value : null;
+        }
+
+        /**
+         * Returns the raw JSON text of a top-level argument, or null.
+         */
+        String rawAt(int index) {
+            if (index < 0 || index >= mValues.size()) {
+                return null;
+            }
+            return mRaw.substring(mSpans[2 * index], mSpans[2 * index + 1]);
+        }
+
+        /**
+         * Returns the raw JSON text of an element of a top-level array argument, or null.
+         */
+        String rawElementAt(int index, int elementIndex) {
+            if (index < 0 || index >= mElementSpans.length || mElementSpans[index] == null
+                    || elementIndex < 0 || 2 * elementIndex + 1 >= mElementSpans[index].length) {
+                return null;
+            }
+            final int[] spans = mElementSpans[index];
+            return mRaw.substring(spans[2 * elementIndex], spans[2 * elementIndex + 1]);
+        }
+    }
+
+    private final String mJson;
+    private final int mLength;
+    private final int mMaxDepth;
+    private final int mMaxValues;
+
+    private int mPos;
+    private int mDepth;
+    private int mValueCount;
+
+    private Object[] mStack = new Object[64];
+    private int mStackSize;
+
+    private PushIOJsonParser(String json, int maxDepth, int maxValues) {
+        mJson = json;
+        mLength = json.length();
+        mMaxDepth = maxDepth;
+        mMaxValues = maxValues;
+    }
+
+    static Args parseArgs(String json) throws JSONException {
+        return parseArgs(json, DEFAULT_MAX_DEPTH, DEFAULT_MAX_VALUES);
+    }
+
+    /**
+     * Parses a JSON array of action arguments.
+     *
+     * @throws JSONException if the text is not a JSON array, or exceeds the given
+     *                       nesting depth or total number of values.
+     */
+    static Args parseArgs(String json, int maxDepth, int maxValues) throws JSONException {
+        if (json == null) {
+            throw new JSONException("Arguments are null");
+        }
+
+        final PushIOJsonParser parser = new PushIOJsonParser(json, maxDepth, maxValues);
+        parser.skipWhitespace();
+        if (parser.peek() != '[') {
+            throw parser.syntaxError("Expected arguments array");
+        }
+        parser.mPos++;
+        parser.mDepth = 1;
+
+        final List<Integer> spans = new ArrayList<>(8);
+        final List<int[]> elementSpans = new ArrayList<>(8);
+        final int base = parser.mStackSize;
+
+        parser.skipWhitespace();
+        if (parser.peek() == ']') {
+            parser.mPos++;
+        } else {
+            while (true) {
+                parser.skipWhitespace();
+                final int start = parser.mPos;
+                final Object value;
+                if (parser.peek() == '[') {
+                    final List<Integer> childSpans = new ArrayList<>();
+                    value = parser.readArray(childSpans);
+                    elementSpans.add(toIntArray(childSpans));
+                } else {
+                    value = parser.readValue();
+                    elementSpans.add(null);
+                }
+                spans.add(start);
+                spans.add(parser.mPos);
+                parser.push(value);
+
+                if (!parser.nextElement(']')) {
+                    break;
+                }
+            }
+        }
+
+        parser.skipWhitespace();
+        if (parser.mPos != parser.mLength) {
+            throw parser.syntaxError("Unexpected trailing characters");
+        }
+
+        return new Args(json, parser.popList(base), toIntArray(spans),
+                elementSpans.toArray(new int[elementSpans.size()][]));
+    }
+
+    /**
+     * Parses a single JSON object into a map.
+     */
+    static Map<String, Object> parseObject(String json) throws JSONException {
+        final PushIOJsonParser parser = new PushIOJsonParser(json, DEFAULT_MAX_DEPTH, DEFAULT_MAX_VALUES);
+        parser.skipWhitespace();
+        if (parser.peek() != '{') {
+            throw parser.syntaxError("Expected object");
+        }
+        final Map<String, Object> map = parser.readObject();
+        parser.skipWhitespace();
+        if (parser.mPos != parser.mLength) {
+            throw parser.syntaxError("Unexpected trailing characters");
+        }
+        return map;
+    }
+
+    private Object readValue() throws JSONException {
+        if (++mValueCount > mMaxValues) {
+            throw new JSONException("Arguments exceed " + mMaxValues + " values");
+        }
+
+        skipWhitespace();
+        final char c = peek();
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray(null);
+            case '"':
+                mPos++;
+                return readString();
+            case 't':
+                expectLiteral("true");
+                return Boolean.TRUE;
+            case 'f':
+                expectLiteral("false");
+                return Boolean.FALSE;
+            case 'n':
+                expectLiteral("null");
+                return JSONObject.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw syntaxError("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() throws JSONException {
+        enter();
+        mPos++;
+
+        final int base = mStackSize;
+        skipWhitespace();
+        if (peek() == '}') {
+            mPos++;
+        } else {
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw syntaxError("Expected property name");
+                }
+                mPos++;
+                final String key = readKey();
+
+                skipWhitespace();
+                if (peek() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                mPos++;
+
+                push(key);
+                push(readValue());
+
+                if (!nextElement('}')) {
+                    break;
+                }
+            }
+        }
+
+        mDepth--;
+        return popMap(base);
+    }
+
+    private List<Object> readArray(List<Integer> spans) throws JSONException {
+        enter();
+        mPos++;
+
+        final int base = mStackSize;
+        skipWhitespace();
+        if (peek() == ']') {
+            mPos++;
+        } else {
+            while (true) {
+                skipWhitespace();
+                final int start = mPos;
+                push(readValue());
+                if (spans != null) {
+                    spans.add(start);
+                    spans.add(mPos);
+                }
+
+                if (!nextElement(']')) {
+                    break;
+                }
+            }
+        }
+
+        mDepth--;
+        return popList(base);
+    }
+
+    /**
+     * Consumes the separator after a member.
+     *
+     * @return true if another member follows, false if {@code close} ended the container.
+     */
+    private boolean nextElement(char close) throws JSONException {
+        skipWhitespace();
+        final char c = peek();
+        mPos++;
+        if (c == ',') {
+            return true;
+        }
+        if (c == close) {
+            return false;
+        }
+        throw syntaxError("Expected ',' or '" + close + "'");
+    }
+
+    private String readKey() throws JSONException {
+        final int start = mPos;
+        int hash = 0;
+        while (mPos < mLength) {
+            final char c = mJson.charAt(mPos);
+            if (c == '"') {
+                final String key = intern(start, mPos, hash);
+                mPos++;
+                return key;
+            }
+            if (c == '\\') {
+                mPos = start;
+                return readString();
+            }
+            hash = 31 * hash + c;
+            mPos++;
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    private String intern(int start, int end, int hash) {
+        final int length = end - start;
+        final int slot = (hash ^ (hash >>> 16)) & (INTERN_TABLE_SIZE - 1);
+        final String cached = sInternedKeys[slot];
+        if (cached != null && cached.length() == length && mJson.regionMatches(start, cached, 0, length)) {
+            return cached;
+        }
+        final String key = mJson.substring(start, end);
+        sInternedKeys[slot] = key;
+        return key;
+    }
+
+    private String readString() throws JSONException {
+        final int start = mPos;
+        while (mPos < mLength) {
+            final char c = mJson.charAt(mPos);
+            if (c == '"') {
+                return mJson.substring(start, mPos++);
+            }
+            if (c == '\\') {
+                break;
+            }
+            mPos++;
+        }
+
+        final StringBuilder builder = new StringBuilder(mPos - start + 16);
+        builder.append(mJson, start, mPos);
+        while (mPos < mLength) {
+            char c = mJson.charAt(mPos++);
+            if (c == '"') {
+                return builder.toString();
+            }
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (mPos >= mLength) {
+                break;
+            }
+            c = mJson.charAt(mPos++);
+            switch (c) {
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    if (mPos + 4 > mLength) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    try {
+                        builder.append((char) Integer.parseInt(mJson.substring(mPos, mPos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    mPos += 4;
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    private Object readNumber() throws JSONException {
+        final int start = mPos;
+        boolean negative = false;
+        boolean integral = true;
+        long value = 0;
+        int digits = 0;
+
+        if (peek() == '-') {
+            negative = true;
+            mPos++;
+        }
+
+        while (mPos < mLength) {
+            final char c = mJson.charAt(mPos);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                integral = false;
+            } else {
+                break;
+            }
+            mPos++;
+        }
+
+        if (digits == 0) {
+            throw syntaxError("Invalid number");
+        }
+
+        if (integral && digits <= 18) {
+            final long signed = negative ? -value : value;
+            if (signed >= Integer.MIN_VALUE && signed <= Integer.MAX_VALUE) {
+                return (int) signed;
+            }
+            return signed;
+        }
+
+        final String literal = mJson.substring(start, mPos);
+        try {
+            if (integral) {
+                return Long.parseLong(literal);
+            }
+            return Double.valueOf(literal);
+        } catch (NumberFormatException e) {
+            try {
+                return Double.valueOf(literal);
+            } catch (NumberFormatException ignored) {
+                throw syntaxError("Invalid number " + literal);
+            }
+        }
+    }
+
+    private void expectLiteral(String literal) throws JSONException {
+        if (!mJson.startsWith(literal, mPos)) {
+            throw syntaxError("Unexpected literal");
+        }
+        mPos += literal.length();
+    }
+
+    private void enter() throws JSONException {
+        if (++mDepth > mMaxDepth) {
+            throw new JSONException("Arguments nested deeper than " + mMaxDepth + " levels");
+        }
+    }
+
+    private void push(Object value) {
+        if (mStackSize == mStack.length) {
+            final Object[] grown = new Object[mStack.length * 2];
+            System.arraycopy(mStack, 0, grown, 0, mStackSize);
+            mStack = grown;
+        }
+        mStack[mStackSize++] = value;
+    }
+
+    private Map<String, Object> popMap(int base) {
+        final int entries = (mStackSize - base) / 2;
+        final Map<String, Object> map = new HashMap<>(entries * 4 / 3 + 1);
+        for (int i = base; i < mStackSize; i += 2) {
+            map.put((String) mStack[i], mStack[i + 1]);
+            mStack[i] = null;
+            mStack[i + 1] = null;
+        }
+        mStackSize = base;
+        return map;
+    }
+
+    private List<Object> popList(int base) {
+        final List<Object> list = new ArrayList<>(mStackSize - base);
+        for (int i = base; i < mStackSize; i++) {
+            list.add(mStack[i]);
+            mStack[i] = null;
+        }
+        mStackSize = base;
+        return list;
+    }
+
+    private void skipWhitespace() {
+        while (mPos < mLength) {
+            final char c = mJson.charAt(mPos);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            mPos++;
+        }
+    }
+
+    private char peek() throws JSONException {
+        if (mPos >= mLength) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return mJson.charAt(mPos);
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at character " + mPos);
+    }
+
+    private static int[] toIntArray(List<Integer> values) {
+        final int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+}
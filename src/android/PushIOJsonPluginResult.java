@@ -0,0 +1,32 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.apache.cordova.PluginResult;
+
+/**
+ * A {@link PluginResult} carrying JSON text that is already serialized, e.g.
+ * from a cache. It reaches JS as a parsed object, like a result built from a
+ * {@code JSONObject}, without re-parsing or re-serializing the text.
+ */
+class PushIOJsonPluginResult extends PluginResult {
+    private final String mJson;
+
+    PushIOJsonPluginResult(Status status, String json) {
+        super(status);
+        mJson = json;
+    }
+
+    @Override
+    public int getMessageType() {
+        return MESSAGE_TYPE_JSON;
+    }
+
+    @Override
+    public String getMessage() {
+        return mJson;
+    }
+}
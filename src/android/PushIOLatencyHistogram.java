@@ -0,0 +1,66 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with power-of-two microsecond buckets; bucket {@code i}
+ * counts latencies below {@code 2^i} us. Percentiles are reported as the upper
+ * bound of the bucket they fall in, capped at the max.
+ */
+class PushIOLatencyHistogram {
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mTotalNanos = new AtomicLong();
+    private final AtomicLong mMaxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        final long micros = Math.max(0, nanos / 1000);
+        final int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        mBuckets.incrementAndGet(bucket);
+        mCount.incrementAndGet();
+        mTotalNanos.addAndGet(nanos);
+
+        long max = mMaxNanos.get();
+        while (nanos > max && !mMaxNanos.compareAndSet(max, nanos)) {
+            max = mMaxNanos.get();
+        }
+    }
+
+    private double percentileMs(long count, double percentile) {
+        final long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += mBuckets.get(i);
+            if (seen >= rank) {
+                return Math.min((1L << i) / 1000.0, mMaxNanos.get() / 1e6);
+            }
+        }
+        return mMaxNanos.get() / 1e6;
+    }
+
+    JSONObject asJson() throws JSONException {
+        final long count = mCount.get();
+
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("count", count);
+        if (count > 0) {
+            jsonObject.put("avgMs", mTotalNanos.get() / count / 1e6);
+            jsonObject.put("p50Ms", percentileMs(count, 0.5));
+            jsonObject.put("p90Ms", percentileMs(count, 0.9));
+            jsonObject.put("p99Ms", percentileMs(count, 0.99));
+            jsonObject.put("maxMs", mMaxNanos.get() / 1e6);
+        }
+        return jsonObject;
+    }
+}
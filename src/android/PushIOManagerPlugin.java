@@ -9,9 +9,13 @@ import org.apache.cordova.CordovaPlugin;
 import org.apache.cordova.CallbackContext;
 import org.apache.cordova.CordovaInterface;
 
+import android.app.NotificationManager;
+import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.os.Build;
 import android.os.Bundle;
+import android.service.notification.StatusBarNotification;
 import android.text.TextUtils;
 import android.net.Uri;
 import android.util.Log;
@@ -22,18 +26,15 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import com.pushio.manager.PIOBadgeSyncListener;
+import com.google.firebase.messaging.RemoteMessage;
 import com.pushio.manager.PIOBeaconRegion;
 import com.pushio.manager.PIOConfigurationListener;
 import com.pushio.manager.PIOGeoRegion;
-import com.pushio.manager.PIOInteractiveNotificationCategory;
 import com.pushio.manager.PIOMCMessage;
 import com.pushio.manager.PIOMCMessageError;
 import com.pushio.manager.PIOMCMessageListener;
 import com.pushio.manager.PIOMCRichContentListener;
-import com.pushio.manager.PIORegionCompletionListener;
 import com.pushio.manager.PIORegionEventType;
-import com.pushio.manager.PIORegionException;
 import com.pushio.manager.PIORsysIAMHyperlinkListener;
 import com.pushio.manager.PushIOManager;
 import com.pushio.manager.exception.PIOMCMessageException;
@@ -44,85 +45,923 @@ import com.pushio.manager.tasks.PushIOEngagementListener;
 import com.pushio.manager.tasks.PushIOListener;
 import com.pushio.manager.PIODeepLinkListener;
 
-import java.lang.reflect.Method;
+import java.io.File;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.pushio.manager.cordova.PushIOManagerPluginUtils;
 
 public class PushIOManagerPlugin extends CordovaPlugin {
 
     private final String TAG = "pushio-cordova";
-    private ExecutorService mExecutorService;
+    private PushIOActionScheduler mActionScheduler;
+    private PushIOEventBuffer mEventBuffer;
+    private PushIOEventJournal mEventJournal;
+    private PushIOMessageCenterCache mMessageCenterCache;
+    private final PushIOMessageCenterPager mMessageCenterPager = new PushIOMessageCenterPager();
+    private final PushIOPluginMetrics mPluginMetrics = new PushIOPluginMetrics();
+    private ScheduledExecutorService mMetricsLogExecutor;
+    private PushIORichContentCache mRichContentCache;
+    private PushIOPreferenceStore mPreferenceStore;
+    private PushIORegionEventFilter mRegionEventFilter;
+    private PushIORegionReporter mRegionReporter;
+    private int mRegionReportConcurrency;
+    private final Set<String> mRichContentPrefetches =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private int mRichContentPrefetchCount;
+    private Intent mLastInvalidatingIntent;
+    /** Post time of the newest notification seen by the message center; -1 until first checked. */
+    private final AtomicLong mLastNotificationPostTime = new AtomicLong(-1);
+
+    private final BroadcastReceiver mTimeZoneReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            // Cached formatters and cached messages both carry dates in the old time zone or locale.
+            PushIODateFormatter.invalidate();
+            if (mMessageCenterCache != null) {
+                mMessageCenterCache.invalidateAll();
+            }
+        }
+    };
 
     private PushIOManager mPushIOManager;
-    private PushIOManagerPlugin mPushIOManagerPlugin;
-    private String mDeepLinkUrl = null;
-    private String mWebLinkUrl = null;
+    private PushIODeepLinkQueue mDeepLinkQueue;
+    private PushIOEventChannel mEventChannel;
+    private PushIONotificationCategoryRegistry mCategoryRegistry;
+    private PushIOBadgeCoalescer mBadgeCoalescer;
+    private PushIOSingleFlight mSingleFlight;
+    private PushIOPushClassifier mPushClassifier;
+    private Intent mLastDeepLinkIntent;
     private Context mAppContext;
+    private PushIOPluginStartup mStartup;
+
+    /**
+     * A bridge action bound to its plugin method. Handlers are created once in
+     * {@link #initialize} so that {@link #execute} resolves an action with a
+     * single hash lookup instead of reflection.
+     */
+    interface ActionHandler {
+        void handle(JSONArray data, CallbackContext callbackContext);
+    }
+
+    /**
+     * An action whose arguments are read straight from the raw bridge string by
+     * {@link PushIOJsonParser}, skipping the {@code JSONArray} tree. Used for
+     * actions that carry large property payloads.
+     */
+    private interface RawActionHandler {
+        void handle(PushIOJsonParser.Args args, CallbackContext callbackContext);
+    }
+
+    /**
+     * An action that gets the raw bridge string unparsed, so that it can decide from
+     * a cheap scan whether the arguments need parsing at all.
+     */
+    private interface UnparsedActionHandler {
+        void handle(String rawArgs, CallbackContext callbackContext);
+    }
 
-    private final List<String> mAvailableActions = Arrays.asList("getAPIKey", "getAccountToken",
-            "setExternalDeviceTrackingID", "getExternalDeviceTrackingID", "setAdvertisingID", "getAdvertisingID",
-            "registerUserId", "getRegisteredUserId", "unregisterUserId", "getVerifiedUserId", "setVerifiedUserId",
-            "declarePreference", "getPreferences", "getPreference", "setStringPreference", "setBooleanPreference",
-            "setNumberPreference", "removePreference", "clearAllPreferences", "setNotificationsStacked", "trackEvent",
-            "fetchMessagesForMessageCenter", "trackEngagement", "setLogLevel", "setLoggingEnabled", "overwriteApiKey",
-            "overwriteAccountToken", "configure", "registerApp", "unregisterApp", "getDeviceID", "getLibVersion",
-            "setDefaultSmallIcon", "setDefaultLargeIcon", "addInteractiveNotificationCategory",
-            "getInteractiveNotificationCategory", "deleteInteractiveNotificationCategory", "getRIAppId",
-            "getConversionUrl", "setRIAppId", "setConversionUrl", "getExecuteRsysWebUrl", "setExecuteRsysWebUrl",
-            "isMessageCenterEnabled", "setMessageCenterEnabled", "getNotificationStacked", "getEngagementTimestamp",
-            "getEngagementMaxAge", "resetEngagementContext", "fetchRichContentForMessage", "isCrashLoggingEnabled",
-            "setCrashLoggingEnabled", "setInAppFetchEnabled", "onGeoRegionEntered", "onGeoRegionExited",
-            "onBeaconRegionEntered", "onBeaconRegionExited", "setDeviceToken", "setBadgeCount", "getBadgeCount",
-            "setMessageCenterBadgingEnabled", "resetBadgeCount", "resetMessageCenter", "clearInAppMessages",
-            "clearInteractiveNotificationCategories", "isResponsysPush", "handleMessage", "onMessageCenterViewVisible",
-            "trackMessageCenterDisplayEngagement", "trackMessageCenterOpenEngagement", "onMessageCenterViewFinish",
-            "onDeepLinkReceived", "delayRichPushDisplay", "isRichPushDelaySet", "showRichPushMessage");
+    private final Map<String, ActionHandler> mActionHandlers = new HashMap<>();
+    private final Map<String, RawActionHandler> mRawActionHandlers = new HashMap<>();
+    private final Map<String, UnparsedActionHandler> mUnparsedActionHandlers = new HashMap<>();
 
     @Override
-    public void initialize(CordovaInterface cordova, CordovaWebView webView) {
+    public void initialize(final CordovaInterface cordova, CordovaWebView webView) {
         super.initialize(cordova, webView);
         Log.v(TAG, "Initializing plugin");
-        mAppContext = cordova.getActivity().getApplicationContext();
-        mExecutorService = Executors.newSingleThreadExecutor();
-        mPushIOManager = PushIOManager.getInstance(mAppContext);
+        mStartup = new PushIOPluginStartup(
+                PushIOPluginStartup.Mode.fromString(preferences.getString("PushIOStartupMode", "eager")),
+                preferences.getInteger("PushIOStartupBudgetMs", PushIOPluginStartup.DEFAULT_BUDGET_MS));
+
+        // Only what execute() needs to accept calls runs here; calls wait in their lane
+        // until initializeComponents() has finished.
+        mStartup.runPhase("bridge", new Runnable() {
+            @Override
+            public void run() {
+                mAppContext = cordova.getActivity().getApplicationContext();
+                mActionScheduler = new PushIOActionScheduler();
+                registerActionHandlers();
+            }
+        });
+
+        if (mStartup.mode() != PushIOPluginStartup.Mode.LAZY) {
+            startInitialization();
+        }
+    }
+
+    private void startInitialization() {
+        mStartup.start(new Runnable() {
+            @Override
+            public void run() {
+                initializeComponents();
+            }
+        });
+    }
+
+    /**
+     * The SDK instance and everything built on it. Runs once, on the thread chosen
+     * by the startup mode.
+     */
+    private void initializeComponents() {
+        mStartup.runPhase("sdk", new Runnable() {
+            @Override
+            public void run() {
+                mPushIOManager = PushIOManager.getInstance(mAppContext);
+            }
+        });
+
+        mStartup.runPhase("journal", new Runnable() {
+            @Override
+            public void run() {
+                if (preferences.getBoolean("PushIOJournalEnabled", true)) {
+                    mEventJournal = PushIOEventJournal.getInstance(
+                            new File(mAppContext.getFilesDir(), "pushio-journal"),
+                            PushIOEventJournal.FsyncPolicy.fromString(
+                                    preferences.getString("PushIOJournalFsync", "interval")),
+                            preferences.getInteger("PushIOJournalFsyncIntervalMs",
+                                    (int) PushIOEventJournal.DEFAULT_FSYNC_INTERVAL_MS),
+                            preferences.getInteger("PushIOJournalSegmentBytes",
+                                    (int) PushIOEventJournal.DEFAULT_SEGMENT_BYTES),
+                            preferences.getInteger("PushIOJournalMaxBytes",
+                                    (int) PushIOEventJournal.DEFAULT_MAX_BYTES));
+                }
+            }
+        });
+
+        mStartup.runPhase("components", new Runnable() {
+            @Override
+            public void run() {
+                mEventBuffer = new PushIOEventBuffer(mPushIOManager, mEventJournal,
+                        preferences.getInteger("PushIOEventBufferCapacity", PushIOEventBuffer.DEFAULT_CAPACITY),
+                        preferences.getInteger("PushIOEventBatchSize", PushIOEventBuffer.DEFAULT_BATCH_SIZE),
+                        preferences.getInteger("PushIOEventFlushIntervalMs",
+                                PushIOEventBuffer.DEFAULT_FLUSH_INTERVAL_MS));
+                mMessageCenterCache = new PushIOMessageCenterCache(
+                        preferences.getInteger("PushIOMessageCenterCacheTtlMs",
+                                PushIOMessageCenterCache.DEFAULT_TTL_MS),
+                        preferences.getInteger("PushIOMessageCenterStaleMs",
+                                PushIOMessageCenterCache.DEFAULT_STALE_MS));
+                mRichContentCache = new PushIORichContentCache(
+                        preferences.getInteger("PushIORichContentCacheBytes",
+                                PushIORichContentCache.DEFAULT_MEMORY_BYTES),
+                        new File(mAppContext.getCacheDir(), "pushio-richcontent"),
+                        preferences.getInteger("PushIORichContentDiskCacheBytes",
+                                PushIORichContentCache.DEFAULT_DISK_BYTES));
+                mRichContentPrefetchCount = preferences.getInteger("PushIORichContentPrefetchCount", 0);
+                mPreferenceStore = new PushIOPreferenceStore(mPushIOManager);
+                mRegionEventFilter = new PushIORegionEventFilter(
+                        preferences.getBoolean("PushIORegionDedupe", true),
+                        preferences.getInteger("PushIORegionHysteresisMs", 0),
+                        preferences.getInteger("PushIORegionMinDwellMs", 0),
+                        preferences.getInteger("PushIORegionRateLimit", 0),
+                        preferences.getInteger("PushIORegionRateWindowMs",
+                                PushIORegionEventFilter.DEFAULT_RATE_WINDOW_MS),
+                        PushIORegionEventFilter.ELAPSED_REALTIME);
+                mRegionReporter = new PushIORegionReporter(mPushIOManager);
+                mDeepLinkQueue = new PushIODeepLinkQueue(mAppContext,
+                        preferences.getInteger("PushIODeepLinkQueueCapacity",
+                                PushIODeepLinkQueue.DEFAULT_CAPACITY));
+                mCategoryRegistry = new PushIONotificationCategoryRegistry(mPushIOManager, mAppContext);
+                mBadgeCoalescer = new PushIOBadgeCoalescer(mPushIOManager, new PushIOBadgeCoalescer.Listener() {
+                    @Override
+                    public void onBadgeSynced(int count, boolean synced, String message) {
+                        publishBadge(count, synced, message);
+                    }
+                }, preferences.getInteger("PushIOBadgeCoalesceMs", PushIOBadgeCoalescer.DEFAULT_COALESCE_MS));
+                mEventChannel = new PushIOEventChannel(
+                        preferences.getInteger("PushIOEventChannelCapacity",
+                                PushIOEventChannel.DEFAULT_CAPACITY),
+                        preferences.getInteger("PushIOEventChannelBatchSize",
+                                PushIOEventChannel.DEFAULT_BATCH_SIZE),
+                        preferences.getInteger("PushIOEventChannelFlushIntervalMs",
+                                PushIOEventChannel.DEFAULT_FLUSH_INTERVAL_MS));
+                mSingleFlight = new PushIOSingleFlight(
+                        preferences.getInteger("PushIOSingleFlightMaxInFlight",
+                                PushIOSingleFlight.DEFAULT_MAX_IN_FLIGHT),
+                        webView);
+                mPushClassifier = new PushIOPushClassifier(preferences.getString("PushIOResponsysPushMarkerKeys",
+                        PushIOPushClassifier.DEFAULT_MARKER_KEYS));
+                mRegionReportConcurrency = preferences.getInteger("PushIORegionReportConcurrency",
+                        PushIORegionBatch.DEFAULT_CONCURRENCY);
+            }
+        });
+
+        mStartup.runPhase("receivers", new Runnable() {
+            @Override
+            public void run() {
+                mAppContext.registerReceiver(mTimeZoneReceiver, PushIODateFormatter.invalidationIntentFilter());
+
+                final int metricsLogIntervalSec = preferences.getInteger("PushIOMetricsLogIntervalSec", 0);
+                if (metricsLogIntervalSec > 0) {
+                    mMetricsLogExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            return new Thread(runnable, "pushio-metrics");
+                        }
+                    });
+                    mMetricsLogExecutor.scheduleAtFixedRate(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                Log.v(TAG, "Plugin metrics: " + pluginMetricsAsJson());
+                            } catch (JSONException e) {
+                                Log.v(TAG, "Exception: " + e.getMessage());
+                            }
+                        }
+                    }, metricsLogIntervalSec, metricsLogIntervalSec, TimeUnit.SECONDS);
+                }
+            }
+        });
+
+        if (mEventJournal != null) {
+            mActionScheduler.execute("replayEventJournal", new Runnable() {
+                @Override
+                public void run() {
+                    replayEventJournal();
+                }
+            });
+        }
+    }
+
+    private void registerActionHandlers() {
+        mActionHandlers.put("getAPIKey", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getAPIKey(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getAccountToken", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getAccountToken(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setExternalDeviceTrackingID", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setExternalDeviceTrackingID(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getExternalDeviceTrackingID", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getExternalDeviceTrackingID(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setAdvertisingID", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setAdvertisingID(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getAdvertisingID", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getAdvertisingID(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("registerUserId", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                registerUserId(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getRegisteredUserId", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getRegisteredUserId(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("unregisterUserId", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                unregisterUserId(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getVerifiedUserId", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getVerifiedUserId(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setVerifiedUserId", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setVerifiedUserId(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("declarePreference", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                declarePreference(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getPreferences", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getPreferences(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getPreference", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getPreference(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setStringPreference", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setStringPreference(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setBooleanPreference", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setBooleanPreference(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setNumberPreference", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setNumberPreference(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("removePreference", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                removePreference(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("clearAllPreferences", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                clearAllPreferences(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setNotificationsStacked", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setNotificationsStacked(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("fetchMessagesForMessageCenter", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                fetchMessagesForMessageCenter(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("trackEngagement", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                trackEngagement(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setLogLevel", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setLogLevel(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setLoggingEnabled", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setLoggingEnabled(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("overwriteApiKey", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                overwriteApiKey(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("overwriteAccountToken", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                overwriteAccountToken(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("configure", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                configure(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("registerApp", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                registerApp(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("unregisterApp", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                unregisterApp(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getDeviceID", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getDeviceID(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getLibVersion", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getLibVersion(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setDefaultSmallIcon", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setDefaultSmallIcon(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setDefaultLargeIcon", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setDefaultLargeIcon(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("addInteractiveNotificationCategory", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                addInteractiveNotificationCategory(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getInteractiveNotificationCategory", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getInteractiveNotificationCategory(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("deleteInteractiveNotificationCategory", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                deleteInteractiveNotificationCategory(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("addInteractiveNotificationCategories", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                addInteractiveNotificationCategories(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getAllInteractiveNotificationCategories", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getAllInteractiveNotificationCategories(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getRIAppId", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getRIAppId(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getConversionUrl", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getConversionUrl(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getExecuteRsysWebUrl", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getExecuteRsysWebUrl(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setExecuteRsysWebUrl", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setExecuteRsysWebUrl(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("isMessageCenterEnabled", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                isMessageCenterEnabled(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setMessageCenterEnabled", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setMessageCenterEnabled(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getNotificationStacked", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getNotificationStacked(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getEngagementTimestamp", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getEngagementTimestamp(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getEngagementMaxAge", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getEngagementMaxAge(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("resetEngagementContext", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                resetEngagementContext(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("fetchRichContentForMessage", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                fetchRichContentForMessage(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("isCrashLoggingEnabled", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                isCrashLoggingEnabled(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setCrashLoggingEnabled", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setCrashLoggingEnabled(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setInAppFetchEnabled", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setInAppFetchEnabled(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("onGeoRegionEntered", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                onGeoRegionEntered(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("onGeoRegionExited", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                onGeoRegionExited(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("onBeaconRegionEntered", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                onBeaconRegionEntered(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("onBeaconRegionExited", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                onBeaconRegionExited(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setDeviceToken", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setDeviceToken(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setBadgeCount", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setBadgeCount(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getBadgeCount", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getBadgeCount(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setMessageCenterBadgingEnabled", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setMessageCenterBadgingEnabled(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("resetBadgeCount", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                resetBadgeCount(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("resetMessageCenter", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                resetMessageCenter(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("clearInAppMessages", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                clearInAppMessages(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("clearInteractiveNotificationCategories", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                clearInteractiveNotificationCategories(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("onMessageCenterViewVisible", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                onMessageCenterViewVisible(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("trackMessageCenterDisplayEngagement", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                trackMessageCenterDisplayEngagement(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("trackMessageCenterOpenEngagement", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                trackMessageCenterOpenEngagement(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("onMessageCenterViewFinish", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                onMessageCenterViewFinish(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("onDeepLinkReceived", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                onDeepLinkReceived(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("subscribeDeepLinks", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                subscribeDeepLinks(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("unsubscribeDeepLinks", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                unsubscribeDeepLinks(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("subscribeEvents", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                subscribeEvents(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("unsubscribeEvents", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                unsubscribeEvents(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("delayRichPushDisplay", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                delayRichPushDisplay(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("isRichPushDelaySet", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                isRichPushDelaySet(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("showRichPushMessage", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                showRichPushMessage(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("getPluginMetrics", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                getPluginMetrics(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("prefetchRichContent", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                prefetchRichContent(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("fetchMessagesForMessageCenterPaged", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                fetchMessagesForMessageCenterPaged(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("setPreferences", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                setPreferences(data, callbackContext);
+            }
+        });
+        mActionHandlers.put("reportRegionEvents", new ActionHandler() {
+            @Override
+            public void handle(JSONArray data, CallbackContext callbackContext) {
+                reportRegionEvents(data, callbackContext);
+            }
+        });
+
+        mRawActionHandlers.put("trackEvent", new RawActionHandler() {
+            @Override
+            public void handle(PushIOJsonParser.Args args, CallbackContext callbackContext) {
+                trackEvent(args, callbackContext);
+            }
+        });
+        mUnparsedActionHandlers.put("isResponsysPush", new UnparsedActionHandler() {
+            @Override
+            public void handle(String rawArgs, CallbackContext callbackContext) {
+                isResponsysPush(rawArgs, callbackContext);
+            }
+        });
+        mUnparsedActionHandlers.put("handleMessage", new UnparsedActionHandler() {
+            @Override
+            public void handle(String rawArgs, CallbackContext callbackContext) {
+                handleMessage(rawArgs, callbackContext);
+            }
+        });
+        mRawActionHandlers.put("trackEvents", new RawActionHandler() {
+            @Override
+            public void handle(PushIOJsonParser.Args args, CallbackContext callbackContext) {
+                trackEvents(args, callbackContext);
+            }
+        });
+    }
+
+    /**
+     * Returns the handler of an action that takes parsed arguments, or null if
+     * there is none.
+     */
+    ActionHandler actionHandler(String action) {
+        return mActionHandlers.get(action);
+    }
+
+    @Override
+    public boolean execute(final String action, final String rawArgs, final CallbackContext callbackContext)
+            throws JSONException {
+        final UnparsedActionHandler unparsedHandler = mUnparsedActionHandlers.get(action);
+        if (unparsedHandler != null) {
+            final PushIOPluginMetrics.TrackedCallbackContext trackedContext =
+                    mPluginMetrics.track(action, callbackContext, webView);
+            dispatch(action, new Runnable() {
+                @Override
+                public void run() {
+                    unparsedHandler.handle(rawArgs, trackedContext);
+                }
+            }, trackedContext);
+            return true;
+        }
+
+        final RawActionHandler rawHandler = mRawActionHandlers.get(action);
+
+        if (rawHandler == null) {
+            return super.execute(action, rawArgs, callbackContext);
+        }
+
+        final PushIOPluginMetrics.TrackedCallbackContext trackedContext =
+                mPluginMetrics.track(action, callbackContext, webView);
+        dispatch(action, new Runnable() {
+            @Override
+            public void run() {
+                final PushIOJsonParser.Args args;
+                try {
+                    args = PushIOJsonParser.parseArgs(rawArgs);
+                } catch (JSONException e) {
+                    Log.v(TAG, "Exception: " + e.getMessage());
+                    trackedContext.error(e.getMessage());
+                    return;
+                }
+                rawHandler.handle(args, trackedContext);
+            }
+        }, trackedContext);
+
+        return true;
     }
 
     @Override
     public boolean execute(final String action, final JSONArray args, final CallbackContext callbackContext)
             throws JSONException {
-        if (!mAvailableActions.contains(action)) {
+        final ActionHandler handler = actionHandler(action);
+
+        if (handler == null) {
             Log.v(TAG, "Action not found: " + action);
+            mPluginMetrics.recordUnknownAction();
             return false;
         }
 
-        mPushIOManagerPlugin = this;
+        final PushIOPluginMetrics.TrackedCallbackContext trackedContext =
+                mPluginMetrics.track(action, callbackContext, webView);
+        dispatch(action, new Runnable() {
+            @Override
+            public void run() {
+                handler.handle(args, trackedContext);
+            }
+        }, trackedContext);
 
-        mExecutorService.execute(new Runnable() {
+        return true;
+    }
+
+    private void dispatch(final String action, final Runnable task,
+            final PushIOPluginMetrics.TrackedCallbackContext callbackContext) {
+        startInitialization();
+        boolean queued = mActionScheduler.execute(action, new Runnable() {
             @Override
             public void run() {
+                mStartup.awaitReady();
+                callbackContext.onStart();
                 try {
                     Log.v(TAG, "Plugin Execute: " + action);
-                    Method method = mPushIOManagerPlugin.getClass().getDeclaredMethod(action, JSONArray.class,
-                            CallbackContext.class);
-                    method.setAccessible(true);
-                    method.invoke(mPushIOManagerPlugin, args, callbackContext);
-                    method.setAccessible(false);
+                    task.run();
                 } catch (Exception e) {
                     Log.v(TAG, "Exception: " + e.getMessage());
+                    callbackContext.onException();
+                    if (!callbackContext.isFinished()) {
+                        callbackContext.error(e.getMessage());
+                    }
                 }
+                callbackContext.onHandlerReturned();
             }
         });
 
-        return true;
+        if (!queued) {
+            callbackContext.onRejected();
+            callbackContext.error("Too many pending requests for " + action);
+        }
+    }
+
+    @Override
+    public void onPause(boolean multitasking) {
+        if (mStartup != null && mStartup.isReady() && mEventBuffer != null) {
+            mEventBuffer.flushAsync();
+        }
+        super.onPause(multitasking);
+    }
+
+    @Override
+    public void onDestroy() {
+        if (mActionScheduler != null) {
+            mActionScheduler.shutdown();
+        }
+        if (mStartup != null) {
+            // Components that are still being created are shut down once they exist.
+            mStartup.whenReady(new Runnable() {
+                @Override
+                public void run() {
+                    shutdownComponents();
+                }
+            });
+        }
+        super.onDestroy();
+    }
+
+    private void shutdownComponents() {
+        if (mMetricsLogExecutor != null) {
+            mMetricsLogExecutor.shutdown();
+        }
+        if (mAppContext != null) {
+            mAppContext.unregisterReceiver(mTimeZoneReceiver);
+        }
+        if (mEventBuffer != null) {
+            mEventBuffer.shutdown();
+        }
+        if (mEventChannel != null) {
+            mEventChannel.shutdown();
+        }
+        if (mBadgeCoalescer != null) {
+            mBadgeCoalescer.shutdown();
+        }
+    }
+
+    @Override
+    public void onReset() {
+        if (mDeepLinkQueue != null) {
+            mDeepLinkQueue.onReset();
+        }
+        if (mEventChannel != null) {
+            mEventChannel.onReset();
+        }
     }
 
     @Override
@@ -137,35 +976,86 @@ public class PushIOManagerPlugin extends CordovaPlugin {
         handleIntent(intent);
     }
 
-    private void handleIntent(Intent intent) {
+    private void handleIntent(final Intent intent) {
         cordova.getActivity().setIntent(intent);
+        if (intent == null) {
+            return;
+        }
+
+        if (mStartup.mode() == PushIOPluginStartup.Mode.LAZY
+                && (intent.getData() != null || intent.getExtras() != null)) {
+            // May carry a deep link or a notification open; start now rather than on the first call.
+            startInitialization();
+        }
+        mStartup.whenReady(new Runnable() {
+            @Override
+            public void run() {
+                processIntent(intent);
+            }
+        });
+    }
+
+    private void processIntent(Intent intent) {
+        if (intent != null && intent != mLastInvalidatingIntent && intent.getExtras() != null) {
+            // Opened from a notification; the message center may have new messages.
+            // onStart hands us the same intent again, which must not drop the cache every time.
+            mLastInvalidatingIntent = intent;
+            invalidateMessageCenter("notificationOpened");
+            mBadgeCoalescer.invalidate();
+        }
+        // onStart hands us the intent onNewIntent already handled; its link must be queued once.
+        final boolean newIntent = (intent != mLastDeepLinkIntent);
+        mLastDeepLinkIntent = intent;
         mPushIOManager.trackEmailConversion(intent, new PIODeepLinkListener() {
             @Override
             public void onDeepLinkReceived(final String deepLinkUrl, final String webLinkUrl) {
                 Log.v(TAG, "deepLinkUrl: " + deepLinkUrl + ", webLinkUrl: " + webLinkUrl);
 
-                mDeepLinkUrl = deepLinkUrl;
-                mWebLinkUrl = webLinkUrl;
+                if (newIntent) {
+                    mDeepLinkQueue.offer(deepLinkUrl, webLinkUrl);
+                    publishDeepLink(deepLinkUrl, webLinkUrl);
+                }
             }
         });
     }
 
     private void onDeepLinkReceived(JSONArray data, final CallbackContext callbackContext) {
-        if (TextUtils.isEmpty(mDeepLinkUrl) && TextUtils.isEmpty(mWebLinkUrl)) {
+        mDeepLinkQueue.poll(callbackContext);
+    }
+
+    private void publishDeepLink(String deepLinkUrl, String webLinkUrl) {
+        if (TextUtils.isEmpty(deepLinkUrl) && TextUtils.isEmpty(webLinkUrl)) {
             return;
         }
 
-        JSONObject jsonObject = new JSONObject();
         try {
-            jsonObject.put("deepLinkUrl", mDeepLinkUrl);
-            jsonObject.put("webLinkUrl", mWebLinkUrl);
-            callbackContext.success(jsonObject);
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("deepLinkUrl", deepLinkUrl);
+            jsonObject.put("webLinkUrl", webLinkUrl);
+            mEventChannel.publish(PushIOEventChannel.DEEP_LINK, null, jsonObject);
         } catch (JSONException e) {
             Log.v(TAG, "Exception: " + e.getMessage());
-            callbackContext.error(e.getMessage());
         }
     }
 
+    private void subscribeEvents(JSONArray data, CallbackContext callbackContext) {
+        mEventChannel.subscribe(callbackContext);
+    }
+
+    private void unsubscribeEvents(JSONArray data, CallbackContext callbackContext) {
+        mEventChannel.unsubscribe();
+        callbackContext.success();
+    }
+
+    private void subscribeDeepLinks(JSONArray data, CallbackContext callbackContext) {
+        mDeepLinkQueue.subscribe(callbackContext);
+    }
+
+    private void unsubscribeDeepLinks(JSONArray data, CallbackContext callbackContext) {
+        mDeepLinkQueue.unsubscribe();
+        callbackContext.success();
+    }
+
     private void getAPIKey(JSONArray data, CallbackContext callbackContext) {
         String value = mPushIOManager.getAPIKey();
         callbackContext.success(value);
@@ -279,7 +1169,9 @@ public class PushIOManagerPlugin extends CordovaPlugin {
             if (!TextUtils.isEmpty(key) && !TextUtils.isEmpty(type)) {
                 PushIOPreference.Type preferenceType = PushIOPreference.Type.valueOf(type);
 
+                mPreferenceStore.flush();
                 mPushIOManager.declarePreference(key, label, preferenceType);
+                mPreferenceStore.onDeclared(key, label, preferenceType);
                 callbackContext.success();
             } else {
                 callbackContext.error("Error reading parameters");
@@ -297,7 +1189,9 @@ public class PushIOManagerPlugin extends CordovaPlugin {
             final String value = data.optString(1);
 
             if (!TextUtils.isEmpty(key)) {
+                mPreferenceStore.flush();
                 mPushIOManager.setPreference(key, value);
+                mPreferenceStore.onWritten(key, value);
                 callbackContext.success();
             } else {
                 callbackContext.error("Error reading parameter");
@@ -315,7 +1209,9 @@ public class PushIOManagerPlugin extends CordovaPlugin {
             final Double value = data.optDouble(1);
 
             if (!TextUtils.isEmpty(key)) {
+                mPreferenceStore.flush();
                 mPushIOManager.setPreference(key, value);
+                mPreferenceStore.onWritten(key, value);
                 callbackContext.success();
             } else {
                 callbackContext.error("Error reading parameter");
@@ -333,7 +1229,9 @@ public class PushIOManagerPlugin extends CordovaPlugin {
             final Boolean value = data.optBoolean(1);
 
             if (!TextUtils.isEmpty(key)) {
+                mPreferenceStore.flush();
                 mPushIOManager.setPreference(key, value);
+                mPreferenceStore.onWritten(key, value);
                 callbackContext.success();
             } else {
                 callbackContext.error("Error reading parameter");
@@ -345,27 +1243,59 @@ public class PushIOManagerPlugin extends CordovaPlugin {
     }
 
     private void getPreferences(JSONArray data, CallbackContext callbackContext) {
-        List<PushIOPreference> preferences = mPushIOManager.getPreferences();
-        callbackContext.success(PushIOManagerPluginUtils.preferencesAsJsonArray(preferences));
+        JSONArray keys = data.optJSONArray(0);
+
+        final String json;
+        if (keys != null) {
+            List<String> keyList = new ArrayList<>(keys.length());
+            for (int i = 0; i < keys.length(); i++) {
+                keyList.add(keys.optString(i));
+            }
+            json = mPreferenceStore.preferencesJson(keyList);
+        } else {
+            json = mPreferenceStore.preferencesJson();
+        }
+        callbackContext.sendPluginResult(new PushIOJsonPluginResult(PluginResult.Status.OK, json));
+    }
+
+    /**
+     * Sets several preferences in one call. The values are validated against the declared
+     * types and written to the SDK together shortly after; unchanged values are skipped.
+     */
+    private void setPreferences(JSONArray data, CallbackContext callbackContext) {
+        try {
+            JSONObject values = data.optJSONObject(0);
+            if (values == null) {
+                callbackContext.error("Error reading parameters.");
+                return;
+            }
+
+            JSONObject result = mPreferenceStore.set(PushIOManagerPluginUtils.toMap(values));
+            if (mPreferenceStore.shouldScheduleFlush()) {
+                boolean scheduled = mActionScheduler.execute("flushPreferences", new Runnable() {
+                    @Override
+                    public void run() {
+                        mPreferenceStore.flush();
+                    }
+                });
+                if (!scheduled) {
+                    mPreferenceStore.flush();
+                }
+            }
+            callbackContext.success(result);
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            callbackContext.error(e.getMessage());
+        }
     }
 
     private void getPreference(JSONArray data, CallbackContext callbackContext) {
 
         String key = data.optString(0);
-        PushIOPreference value = mPushIOManager.getPreference(key);
+        String json = mPreferenceStore.preferenceJson(key);
 
-        if (value != null) {
-            JSONObject jsonObject = new JSONObject();
-            try {
-                jsonObject.put("key", value.getKey());
-                jsonObject.put("value", value.getValue());
-                jsonObject.put("label", value.getLabel());
-                jsonObject.put("type", value.getKey());
-                callbackContext.success(jsonObject);
-            } catch (JSONException e) {
-                Log.v(TAG, "Exception: " + e.getMessage());
-                callbackContext.error(e.getMessage());
-            }
+        if (json != null) {
+            callbackContext.sendPluginResult(new PushIOJsonPluginResult(PluginResult.Status.OK, json));
         } else {
             callbackContext.error("Preference Not found");
         }
@@ -378,7 +1308,9 @@ public class PushIOManagerPlugin extends CordovaPlugin {
             String preference = data.getString(0);
 
             if (!TextUtils.isEmpty(preference)) {
+                mPreferenceStore.flush();
                 mPushIOManager.removePreference(preference);
+                mPreferenceStore.onRemoved(preference);
                 callbackContext.success();
             } else {
                 callbackContext.error("Error reading parameter.");
@@ -390,7 +1322,9 @@ public class PushIOManagerPlugin extends CordovaPlugin {
     }
 
     private void clearAllPreferences(JSONArray data, CallbackContext callbackContext) {
+        mPreferenceStore.flush();
         mPushIOManager.clearAllPreferences();
+        mPreferenceStore.onCleared();
         callbackContext.success();
     }
 
@@ -413,21 +1347,63 @@ public class PushIOManagerPlugin extends CordovaPlugin {
         callbackContext.success(String.valueOf(result));
     }
 
-    private void trackEvent(JSONArray data, CallbackContext callbackContext) {
-        try {
-            final String eventType = data.optString(0);
-            if (!TextUtils.isEmpty(eventType)) {
-                Map<String, Object> properties = null;
-                final JSONObject propertiesObject = data.optJSONObject(1);
-                if (propertiesObject != null) {
-                    properties = PushIOManagerPluginUtils.toMap(propertiesObject);
-                }
+    private void trackEvent(PushIOJsonParser.Args args, CallbackContext callbackContext) {
+        final String eventType = args.optString(0);
+        if (!TextUtils.isEmpty(eventType)) {
+            final Map<String, Object> properties = args.optMap(1);
 
-                mPushIOManager.trackEvent(eventType, properties);
-                callbackContext.success();
+            final long journalSeq = journalAppend(PushIOEventJournal.KIND_EVENT,
+                    eventJournalPayload(eventType, (properties != null) ? args.rawAt(1) : null));
+            mPushIOManager.trackEvent(eventType, properties);
+            journalAck(journalSeq);
+            callbackContext.success();
+        } else {
+            callbackContext.error("`event` value is required");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void trackEvents(PushIOJsonParser.Args args, CallbackContext callbackContext) {
+        final List<Object> events = args.optList(0);
+        if (events == null) {
+            callbackContext.error("Error reading parameters");
+            return;
+        }
+
+        int accepted = 0;
+        int dropped = 0;
+        int invalid = 0;
+
+        for (int i = 0; i < events.size(); i++) {
+            final Object element = events.get(i);
+            final Map<String, Object> event = (element instanceof Map) ? (Map<String, Object>) element : null;
+            final Object eventType = (event != null) ? event.get("type") : null;
+            if (eventType == null || eventType == JSONObject.NULL || TextUtils.isEmpty(eventType.toString())) {
+                invalid++;
+                continue;
+            }
+
+            final Object properties = event.get("properties");
+
+            // Each element is already shaped like a journal payload: {"type": ..., "properties": ...}
+            final long journalSeq = journalAppend(PushIOEventJournal.KIND_EVENT, args.rawElementAt(0, i));
+            if (mEventBuffer.offer(eventType.toString(),
+                    (properties instanceof Map) ? (Map<String, Object>) properties : null, journalSeq)) {
+                accepted++;
             } else {
-                callbackContext.error("`event` value is required");
+                journalAck(journalSeq);
+                dropped++;
             }
+        }
+
+        try {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("accepted", accepted);
+            jsonObject.put("dropped", dropped);
+            jsonObject.put("invalid", invalid);
+            jsonObject.put("pending", mEventBuffer.pendingCount());
+            jsonObject.put("totalDropped", mEventBuffer.droppedCount());
+            callbackContext.success(jsonObject);
         } catch (JSONException e) {
             Log.v(TAG, "Exception: " + e.getMessage());
             callbackContext.error(e.getMessage());
@@ -449,9 +1425,12 @@ public class PushIOManagerPlugin extends CordovaPlugin {
                 properties = PushIOManagerPluginUtils.toMapStr(propertiesObject);
             }
 
+            final long journalSeq = journalAppend(PushIOEventJournal.KIND_ENGAGEMENT,
+                    engagementJournalPayload(metric, propertiesObject));
             mPushIOManager.trackEngagement(metric, null, properties, new PushIOEngagementListener() {
                 @Override
                 public void onEngagementSuccess() {
+                    journalAck(journalSeq);
                     callbackContext.success();
                 }
 
@@ -467,6 +1446,78 @@ public class PushIOManagerPlugin extends CordovaPlugin {
 
     }
 
+    private long journalAppend(String kind, String payload) {
+        return (mEventJournal != null) ? mEventJournal.append(kind, payload) : -1;
+    }
+
+    private void journalAck(long journalSeq) {
+        if (mEventJournal != null) {
+            mEventJournal.ack(journalSeq);
+        }
+    }
+
+    private static String eventJournalPayload(String eventType, String propertiesJson) {
+        return "{\"type\":" + JSONObject.quote(eventType) + ",\"properties\":"
+                + (propertiesJson != null ? propertiesJson : "null") + "}";
+    }
+
+    private static String engagementJournalPayload(int metric, JSONObject propertiesObject) {
+        return "{\"metric\":" + metric + ",\"properties\":"
+                + (propertiesObject != null ? propertiesObject.toString() : "null") + "}";
+    }
+
+    /**
+     * Replays events and engagements that were journaled but never handed to
+     * the SDK, e.g. because the process was killed while they were buffered.
+     */
+    @SuppressWarnings("unchecked")
+    private void replayEventJournal() {
+        final long maxAgeMs = preferences.getInteger("PushIOJournalMaxRecordAgeHours", 72) * 3600000L;
+        final List<PushIOEventJournal.Record> records = mEventJournal.recover();
+        if (!records.isEmpty()) {
+            Log.v(TAG, "Replaying " + records.size() + " journaled records");
+        }
+
+        for (final PushIOEventJournal.Record record : records) {
+            if (System.currentTimeMillis() - record.timestamp > maxAgeMs) {
+                mEventJournal.ack(record.seq);
+                continue;
+            }
+
+            try {
+                if (PushIOEventJournal.KIND_EVENT.equals(record.kind)) {
+                    final Map<String, Object> payload = PushIOJsonParser.parseObject(record.payload);
+                    final Object properties = payload.get("properties");
+                    mPushIOManager.trackEvent(String.valueOf(payload.get("type")),
+                            (properties instanceof Map) ? (Map<String, Object>) properties : null);
+                    mEventJournal.ack(record.seq);
+
+                } else if (PushIOEventJournal.KIND_ENGAGEMENT.equals(record.kind)) {
+                    final JSONObject payload = new JSONObject(record.payload);
+                    final JSONObject propertiesObject = payload.optJSONObject("properties");
+                    mPushIOManager.trackEngagement(payload.optInt("metric"), null,
+                            propertiesObject != null ? PushIOManagerPluginUtils.toMapStr(propertiesObject) : null,
+                            new PushIOEngagementListener() {
+                                @Override
+                                public void onEngagementSuccess() {
+                                    mEventJournal.ack(record.seq);
+                                }
+
+                                @Override
+                                public void onEngagementError(String s) {
+                                    Log.v(TAG, "Journaled engagement not sent: " + s);
+                                }
+                            });
+                } else {
+                    mEventJournal.ack(record.seq);
+                }
+            } catch (Exception e) {
+                Log.v(TAG, "Exception: " + e.getMessage());
+                mEventJournal.ack(record.seq);
+            }
+        }
+    }
+
     private void setLogLevel(JSONArray data, CallbackContext callbackContext) {
         try {
 
@@ -516,15 +1567,20 @@ public class PushIOManagerPlugin extends CordovaPlugin {
     }
 
     private void configure(JSONArray data, CallbackContext callbackContext) {
-        String fileName = data.optString(0);
+        final String fileName = data.optString(0);
         if (!TextUtils.isEmpty(fileName)) {
-            mPushIOManager.configure(fileName, new PIOConfigurationListener() {
+            mSingleFlight.execute("configure", fileName, callbackContext, new PushIOSingleFlight.Operation() {
                 @Override
-                public void onSDKConfigured(Exception e) {
-                    if (e == null)
-                        callbackContext.success();
-                    else
-                        callbackContext.error(e.getMessage());
+                public void run(final CallbackContext flightContext) {
+                    mPushIOManager.configure(fileName, new PIOConfigurationListener() {
+                        @Override
+                        public void onSDKConfigured(Exception e) {
+                            if (e == null)
+                                flightContext.success();
+                            else
+                                flightContext.error(e.getMessage());
+                        }
+                    });
                 }
             });
         } else {
@@ -540,16 +1596,29 @@ public class PushIOManagerPlugin extends CordovaPlugin {
             @Override
             public void onPushIOSuccess() {
                 callbackContext.success();
+                publishRegistration(null);
             }
 
             @Override
             public void onPushIOError(String s) {
                 callbackContext.error(s);
+                publishRegistration(s);
             }
         });
         mPushIOManager.registerApp(isUseLocation);
     }
 
+    private void publishRegistration(String error) {
+        try {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("success", error == null);
+            jsonObject.put("error", error);
+            mEventChannel.publish(PushIOEventChannel.REGISTRATION, PushIOEventChannel.REGISTRATION, jsonObject);
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+        }
+    }
+
     private void unregisterApp(JSONArray data, CallbackContext callbackContext) {
         mPushIOManager.unregisterApp();
         callbackContext.success();
@@ -596,6 +1665,10 @@ public class PushIOManagerPlugin extends CordovaPlugin {
         try {
             boolean flag = data.getBoolean(0);
             mPushIOManager.setMessageCenterEnabled(flag);
+            if (!flag) {
+                invalidateMessageCenter("disabled");
+                mRichContentCache.clear();
+            }
             callbackContext.success();
 
         } catch (JSONException e) {
@@ -605,22 +1678,123 @@ public class PushIOManagerPlugin extends CordovaPlugin {
     }
 
     private void fetchMessagesForMessageCenter(JSONArray data, CallbackContext callbackContext) {
+        final String msgCenterName = data.optString(0);
+        invalidateMessageCenterOnNewNotification();
+        PushIOMessageCenterCache.Entry entry = mMessageCenterCache.get(msgCenterName);
+
+        if (entry == null) {
+            mSingleFlight.execute("fetchMessagesForMessageCenter", msgCenterName, callbackContext,
+                    new PushIOSingleFlight.Operation() {
+                        @Override
+                        public void run(CallbackContext flightContext) {
+                            requestMessagesForMessageCenter(msgCenterName, null, flightContext);
+                        }
+                    });
+            return;
+        }
+
+        sendMessageCenterResult(callbackContext, msgCenterName, entry.messagesJson, true, entry.age());
+        if (mMessageCenterCache.isStale(entry) && entry.refreshing.compareAndSet(false, true)) {
+            requestMessagesForMessageCenter(msgCenterName, entry, null);
+        }
+    }
+
+    /**
+     * Fetches the messages from the SDK and caches them. Either answers {@code callbackContext},
+     * or, when it is null, refreshes the {@code staleEntry} that was already sent to JS.
+     */
+    private void requestMessagesForMessageCenter(final String msgCenterName,
+            final PushIOMessageCenterCache.Entry staleEntry, final CallbackContext callbackContext) {
+        final long generation = mMessageCenterCache.generation();
         try {
-            String msgCenterName = data.optString(0);
             mPushIOManager.fetchMessagesForMessageCenter(msgCenterName, new PIOMCMessageListener() {
                 @Override
                 public void onSuccess(String messageCenter, List<PIOMCMessage> messages) {
-                    JSONArray messagesAsJson = PushIOManagerPluginUtils.messageCenterMessagesAsJSONArray(messages);
+                    String messagesJson = PushIOManagerPluginUtils.messageCenterMessagesAsJSONArray(messages)
+                            .toString();
+                    // Keyed by the requested name, which is what the next call looks up.
+                    mMessageCenterCache.put(msgCenterName, messagesJson, generation);
+                    mMessageCenterPager.setSnapshot(msgCenterName, messages);
+                    if (callbackContext != null) {
+                        sendMessageCenterResult(callbackContext, msgCenterName, messagesJson, false, 0);
+                    }
+                    onMessagesFetched(msgCenterName, messages);
+                }
+
+                @Override
+                public void onFailure(String messageCenter, PIOMCMessageError error) {
+                    if (callbackContext == null) {
+                        Log.v(TAG, "Message center refresh failed: " + error.getErrorMessage());
+                        staleEntry.refreshing.set(false);
+                        return;
+                    }
+
                     try {
                         JSONObject jsonObject = new JSONObject();
                         jsonObject.put("messageCenter", messageCenter);
-                        jsonObject.put("messages", messagesAsJson);
-                        callbackContext.success(jsonObject);
+                        jsonObject.put("errorReason", error.getErrorMessage());
+                        callbackContext.error(jsonObject);
                     } catch (JSONException e) {
                         Log.v(TAG, "Exception: " + e.getMessage());
-                        callbackContext.error(e.getMessage());
+                        callbackContext.error(error.getErrorMessage());
                     }
                 }
+            });
+        } catch (PIOMCMessageException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            if (callbackContext != null) {
+                callbackContext.error(e.getMessage());
+            } else {
+                staleEntry.refreshing.set(false);
+            }
+        }
+    }
+
+    /**
+     * Delivers a message center in pages. Arguments: message center name and an optional
+     * options object with {@code pageSize}, {@code cursor} (the {@code nextCursor} of the
+     * previous page), {@code fields} (message fields to include) and {@code stream}. With
+     * {@code stream} all pages from the cursor on are sent to the same callback, the last
+     * one with {@code done: true}; otherwise one page is sent.
+     */
+    private void fetchMessagesForMessageCenterPaged(JSONArray data, final CallbackContext callbackContext) {
+        final long startedAt = System.nanoTime();
+        final String msgCenterName = data.optString(0);
+        JSONObject options = data.optJSONObject(1);
+        if (options == null) {
+            options = new JSONObject();
+        }
+
+        final int pageSize = PushIOMessageCenterPager.pageSizeFor(options.optInt("pageSize"));
+        final String cursor = options.isNull("cursor") ? null : options.optString("cursor");
+        final boolean stream = options.optBoolean("stream", false);
+
+        Set<String> projection = null;
+        JSONArray fieldsArray = options.optJSONArray("fields");
+        if (fieldsArray != null) {
+            projection = new HashSet<>(fieldsArray.length() * 4 / 3 + 1);
+            for (int i = 0; i < fieldsArray.length(); i++) {
+                projection.add(fieldsArray.optString(i));
+            }
+        }
+        final Set<String> fields = projection;
+
+        invalidateMessageCenterOnNewNotification();
+        List<PIOMCMessage> snapshot = (cursor != null) ? mMessageCenterPager.snapshot(msgCenterName) : null;
+        if (snapshot != null) {
+            sendMessagePages(callbackContext, msgCenterName, snapshot, cursor, pageSize, fields, stream, startedAt);
+            return;
+        }
+
+        try {
+            mPushIOManager.fetchMessagesForMessageCenter(msgCenterName, new PIOMCMessageListener() {
+                @Override
+                public void onSuccess(String messageCenter, List<PIOMCMessage> messages) {
+                    mMessageCenterPager.setSnapshot(msgCenterName, messages);
+                    sendMessagePages(callbackContext, msgCenterName, mMessageCenterPager.snapshot(msgCenterName),
+                            cursor, pageSize, fields, stream, startedAt);
+                    onMessagesFetched(msgCenterName, messages);
+                }
 
                 @Override
                 public void onFailure(String messageCenter, PIOMCMessageError error) {
@@ -641,47 +1815,258 @@ public class PushIOManagerPlugin extends CordovaPlugin {
         }
     }
 
+    private void sendMessagePages(CallbackContext callbackContext, String messageCenter, List<PIOMCMessage> messages,
+            String cursor, int pageSize, Set<String> fields, boolean stream, long startedAt) {
+        int offset = PushIOMessageCenterPager.offsetFor(messages, cursor);
+        if (offset < 0) {
+            callbackContext.error("Invalid cursor.");
+            return;
+        }
+
+        // Each page is serialized only after the previous one was handed to the bridge,
+        // so JS can render the first rows while the rest is still being built.
+        boolean done;
+        do {
+            String json = PushIOMessageCenterPager.pageJson(messageCenter, messages, offset, pageSize, fields);
+            offset = Math.min(offset + pageSize, messages.size());
+            done = offset >= messages.size();
+
+            PluginResult result = new PushIOJsonPluginResult(PluginResult.Status.OK, json);
+            result.setKeepCallback(stream && !done);
+            callbackContext.sendPluginResult(result);
+
+            mMessageCenterPager.recordPage(json.length(), startedAt);
+            startedAt = -1;
+        } while (stream && !done);
+    }
+
+    private void sendMessageCenterResult(CallbackContext callbackContext, String messageCenter,
+            String messagesJson, boolean fromCache, long age) {
+        String json = "{\"messageCenter\":" + JSONObject.quote(messageCenter)
+                + ",\"messages\":" + messagesJson
+                + ",\"fromCache\":" + fromCache
+                + ",\"age\":" + age + "}";
+        callbackContext.sendPluginResult(new PushIOJsonPluginResult(PluginResult.Status.OK, json));
+    }
+
     private void fetchRichContentForMessage(JSONArray data, CallbackContext callbackContext) {
-        try {
-            String messageId = data.optString(0);
-            if (!TextUtils.isEmpty(messageId)) {
-                mPushIOManager.fetchRichContentForMessage(messageId, new PIOMCRichContentListener() {
+        final String messageId = data.optString(0);
+        if (TextUtils.isEmpty(messageId)) {
+            callbackContext.error("Error reading parameters.");
+            return;
+        }
 
-                    @Override
-                    public void onSuccess(String messageId, String richContent) {
-                        try {
-                            JSONObject jsonObject = new JSONObject();
-                            jsonObject.put("messageId", messageId);
-                            jsonObject.put("richContent", richContent);
-                            callbackContext.success(jsonObject);
-                        } catch (JSONException e) {
-                            Log.v(TAG, "Exception: " + e.getMessage());
-                            callbackContext.error(e.getMessage());
-                        }
-                    }
+        String cachedContent = mRichContentCache.get(messageId);
+        if (cachedContent != null) {
+            sendRichContentResult(callbackContext, messageId, cachedContent, true);
+            return;
+        }
 
+        mSingleFlight.execute("fetchRichContentForMessage", messageId, callbackContext,
+                new PushIOSingleFlight.Operation() {
                     @Override
-                    public void onFailure(String messageId, PIOMCMessageError error) {
-                        try {
-                            JSONObject jsonObject = new JSONObject();
-                            jsonObject.put("messageId", messageId);
-                            jsonObject.put("errorReason", error.getErrorMessage());
-                            callbackContext.error(jsonObject);
-                        } catch (JSONException e) {
-                            Log.v(TAG, "Exception: " + e.getMessage());
-                            callbackContext.error(error.getErrorMessage());
-                        }
+                    public void run(CallbackContext flightContext) {
+                        requestRichContentForMessage(messageId, flightContext);
                     }
                 });
-            } else {
-                callbackContext.error("Error reading parameters.");
-            }
+    }
+
+    private void requestRichContentForMessage(String messageId, final CallbackContext callbackContext) {
+        try {
+            mPushIOManager.fetchRichContentForMessage(messageId, new PIOMCRichContentListener() {
+
+                @Override
+                public void onSuccess(String messageId, String richContent) {
+                    mRichContentCache.put(messageId, richContent);
+                    sendRichContentResult(callbackContext, messageId, richContent, false);
+                }
+
+                @Override
+                public void onFailure(String messageId, PIOMCMessageError error) {
+                    try {
+                        JSONObject jsonObject = new JSONObject();
+                        jsonObject.put("messageId", messageId);
+                        jsonObject.put("errorReason", error.getErrorMessage());
+                        callbackContext.error(jsonObject);
+                    } catch (JSONException e) {
+                        Log.v(TAG, "Exception: " + e.getMessage());
+                        callbackContext.error(error.getErrorMessage());
+                    }
+                }
+            });
         } catch (PIOMCRichContentException e) {
             Log.v(TAG, "Exception: " + e.getMessage());
             callbackContext.error(e.getMessage());
         }
     }
 
+    private void sendRichContentResult(CallbackContext callbackContext, String messageId, String richContent,
+            boolean fromCache) {
+        try {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("messageId", messageId);
+            jsonObject.put("richContent", richContent);
+            jsonObject.put("fromCache", fromCache);
+            callbackContext.success(jsonObject);
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            callbackContext.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Drops cached messages of every message center and tells event subscribers
+     * that they may have changed.
+     */
+    private void invalidateMessageCenter(String reason) {
+        mMessageCenterCache.invalidateAll();
+        mMessageCenterPager.invalidateAll();
+        publishMessageCenter(null, reason, -1);
+    }
+
+    /**
+     * The SDK does not tell the plugin about pushes it receives natively, e.g. while
+     * the app is in the foreground, but it posts a notification for each. A
+     * notification newer than the last one seen means the message center may have
+     * changed. Pushes that post no notification are only picked up once the cached
+     * messages expire.
+     */
+    private void invalidateMessageCenterOnNewNotification() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return;
+        }
+
+        long latest = 0;
+        try {
+            NotificationManager notificationManager =
+                    (NotificationManager) mAppContext.getSystemService(Context.NOTIFICATION_SERVICE);
+            for (StatusBarNotification notification : notificationManager.getActiveNotifications()) {
+                latest = Math.max(latest, notification.getPostTime());
+            }
+        } catch (RuntimeException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            return;
+        }
+
+        final long seen = mLastNotificationPostTime.get();
+        if (latest > seen && mLastNotificationPostTime.compareAndSet(seen, latest) && seen >= 0) {
+            invalidateMessageCenter("pushReceived");
+        }
+    }
+
+    /**
+     * @param messageCenter null for every message center.
+     * @param count number of messages, or -1 if not known.
+     */
+    private void publishMessageCenter(String messageCenter, String reason, int count) {
+        try {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("messageCenter", messageCenter);
+            jsonObject.put("reason", reason);
+            if (count >= 0) {
+                jsonObject.put("count", count);
+            }
+            mEventChannel.publish(PushIOEventChannel.MESSAGE_CENTER, (messageCenter != null) ? messageCenter : "",
+                    jsonObject);
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tells event subscribers about freshly fetched messages, records their expiry
+     * in the rich content cache and, if enabled, warms it with the rich content of
+     * the first messages.
+     */
+    private void onMessagesFetched(String messageCenter, List<PIOMCMessage> messages) {
+        publishMessageCenter(messageCenter, "fetched", (messages != null) ? messages.size() : -1);
+        if (messages == null) {
+            return;
+        }
+
+        List<String> prefetchIds = new ArrayList<>(Math.min(messages.size(), mRichContentPrefetchCount));
+        for (PIOMCMessage message : messages) {
+            Date expiry = message.getExpiryTimestamp();
+            mRichContentCache.setExpiry(message.getId(), (expiry != null) ? expiry.getTime() : 0);
+            if (prefetchIds.size() < mRichContentPrefetchCount) {
+                prefetchIds.add(message.getId());
+            }
+        }
+        mRichContentCache.evictExpired();
+        startRichContentPrefetch(prefetchIds);
+    }
+
+    private void prefetchRichContent(JSONArray data, CallbackContext callbackContext) {
+        JSONArray messageIdsArray = data.optJSONArray(0);
+        if (messageIdsArray == null) {
+            callbackContext.error("Error reading parameters.");
+            return;
+        }
+
+        List<String> messageIds = new ArrayList<>(messageIdsArray.length());
+        for (int i = 0; i < messageIdsArray.length(); i++) {
+            messageIds.add(messageIdsArray.optString(i));
+        }
+
+        try {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("requested", messageIds.size());
+            jsonObject.put("fetching", startRichContentPrefetch(messageIds));
+            callbackContext.success(jsonObject);
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            callbackContext.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Fetches the rich content of messages that are neither cached nor already being fetched.
+     * A fetch goes through the same single-flight as {@code fetchRichContentForMessage}, so a
+     * prefetch and a fetch of the same message share one request.
+     *
+     * @return the number of prefetches started.
+     */
+    private int startRichContentPrefetch(List<String> messageIds) {
+        int started = 0;
+        for (final String messageId : messageIds) {
+            if (TextUtils.isEmpty(messageId) || mRichContentCache.contains(messageId)
+                    || !mRichContentPrefetches.add(messageId)) {
+                continue;
+            }
+
+            mSingleFlight.execute("fetchRichContentForMessage", messageId, new PrefetchCallbackContext(messageId),
+                    new PushIOSingleFlight.Operation() {
+                        @Override
+                        public void run(CallbackContext flightContext) {
+                            requestRichContentForMessage(messageId, flightContext);
+                        }
+                    });
+            started++;
+        }
+        return started;
+    }
+
+    /**
+     * Receives the result of a rich content prefetch, which no JS call waits for.
+     * The content itself is cached by {@link #requestRichContentForMessage}.
+     */
+    private final class PrefetchCallbackContext extends CallbackContext {
+        private final String mMessageId;
+
+        PrefetchCallbackContext(String messageId) {
+            super("prefetchRichContent", webView);
+            mMessageId = messageId;
+        }
+
+        @Override
+        public void sendPluginResult(PluginResult pluginResult) {
+            if (pluginResult.getStatus() != PluginResult.Status.OK.ordinal()) {
+                Log.v(TAG, "Rich content prefetch failed: " + pluginResult.getMessage());
+            }
+            mRichContentPrefetches.remove(mMessageId);
+        }
+    }
+
     private void setInAppFetchEnabled(JSONArray data, CallbackContext callbackContext) {
         try {
             boolean flag = data.getBoolean(0);
@@ -718,46 +2103,41 @@ public class PushIOManagerPlugin extends CordovaPlugin {
     private void setMessageCenterBadgingEnabled(JSONArray data, CallbackContext callbackContext) {
         boolean flag = data.optBoolean(0);
         mPushIOManager.setMessageCenterBadgingEnabled(flag);
+        mBadgeCoalescer.invalidate();
     }
 
     private void setBadgeCount(JSONArray data, CallbackContext callbackContext) {
         int badgeCount = data.optInt(0);
         boolean forceSetBadge = data.optBoolean(1);
-        mPushIOManager.setBadgeCount(badgeCount, forceSetBadge, new PIOBadgeSyncListener() {
-            @Override
-            public void onBadgeSyncedSuccess(String s) {
-                callbackContext.success(s);
-            }
-
-            @Override
-            public void onBadgeSyncedFailure(String s) {
-                callbackContext.error(s);
-            }
-        });
+        mBadgeCoalescer.set(badgeCount, forceSetBadge, callbackContext);
     }
 
     private void getBadgeCount(JSONArray data, CallbackContext callbackContext) {
-        int count = mPushIOManager.getBadgeCount();
+        int count = mBadgeCoalescer.getCount();
         callbackContext.success(count);
     }
 
     private void resetBadgeCount(JSONArray data, CallbackContext callbackContext) {
         boolean forceSetBadge = data.optBoolean(0);
-        mPushIOManager.resetBadgeCount(forceSetBadge, new PIOBadgeSyncListener() {
-            @Override
-            public void onBadgeSyncedSuccess(String s) {
-                callbackContext.success(s);
-            }
+        mBadgeCoalescer.reset(forceSetBadge, callbackContext);
+    }
 
-            @Override
-            public void onBadgeSyncedFailure(String s) {
-                callbackContext.error(s);
-            }
-        });
+    private void publishBadge(int count, boolean synced, String message) {
+        try {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("count", count);
+            jsonObject.put("synced", synced);
+            jsonObject.put("message", message);
+            mEventChannel.publish(PushIOEventChannel.BADGE, PushIOEventChannel.BADGE, jsonObject);
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+        }
     }
 
     private void resetMessageCenter(JSONArray data, CallbackContext callbackContext) {
         mPushIOManager.resetMessageCenter();
+        invalidateMessageCenter("reset");
+        mRichContentCache.clear();
         callbackContext.success();
     }
 
@@ -804,13 +2184,13 @@ public class PushIOManagerPlugin extends CordovaPlugin {
     }
 
     private void clearInteractiveNotificationCategories(JSONArray data, CallbackContext callbackContext) {
-        mPushIOManager.clearInteractiveNotificationCategories();
+        mCategoryRegistry.clear();
         callbackContext.success();
     }
 
     private void deleteInteractiveNotificationCategory(JSONArray data, CallbackContext callbackContext) {
         String categoryId = data.optString(0);
-        mPushIOManager.deleteInteractiveNotificationCategory(categoryId);
+        mCategoryRegistry.delete(categoryId);
         callbackContext.success();
     }
 
@@ -818,10 +2198,10 @@ public class PushIOManagerPlugin extends CordovaPlugin {
         String categoryId = data.optString(0);
 
         if (!TextUtils.isEmpty(categoryId)) {
-            PIOInteractiveNotificationCategory category = mPushIOManager.getInteractiveNotificationCategory(categoryId);
+            String categoryJson = mCategoryRegistry.get(categoryId);
 
-            if (category != null) {
-                callbackContext.success(PushIOManagerPluginUtils.notificationCategoryAsJson(category));
+            if (categoryJson != null) {
+                callbackContext.sendPluginResult(new PushIOJsonPluginResult(PluginResult.Status.OK, categoryJson));
             } else {
                 callbackContext.error("Invalid categoryID passed");
             }
@@ -830,136 +2210,98 @@ public class PushIOManagerPlugin extends CordovaPlugin {
         }
     }
 
+    private void getAllInteractiveNotificationCategories(JSONArray data, CallbackContext callbackContext) {
+        callbackContext.sendPluginResult(new PushIOJsonPluginResult(PluginResult.Status.OK,
+                mCategoryRegistry.getAll()));
+    }
+
     private void addInteractiveNotificationCategory(JSONArray data, CallbackContext callbackContext) {
-        PIOInteractiveNotificationCategory category = PushIOManagerPluginUtils.notificationCategoryFromJsonArray(data);
-        if (category != null) {
-            mPushIOManager.addInteractiveNotificationCategory(category);
-            callbackContext.success();
-        } else {
-            callbackContext.error("Invalid category passed");
+        try {
+            JSONObject result = mCategoryRegistry.addAll(new JSONArray().put(data.optJSONObject(0)));
+            if (result.getJSONArray("invalid").length() == 0) {
+                callbackContext.success();
+            } else {
+                callbackContext.error("Invalid category passed");
+            }
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            callbackContext.error(e.getMessage());
         }
     }
 
-    private void onGeoRegionEntered(JSONArray data, CallbackContext callbackContext) {
-        PIOGeoRegion geoRegion = PushIOManagerPluginUtils.geoRegionFromJsonArray(data,
-                PIORegionEventType.GEOFENCE_ENTRY);
-        if (geoRegion != null) {
-            mPushIOManager.onGeoRegionEntered(geoRegion, new PIORegionCompletionListener() {
-                @Override
-                public void onRegionReported(String regionId, PIORegionEventType pioRegionEventType,
-                        PIORegionException e) {
-                    if (e == null) {
-                        try {
-                            JSONObject jsonObject = new JSONObject();
-                            jsonObject.put("regionID", regionId);
-                            jsonObject.put("regionType", pioRegionEventType);
-
-                            callbackContext.success(jsonObject);
-                        } catch (JSONException ex) {
-                            Log.v(TAG, "Exception: " + ex.getMessage());
-                            callbackContext.error(ex.getMessage());
-                        }
-                    } else {
-                        callbackContext.error(e.getErrorMessage());
-                    }
-
-                }
-            });
+    private void addInteractiveNotificationCategories(JSONArray data, CallbackContext callbackContext) {
+        JSONArray categories = data.optJSONArray(0);
+        if (categories != null) {
+            try {
+                callbackContext.success(mCategoryRegistry.addAll(categories));
+            } catch (JSONException e) {
+                Log.v(TAG, "Exception: " + e.getMessage());
+                callbackContext.error(e.getMessage());
+            }
         } else {
-            callbackContext.error("Error reading geoRegion jsonArray");
+            callbackContext.error("Error reading parameters.");
         }
-
     }
 
-    private void onGeoRegionExited(JSONArray data, CallbackContext callbackContext) {
-        PIOGeoRegion geoRegion = PushIOManagerPluginUtils.geoRegionFromJsonArray(data,
-                PIORegionEventType.GEOFENCE_EXIT);
-        if (geoRegion != null) {
-            mPushIOManager.onGeoRegionExited(geoRegion, new PIORegionCompletionListener() {
-                @Override
-                public void onRegionReported(String regionId, PIORegionEventType pioRegionEventType,
-                        PIORegionException e) {
-                    if (e == null) {
-                        try {
-                            JSONObject jsonObject = new JSONObject();
-                            jsonObject.put("regionID", regionId);
-                            jsonObject.put("regionType", pioRegionEventType);
-                            callbackContext.success(jsonObject);
-                        } catch (JSONException ex) {
-                            Log.v(TAG, "Exception: " + ex.getMessage());
-                            callbackContext.error(ex.getMessage());
-                        }
-                    } else {
-                        callbackContext.error(e.getErrorMessage());
-                    }
-
-                }
-            });
-        } else {
-            callbackContext.error("Error reading geoRegion jsonArray");
+    /**
+     * Runs a transition through the region event filter and, if it is suppressed,
+     * answers the callback with the reason instead of reporting it.
+     */
+    private boolean isRegionEventSuppressed(PIORegionEventType type, String regionId,
+            CallbackContext callbackContext) {
+        final String reason = mRegionEventFilter.filter(type, regionId);
+        if (reason == null) {
+            return false;
         }
 
+        callbackContext.sendPluginResult(new PushIOJsonPluginResult(PluginResult.Status.OK,
+                PushIORegionReporter.resultJson(regionId, type, "suppressed", reason)));
+        return true;
     }
 
-    private void onBeaconRegionEntered(JSONArray data, CallbackContext callbackContext) {
-        PIOBeaconRegion beaconRegion = PushIOManagerPluginUtils.beaconRegionFromJsonArray(data,
-                PIORegionEventType.BEACON_ENTRY);
-        if (beaconRegion != null) {
-            mPushIOManager.onBeaconRegionEntered(beaconRegion, new PIORegionCompletionListener() {
-                @Override
-                public void onRegionReported(String regionId, PIORegionEventType pioRegionEventType,
-                        PIORegionException e) {
-                    if (e == null) {
-                        try {
-                            JSONObject jsonObject = new JSONObject();
-                            jsonObject.put("regionID", regionId);
-                            jsonObject.put("regionType", pioRegionEventType);
-                            callbackContext.success(jsonObject);
-                        } catch (JSONException ex) {
-                            Log.v(TAG, "Exception: " + ex.getMessage());
-                            callbackContext.error(ex.getMessage());
-                        }
-                    } else {
-                        callbackContext.error(e.getErrorMessage());
-                    }
-
-                }
-            });
+    private void reportRegionEvents(JSONArray data, CallbackContext callbackContext) {
+        JSONArray records = data.optJSONArray(0);
+        if (records != null) {
+            PushIORegionBatch.report(mRegionReporter, mRegionEventFilter, records, mRegionReportConcurrency,
+                    callbackContext);
         } else {
-            callbackContext.error("Error reading geoRegion jsonArray");
+            callbackContext.error("Error reading parameters.");
         }
+    }
+
+    private void onGeoRegionEntered(JSONArray data, CallbackContext callbackContext) {
+        reportRegionEvent(PIORegionEventType.GEOFENCE_ENTRY, data, callbackContext);
+    }
+
+    private void onGeoRegionExited(JSONArray data, CallbackContext callbackContext) {
+        reportRegionEvent(PIORegionEventType.GEOFENCE_EXIT, data, callbackContext);
+    }
 
+    private void onBeaconRegionEntered(JSONArray data, CallbackContext callbackContext) {
+        reportRegionEvent(PIORegionEventType.BEACON_ENTRY, data, callbackContext);
     }
 
     private void onBeaconRegionExited(JSONArray data, CallbackContext callbackContext) {
-        PIOBeaconRegion beaconRegion = PushIOManagerPluginUtils.beaconRegionFromJsonArray(data,
-                PIORegionEventType.BEACON_EXIT);
-        if (beaconRegion != null) {
-            mPushIOManager.onBeaconRegionExited(beaconRegion, new PIORegionCompletionListener() {
-                @Override
-                public void onRegionReported(String regionId, PIORegionEventType pioRegionEventType,
-                        PIORegionException e) {
-                    if (e == null) {
-                        try {
-                            JSONObject jsonObject = new JSONObject();
-
-                            jsonObject.put("regionID", regionId);
-                            jsonObject.put("regionType", pioRegionEventType);
-                            callbackContext.success(jsonObject);
-                        } catch (JSONException ex) {
-                            Log.v(TAG, "Exception: " + ex.getMessage());
-                            callbackContext.error(ex.getMessage());
-                        }
-                    } else {
-                        callbackContext.error(e.getErrorMessage());
-                    }
+        reportRegionEvent(PIORegionEventType.BEACON_EXIT, data, callbackContext);
+    }
 
-                }
-            });
+    private void reportRegionEvent(PIORegionEventType type, JSONArray data, CallbackContext callbackContext) {
+        final JSONObject regionJson = data.optJSONObject(0);
+        if (PushIORegionReporter.isGeofence(type)) {
+            PIOGeoRegion geoRegion = PushIOManagerPluginUtils.geoRegionFromJson(regionJson, type);
+            if (geoRegion == null) {
+                callbackContext.error("Error reading geoRegion jsonArray");
+            } else if (!isRegionEventSuppressed(type, regionJson.optString("geofenceId"), callbackContext)) {
+                mRegionReporter.report(type, geoRegion, null, callbackContext);
+            }
         } else {
-            callbackContext.error("Error reading beaconRegion jsonArray");
+            PIOBeaconRegion beaconRegion = PushIOManagerPluginUtils.beaconRegionFromJson(regionJson, type);
+            if (beaconRegion == null) {
+                callbackContext.error("Error reading beaconRegion jsonArray");
+            } else if (!isRegionEventSuppressed(type, regionJson.optString("beaconId"), callbackContext)) {
+                mRegionReporter.report(type, null, beaconRegion, callbackContext);
+            }
         }
-
     }
 
     private void setExecuteRsysWebUrl(JSONArray data, CallbackContext callbackContext) {
@@ -973,6 +2315,7 @@ public class PushIOManagerPlugin extends CordovaPlugin {
                     jsonObject.put("deeplinkUrl", deeplinkUrl);
                     jsonObject.put("weblinkUrl", weblinkUrl);
                     callbackContext.success(jsonObject);
+                    mEventChannel.publish(PushIOEventChannel.IAM_HYPERLINK, null, jsonObject);
 
                 } catch (JSONException e) {
                     Log.v(TAG, "Exception: " + e.getMessage());
@@ -987,6 +2330,7 @@ public class PushIOManagerPlugin extends CordovaPlugin {
                     jsonObject.put("requestUrl", requestUrl);
                     jsonObject.put("errorReason", errorReason);
                     callbackContext.error(jsonObject);
+                    mEventChannel.publish(PushIOEventChannel.IAM_HYPERLINK, null, jsonObject);
 
                 } catch (JSONException e) {
                     Log.v(TAG, "Exception: " + e.getMessage());
@@ -1038,6 +2382,57 @@ public class PushIOManagerPlugin extends CordovaPlugin {
         }
     }
 
+    private void isResponsysPush(String rawArgs, CallbackContext callbackContext) {
+        try {
+            callbackContext.success(String.valueOf(responsysMessage(rawArgs) != null));
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            callbackContext.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Hands a Responsys push to the SDK. Answers {@code "true"} if it was one,
+     * {@code "false"} if the payload was ignored.
+     */
+    private void handleMessage(String rawArgs, CallbackContext callbackContext) {
+        try {
+            RemoteMessage remoteMessage = responsysMessage(rawArgs);
+            if (remoteMessage != null) {
+                mPushIOManager.handleMessage(remoteMessage);
+                // The push may carry a new message center message and badge count.
+                invalidateMessageCenter("pushReceived");
+                mBadgeCoalescer.invalidate();
+            }
+            callbackContext.success(String.valueOf(remoteMessage != null));
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            callbackContext.error(e.getMessage());
+        }
+    }
+
+    /**
+     * The push in the raw action arguments if it is a Responsys push, else null.
+     * If marker keys are configured, payloads without one are rejected from a scan
+     * of the raw string, without being parsed.
+     */
+    RemoteMessage responsysMessage(String rawArgs) throws JSONException {
+        final long startedAt = System.nanoTime();
+        if (!mPushClassifier.mayBeResponsys(rawArgs)) {
+            mPushClassifier.recordFiltered(System.nanoTime() - startedAt);
+            return null;
+        }
+
+        RemoteMessage remoteMessage = PushIOManagerPluginUtils.remoteMessageFromMap(
+                PushIOJsonParser.parseArgs(rawArgs).optMap(0));
+        if (remoteMessage == null) {
+            throw new JSONException("Error reading parameters");
+        }
+        final boolean responsys = mPushIOManager.isResponsysPayload(remoteMessage);
+        mPushClassifier.recordClassified(System.nanoTime() - startedAt, responsys);
+        return responsys ? remoteMessage : null;
+    }
+
     private void isRichPushDelaySet(JSONArray data, CallbackContext callbackContext) {
         boolean result = mPushIOManager.isRichPushDelaySet();
         callbackContext.success(String.valueOf(result));
@@ -1047,4 +2442,36 @@ public class PushIOManagerPlugin extends CordovaPlugin {
         mPushIOManager.showRichPushMessage();
         callbackContext.success();
     }
+
+    private void getPluginMetrics(JSONArray data, CallbackContext callbackContext) {
+        try {
+            callbackContext.success(pluginMetricsAsJson());
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            callbackContext.error(e.getMessage());
+        }
+    }
+
+    private JSONObject pluginMetricsAsJson() throws JSONException {
+        JSONObject jsonObject = mPluginMetrics.metricsAsJson();
+        jsonObject.put("lanes", mActionScheduler.metricsAsJson());
+        jsonObject.put("eventBuffer", mEventBuffer.metricsAsJson());
+        if (mEventJournal != null) {
+            jsonObject.put("journal", mEventJournal.metricsAsJson());
+        }
+        jsonObject.put("messageCenterCache", mMessageCenterCache.metricsAsJson());
+        jsonObject.put("richContentCache", mRichContentCache.metricsAsJson());
+        jsonObject.put("messageCenterPaging", mMessageCenterPager.metricsAsJson());
+        jsonObject.put("preferences", mPreferenceStore.metricsAsJson());
+        jsonObject.put("regionEvents", mRegionEventFilter.metricsAsJson());
+        jsonObject.put("regionReports", mRegionReporter.metricsAsJson());
+        jsonObject.put("deepLinks", mDeepLinkQueue.metricsAsJson());
+        jsonObject.put("eventChannel", mEventChannel.metricsAsJson());
+        jsonObject.put("notificationCategories", mCategoryRegistry.metricsAsJson());
+        jsonObject.put("badge", mBadgeCoalescer.metricsAsJson());
+        jsonObject.put("singleFlight", mSingleFlight.metricsAsJson());
+        jsonObject.put("pushClassifier", mPushClassifier.metricsAsJson());
+        jsonObject.put("startup", mStartup.metricsAsJson());
+        return jsonObject;
+    }
 }
@@ -8,6 +8,7 @@ package com.pushio.manager.cordova;
 import android.text.TextUtils;
 import android.util.Log;
 
+import com.google.firebase.messaging.RemoteMessage;
 import com.pushio.manager.PIOBeaconRegion;
 import com.pushio.manager.PIOGeoRegion;
 import com.pushio.manager.PIOMCMessage;
@@ -25,18 +26,14 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.util.Set;
 import java.util.Date;
-import java.util.Locale;
-import java.util.TimeZone;
 
 public class PushIOManagerPluginUtils {
     private static final String TAG = "pushio-cordova";
-    private static final String DATE_FORMAT_ISO8601 = "yyyy-MM-dd'T'HH:mm:ssZZZZZ";
 
     public static Map<String, Object> toMap(JSONObject jsonobj) throws JSONException {
-        Map<String, Object> map = new HashMap<String, Object>();
+        Map<String, Object> map = new HashMap<String, Object>(capacityFor(jsonobj.length()));
         Iterator<String> keys = jsonobj.keys();
         while (keys.hasNext()) {
             String key = keys.next();
@@ -52,7 +49,7 @@ public class PushIOManagerPluginUtils {
     }
 
     public static Map<String, String> toMapStr(JSONObject jsonobj) throws JSONException {
-        Map<String, String> map = new HashMap<>();
+        Map<String, String> map = new HashMap<>(capacityFor(jsonobj.length()));
         Iterator<String> keys = jsonobj.keys();
         while (keys.hasNext()) {
             String key = keys.next();
@@ -63,7 +60,7 @@ public class PushIOManagerPluginUtils {
     }
 
     public static List<Object> toList(JSONArray array) throws JSONException {
-        List<Object> list = new ArrayList<Object>();
+        List<Object> list = new ArrayList<Object>(array.length());
         for (int i = 0; i < array.length(); i++) {
             Object value = array.get(i);
             if (value instanceof JSONArray) {
@@ -76,36 +73,18 @@ public class PushIOManagerPluginUtils {
         return list;
     }
 
+    private static int capacityFor(int entries) {
+        return entries * 4 / 3 + 1;
+    }
+
     static JSONArray preferencesAsJsonArray(List<PushIOPreference> preferences) {
         JSONArray preferencesJsonArray = new JSONArray();
 
         if (preferences != null) {
             try {
                 for (PushIOPreference preference : preferences) {
-                    JSONObject preferenceObj = new JSONObject();
-                    preferenceObj.put("key", preference.getKey());
-                    preferenceObj.put("label", preference.getLabel());
-
-                    final PushIOPreference.Type type = preference.getType();
-                    final Object value = preference.getValue();
-
-                    if (type == PushIOPreference.Type.STRING) {
-                        preferenceObj.put("value", String.valueOf(value));
-
-                    } else if (type == PushIOPreference.Type.NUMBER) {
-
-                        if (value instanceof Double) {
-                            preferenceObj.put("value", (Double) value);
-                        } else if (value instanceof Integer) {
-                            preferenceObj.put("value", (Integer) value);
-                        }
-
-                    } else if (type == PushIOPreference.Type.BOOLEAN) {
-                        preferenceObj.put("value", (Boolean) value);
-                    }
-
-                    preferenceObj.put("type", type.toString());
-                    preferencesJsonArray.put(preferenceObj);
+                    preferencesJsonArray.put(preferenceAsJson(preference.getKey(), preference.getLabel(),
+                            preference.getType(), preference.getValue()));
                 }
 
             } catch (JSONException e) {
@@ -116,89 +95,132 @@ public class PushIOManagerPluginUtils {
         return preferencesJsonArray;
     }
 
-    public static PIOGeoRegion geoRegionFromJsonArray(JSONArray jsonArray, PIORegionEventType type) {
-        PIOGeoRegion geoRegion = new PIOGeoRegion();
+    static JSONObject preferenceAsJson(String key, String label, PushIOPreference.Type type, Object value)
+            throws JSONException {
+        JSONObject preferenceObj = new JSONObject();
+        preferenceObj.put("key", key);
+        preferenceObj.put("label", label);
 
-        if (jsonArray != null) {
-            JSONObject geoRegionJSONObj = jsonArray.optJSONObject(0);
+        if (type == PushIOPreference.Type.STRING) {
+            preferenceObj.put("value", String.valueOf(value));
 
-            String geofenceId = geoRegionJSONObj.optString("geofenceId");
-            String geofenceName = geoRegionJSONObj.optString("geofenceName");
+        } else if (type == PushIOPreference.Type.NUMBER) {
 
-            if (TextUtils.isEmpty(geofenceId) || TextUtils.isEmpty(geofenceName)) {
-                return null;
+            if (value instanceof Double) {
+                preferenceObj.put("value", (Double) value);
+            } else if (value instanceof Integer) {
+                preferenceObj.put("value", (Integer) value);
             }
 
-            geoRegion.setGeofenceId(geofenceId);
-            geoRegion.setGeofenceName(geofenceName);
-            geoRegion.setRegionEventType(type);
-            geoRegion.setZoneName(geoRegionJSONObj.optString("zoneName"));
-            geoRegion.setZoneId(geoRegionJSONObj.optString("zoneId"));
-            geoRegion.setSource(geoRegionJSONObj.optString("source"));
-            geoRegion.setDeviceBearing(geoRegionJSONObj.optDouble("deviceBearing"));
-            geoRegion.setDeviceSpeed(geoRegionJSONObj.optDouble("deviceSpeed"));
-            geoRegion.setDwellTime(geoRegionJSONObj.optInt("dwellTime"));
-
-            if (geoRegionJSONObj.optJSONObject("extra") != null) {
-                JSONObject extraData = geoRegionJSONObj.optJSONObject("extra");
-                Iterator<String> keys = extraData.keys();
-                Map<String, String> customParams = new HashMap<>();
-                while (keys.hasNext()) {
-                    String key = keys.next();
-                    customParams.put(key, extraData.optString(key));
-                }
+        } else if (type == PushIOPreference.Type.BOOLEAN) {
+            preferenceObj.put("value", (Boolean) value);
+        }
 
-                geoRegion.setExtra(customParams);
+        preferenceObj.put("type", type.toString());
+        return preferenceObj;
+    }
+
+    public static PIOGeoRegion geoRegionFromJsonArray(JSONArray jsonArray, PIORegionEventType type) {
+        if (jsonArray == null) {
+            return new PIOGeoRegion();
+        }
+        return geoRegionFromJson(jsonArray.optJSONObject(0), type);
+    }
+
+    /**
+     * Returns null if the object is null or the geofence ID or name is missing.
+     */
+    static PIOGeoRegion geoRegionFromJson(JSONObject geoRegionJSONObj, PIORegionEventType type) {
+        if (geoRegionJSONObj == null) {
+            return null;
+        }
+
+        String geofenceId = geoRegionJSONObj.optString("geofenceId");
+        String geofenceName = geoRegionJSONObj.optString("geofenceName");
+
+        if (TextUtils.isEmpty(geofenceId) || TextUtils.isEmpty(geofenceName)) {
+            return null;
+        }
+
+        PIOGeoRegion geoRegion = new PIOGeoRegion();
+        geoRegion.setGeofenceId(geofenceId);
+        geoRegion.setGeofenceName(geofenceName);
+        geoRegion.setRegionEventType(type);
+        geoRegion.setZoneName(geoRegionJSONObj.optString("zoneName"));
+        geoRegion.setZoneId(geoRegionJSONObj.optString("zoneId"));
+        geoRegion.setSource(geoRegionJSONObj.optString("source"));
+        geoRegion.setDeviceBearing(geoRegionJSONObj.optDouble("deviceBearing"));
+        geoRegion.setDeviceSpeed(geoRegionJSONObj.optDouble("deviceSpeed"));
+        geoRegion.setDwellTime(geoRegionJSONObj.optInt("dwellTime"));
+
+        if (geoRegionJSONObj.optJSONObject("extra") != null) {
+            JSONObject extraData = geoRegionJSONObj.optJSONObject("extra");
+            Iterator<String> keys = extraData.keys();
+            Map<String, String> customParams = new HashMap<>();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                customParams.put(key, extraData.optString(key));
             }
+
+            geoRegion.setExtra(customParams);
         }
         return geoRegion;
 
     }
 
     public static PIOBeaconRegion beaconRegionFromJsonArray(JSONArray jsonArray, PIORegionEventType type) {
-        PIOBeaconRegion region = new PIOBeaconRegion();
+        if (jsonArray == null) {
+            return new PIOBeaconRegion();
+        }
+        return beaconRegionFromJson(jsonArray.optJSONObject(0), type);
+    }
 
-        if (jsonArray != null) {
-            JSONObject beaconRegionJSONObj = jsonArray.optJSONObject(0);
+    /**
+     * Returns null if the object is null or the beacon ID or name is missing.
+     */
+    static PIOBeaconRegion beaconRegionFromJson(JSONObject beaconRegionJSONObj, PIORegionEventType type) {
+        if (beaconRegionJSONObj == null) {
+            return null;
+        }
 
-            String beaconId = beaconRegionJSONObj.optString("beaconId");
-            String beaconName = beaconRegionJSONObj.optString("beaconName");
+        String beaconId = beaconRegionJSONObj.optString("beaconId");
+        String beaconName = beaconRegionJSONObj.optString("beaconName");
 
-            if (TextUtils.isEmpty(beaconId) || TextUtils.isEmpty(beaconName)) {
-                return null;
-            }
+        if (TextUtils.isEmpty(beaconId) || TextUtils.isEmpty(beaconName)) {
+            return null;
+        }
 
-            region.setBeaconId(beaconId);
-            region.setBeaconName(beaconName);
-
-            region.setBeaconTag(beaconRegionJSONObj.optString("beaconTag"));
-            region.setBeaconProximity(beaconRegionJSONObj.optString("beaconProximity"));
-            region.setiBeaconUUID(beaconRegionJSONObj.optString("iBeaconUUID"));
-            region.setiBeaconMajor(beaconRegionJSONObj.optInt("iBeaconMajor"));
-            region.setiBeaconMinor(beaconRegionJSONObj.optInt("iBeaconMinor"));
-            region.setEddyStoneID1(beaconRegionJSONObj.optString("eddyStoneId1"));
-            region.setEddyStoneID2(beaconRegionJSONObj.optString("eddyStoneId2"));
-
-            region.setRegionEventType(type);
-            region.setZoneName(beaconRegionJSONObj.optString("zoneName"));
-            region.setZoneId(beaconRegionJSONObj.optString("zoneId"));
-            region.setSource(beaconRegionJSONObj.optString("source"));
-            region.setDwellTime(beaconRegionJSONObj.optInt("dwellTime"));
-
-            if (beaconRegionJSONObj.optJSONObject("extra") != null) {
-                JSONObject extraData = beaconRegionJSONObj.optJSONObject("extra");
-                if (extraData != null) {
-                    Iterator<String> keys = extraData.keys();
-                    Map<String, String> customParams = new HashMap<>();
-                    while (keys.hasNext()) {
-                        String key = keys.next();
-                        customParams.put(key, extraData.optString(key));
-                    }
-                    region.setExtra(customParams);
+        PIOBeaconRegion region = new PIOBeaconRegion();
+        region.setBeaconId(beaconId);
+        region.setBeaconName(beaconName);
+
+        region.setBeaconTag(beaconRegionJSONObj.optString("beaconTag"));
+        region.setBeaconProximity(beaconRegionJSONObj.optString("beaconProximity"));
+        region.setiBeaconUUID(beaconRegionJSONObj.optString("iBeaconUUID"));
+        region.setiBeaconMajor(beaconRegionJSONObj.optInt("iBeaconMajor"));
+        region.setiBeaconMinor(beaconRegionJSONObj.optInt("iBeaconMinor"));
+        region.setEddyStoneID1(beaconRegionJSONObj.optString("eddyStoneId1"));
+        region.setEddyStoneID2(beaconRegionJSONObj.optString("eddyStoneId2"));
+
+        region.setRegionEventType(type);
+        region.setZoneName(beaconRegionJSONObj.optString("zoneName"));
+        region.setZoneId(beaconRegionJSONObj.optString("zoneId"));
+        region.setSource(beaconRegionJSONObj.optString("source"));
+        region.setDwellTime(beaconRegionJSONObj.optInt("dwellTime"));
+
+        if (beaconRegionJSONObj.optJSONObject("extra") != null) {
+            JSONObject extraData = beaconRegionJSONObj.optJSONObject("extra");
+            if (extraData != null) {
+                Iterator<String> keys = extraData.keys();
+                Map<String, String> customParams = new HashMap<>();
+                while (keys.hasNext()) {
+                    String key = keys.next();
+                    customParams.put(key, extraData.optString(key));
                 }
+                region.setExtra(customParams);
             }
-
         }
+
         return region;
 
     }
@@ -231,8 +253,13 @@ public class PushIOManagerPluginUtils {
         }
     }
 
-    static PIOInteractiveNotificationCategory notificationCategoryFromJsonArray(JSONArray jsonArray) {
-        final JSONObject object = jsonArray.optJSONObject(0);
+    /**
+     * Returns null if the object is null, or the category ID or buttons are missing.
+     */
+    static PIOInteractiveNotificationCategory notificationCategoryFromJson(JSONObject object) {
+        if (object == null) {
+            return null;
+        }
         String category = object.optString("orcl_category");
         JSONArray btnArray = object.optJSONArray("orcl_btns");
 
@@ -257,23 +284,103 @@ public class PushIOManagerPluginUtils {
         return notificationCategory;
     }
 
+    /**
+     * Builds a {@link RemoteMessage} from a parsed JS {@code RemoteMessage}. Data values
+     * that are not strings are passed as their JSON text, as FCM delivers them.
+     * Returns null if the message or its {@code to} is missing.
+     */
+    @SuppressWarnings("unchecked")
+    static RemoteMessage remoteMessageFromMap(Map<String, Object> message) {
+        if (message == null) {
+            return null;
+        }
+        final String to = stringValue(message.get("to"));
+        if (TextUtils.isEmpty(to)) {
+            return null;
+        }
+
+        RemoteMessage.Builder builder = new RemoteMessage.Builder(to);
+        final String messageId = stringValue(message.get("messageId"));
+        if (!TextUtils.isEmpty(messageId)) {
+            builder.setMessageId(messageId);
+        }
+        final String messageType = stringValue(message.get("messageType"));
+        if (!TextUtils.isEmpty(messageType)) {
+            builder.setMessageType(messageType);
+        }
+        final String collapseKey = stringValue(message.get("collapseKey"));
+        if (!TextUtils.isEmpty(collapseKey)) {
+            builder.setCollapseKey(collapseKey);
+        }
+        final Object ttl = message.get("ttl");
+        if (ttl instanceof Number) {
+            builder.setTtl(((Number) ttl).intValue());
+        } else if (ttl instanceof String && !TextUtils.isEmpty((String) ttl)) {
+            try {
+                builder.setTtl(Integer.parseInt((String) ttl));
+            } catch (NumberFormatException e) {
+                Log.v(TAG, "Exception: " + e.getMessage());
+            }
+        }
+
+        final Object data = message.get("data");
+        if (data instanceof Map) {
+            final Map<String, Object> dataMap = (Map<String, Object>) data;
+            Map<String, String> stringData = new HashMap<>(capacityFor(dataMap.size()));
+            for (Map.Entry<String, Object> entry : dataMap.entrySet()) {
+                final String value = stringValue(entry.getValue());
+                if (value != null) {
+                    stringData.put(entry.getKey(), value);
+                }
+            }
+            builder.setData(stringData);
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String stringValue(Object value) {
+        if (value == null || value == JSONObject.NULL) {
+            return null;
+        } else if (value instanceof Map) {
+            return new JSONObject((Map<String, Object>) value).toString();
+        } else if (value instanceof List) {
+            return new JSONArray((List<Object>) value).toString();
+        }
+        return String.valueOf(value);
+    }
+
     static JSONArray messageCenterMessagesAsJSONArray(List<PIOMCMessage> messages) {
+        return messageCenterMessagesAsJSONArray(messages, 0, (messages != null) ? messages.size() : 0, null);
+    }
+
+    /**
+     * Converts {@code messages[from, to)} to JSON. If {@code fields} is not null,
+     * only the listed fields are included, e.g. to leave out {@code richMessageHTML}.
+     */
+    static JSONArray messageCenterMessagesAsJSONArray(List<PIOMCMessage> messages, int from, int to,
+            Set<String> fields) {
         JSONArray messagesAsJson = new JSONArray();
 
         try {
-            if (messages != null && !messages.isEmpty()) {
-                for (PIOMCMessage message : messages) {
+            if (messages != null) {
+                for (int i = from; i < to; i++) {
+                    PIOMCMessage message = messages.get(i);
                     JSONObject messageAsJson = new JSONObject();
-                    messageAsJson.put("messageID", message.getId());
-                    messageAsJson.put("subject", message.getSubject());
-                    messageAsJson.put("message", message.getMessage());
-                    messageAsJson.put("iconURL", message.getIconUrl());
-                    messageAsJson.put("messageCenterName", message.getMessageCenterName());
-                    messageAsJson.put("deeplinkURL", message.getDeeplinkUrl());
-                    messageAsJson.put("richMessageHTML", message.getRichMessageHtml());
-                    messageAsJson.put("richMessageURL", message.getRichMessageUrl());
-                    messageAsJson.put("sentTimestamp", getDateAsString(message.getSentTimestamp()));
-                    messageAsJson.put("expiryTimestamp", getDateAsString(message.getExpiryTimestamp()));
+                    putField(messageAsJson, fields, "messageID", message.getId());
+                    putField(messageAsJson, fields, "subject", message.getSubject());
+                    putField(messageAsJson, fields, "message", message.getMessage());
+                    putField(messageAsJson, fields, "iconURL", message.getIconUrl());
+                    putField(messageAsJson, fields, "messageCenterName", message.getMessageCenterName());
+                    putField(messageAsJson, fields, "deeplinkURL", message.getDeeplinkUrl());
+                    putField(messageAsJson, fields, "richMessageHTML", message.getRichMessageHtml());
+                    putField(messageAsJson, fields, "richMessageURL", message.getRichMessageUrl());
+                    if (fields == null || fields.contains("sentTimestamp")) {
+                        messageAsJson.put("sentTimestamp", getDateAsString(message.getSentTimestamp()));
+                    }
+                    if (fields == null || fields.contains("expiryTimestamp")) {
+                        messageAsJson.put("expiryTimestamp", getDateAsString(message.getExpiryTimestamp()));
+                    }
 
                     messagesAsJson.put(messageAsJson);
                 }
@@ -285,13 +392,15 @@ public class PushIOManagerPluginUtils {
         return messagesAsJson;
     }
 
-    private static String getDateAsString(Date date) {
-        if (date != null) {
-            DateFormat df = new SimpleDateFormat(DATE_FORMAT_ISO8601, Locale.getDefault());
-            df.setTimeZone(TimeZone.getDefault());
-            return df.format(date);
+    private static void putField(JSONObject jsonObject, Set<String> fields, String name, String value)
+            throws JSONException {
+        if (fields == null || fields.contains(name)) {
+            jsonObject.put(name, value);
         }
-        return null;
+    }
+
+    private static String getDateAsString(Date date) {
+        return PushIODateFormatter.format(date);
     }
 
 }
@@ -0,0 +1,119 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.os.SystemClock;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serialized results of {@code fetchMessagesForMessageCenter}, per message center.
+ *
+ * <p>An entry younger than the TTL is served as is. Up to {@code staleMs} past
+ * the TTL it is still served, but the caller should refresh it in the
+ * background (stale-while-revalidate); after that it is a miss. A TTL of 0
+ * disables the cache.
+ *
+ * <p>{@link #invalidateAll()} bumps a generation counter, so a fetch that was
+ * already running when the cache was invalidated does not store its result.
+ */
+class PushIOMessageCenterCache {
+    static final int DEFAULT_TTL_MS = 30 * 1000;
+    static final int DEFAULT_STALE_MS = 5 * 60 * 1000;
+
+    static class Entry {
+        final String messagesJson;
+        final long fetchedAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(String messagesJson, long fetchedAt) {
+            this.messagesJson = messagesJson;
+            this.fetchedAt = fetchedAt;
+        }
+
+        long age() {
+            return SystemClock.elapsedRealtime() - fetchedAt;
+        }
+    }
+
+    private final long mTtlMs;
+    private final long mStaleMs;
+    private final ConcurrentHashMap<String, Entry> mEntries = new ConcurrentHashMap<>();
+    private final AtomicLong mGeneration = new AtomicLong();
+
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mStaleHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+    private final AtomicLong mInvalidations = new AtomicLong();
+
+    PushIOMessageCenterCache(long ttlMs, long staleMs) {
+        mTtlMs = Math.max(0, ttlMs);
+        mStaleMs = Math.max(0, staleMs);
+    }
+
+    /**
+     * Returns the cached entry for the message center, or null on a miss.
+     */
+    Entry get(String messageCenter) {
+        final Entry entry = (mTtlMs > 0) ? mEntries.get(messageCenter) : null;
+        if (entry == null) {
+            mMisses.incrementAndGet();
+            return null;
+        }
+
+        final long age = entry.age();
+        if (age <= mTtlMs) {
+            mHits.incrementAndGet();
+            return entry;
+        }
+        if (age <= mTtlMs + mStaleMs) {
+            mStaleHits.incrementAndGet();
+            return entry;
+        }
+
+        mEntries.remove(messageCenter, entry);
+        mMisses.incrementAndGet();
+        return null;
+    }
+
+    boolean isStale(Entry entry) {
+        return entry.age() > mTtlMs;
+    }
+
+    /**
+     * Returns the generation to pass to {@link #put} for a fetch starting now.
+     */
+    long generation() {
+        return mGeneration.get();
+    }
+
+    void put(String messageCenter, String messagesJson, long generation) {
+        if (mTtlMs > 0 && generation == mGeneration.get()) {
+            mEntries.put(messageCenter, new Entry(messagesJson, SystemClock.elapsedRealtime()));
+        }
+    }
+
+    void invalidateAll() {
+        mGeneration.incrementAndGet();
+        mEntries.clear();
+        mInvalidations.incrementAndGet();
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("entries", mEntries.size());
+        jsonObject.put("hits", mHits.get());
+        jsonObject.put("staleHits", mStaleHits.get());
+        jsonObject.put("misses", mMisses.get());
+        jsonObject.put("invalidations", mInvalidations.get());
+        return jsonObject;
+    }
+}
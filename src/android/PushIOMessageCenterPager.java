@@ -0,0 +1,159 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import com.pushio.manager.PIOMCMessage;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Splits a message center's messages into pages for
+ * {@code fetchMessagesForMessageCenterPaged}.
+ *
+ * <p>The first page of a message center is always fetched from the SDK, and the
+ * fetched list is kept as a snapshot that later pages are cut from. Cursors have
+ * the form {@code <offset>:<last message ID>}; if the snapshot changed in the
+ * meantime, the page continues after that message ID wherever it now is.
+ */
+class PushIOMessageCenterPager {
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final ConcurrentHashMap<String, List<PIOMCMessage>> mSnapshots = new ConcurrentHashMap<>();
+
+    private final AtomicLong mPages = new AtomicLong();
+    private final AtomicLong mFirstPages = new AtomicLong();
+    private final AtomicLong mTotalFirstPageNanos = new AtomicLong();
+    private final AtomicLong mMaxFirstPageNanos = new AtomicLong();
+    private final AtomicLong mMaxPageChars = new AtomicLong();
+
+    static int pageSizeFor(int requested) {
+        if (requested <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+
+    List<PIOMCMessage> snapshot(String messageCenter) {
+        return mSnapshots.get(messageCenter);
+    }
+
+    void setSnapshot(String messageCenter, List<PIOMCMessage> messages) {
+        if (messageCenter != null) {
+            mSnapshots.put(messageCenter, (messages != null)
+                    ? Collections.unmodifiableList(new ArrayList<>(messages))
+                    : Collections.<PIOMCMessage>emptyList());
+        }
+    }
+
+    void invalidateAll() {
+        mSnapshots.clear();
+    }
+
+    /**
+     * Returns the index of the first message after {@code cursor}, or -1 if the
+     * cursor is malformed. A null cursor starts at the first message.
+     */
+    static int offsetFor(List<PIOMCMessage> messages, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+
+        final int separator = cursor.indexOf(':');
+        if (separator <= 0) {
+            return -1;
+        }
+
+        final int offset;
+        try {
+            offset = Integer.parseInt(cursor.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (offset < 0) {
+            return -1;
+        }
+
+        final String lastMessageId = cursor.substring(separator + 1);
+        if (offset > 0 && offset <= messages.size() && lastMessageId.equals(messages.get(offset - 1).getId())) {
+            return offset;
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            if (lastMessageId.equals(messages.get(i).getId())) {
+                return i + 1;
+            }
+        }
+        return Math.min(offset, messages.size());
+    }
+
+    /**
+     * Serializes {@code messages[from, from + pageSize)} as a page:
+     * {@code {messageCenter, messages, total, nextCursor, done}}.
+     */
+    static String pageJson(String messageCenter, List<PIOMCMessage> messages, int from, int pageSize,
+            Set<String> fields) {
+        final int to = Math.min(from + pageSize, messages.size());
+        final boolean done = to >= messages.size();
+
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"messageCenter\":").append(JSONObject.quote(messageCenter));
+        json.append(",\"messages\":")
+                .append(PushIOManagerPluginUtils.messageCenterMessagesAsJSONArray(messages, from, to, fields).toString());
+        json.append(",\"total\":").append(messages.size());
+        json.append(",\"nextCursor\":");
+        if (done) {
+            json.append("null");
+        } else {
+            json.append(JSONObject.quote(to + ":" + messages.get(to - 1).getId()));
+        }
+        json.append(",\"done\":").append(done).append('}');
+        return json.toString();
+    }
+
+    /**
+     * @param startedAt {@link System#nanoTime()} when the request arrived, for the
+     *                  first page of a request; -1 for later pages.
+     */
+    void recordPage(int chars, long startedAt) {
+        mPages.incrementAndGet();
+
+        long max = mMaxPageChars.get();
+        while (chars > max && !mMaxPageChars.compareAndSet(max, chars)) {
+            max = mMaxPageChars.get();
+        }
+
+        if (startedAt >= 0) {
+            final long nanos = System.nanoTime() - startedAt;
+            mFirstPages.incrementAndGet();
+            mTotalFirstPageNanos.addAndGet(nanos);
+
+            max = mMaxFirstPageNanos.get();
+            while (nanos > max && !mMaxFirstPageNanos.compareAndSet(max, nanos)) {
+                max = mMaxFirstPageNanos.get();
+            }
+        }
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        final long firstPages = mFirstPages.get();
+
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("snapshots", mSnapshots.size());
+        jsonObject.put("pages", mPages.get());
+        jsonObject.put("maxPageChars", mMaxPageChars.get());
+        jsonObject.put("avgTimeToFirstPageMs", firstPages > 0 ? mTotalFirstPageNanos.get() / firstPages / 1e6 : 0);
+        jsonObject.put("maxTimeToFirstPageMs", mMaxFirstPageNanos.get() / 1e6);
+        return jsonObject;
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.pushio.manager.PIOInteractiveNotificationCategory;
+import com.pushio.manager.PushIOManager;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Plugin-side view of the interactive notification categories registered with the SDK.
+ *
+ * <p>Each category is kept with its serialized JSON, so reads are answered
+ * without rebuilding it. A category that is added again unchanged, as apps do
+ * on every launch, is not written to the SDK again; a category not seen in this
+ * process is first looked up in the SDK to find out. The IDs of registered
+ * categories are kept in {@link SharedPreferences}, because the SDK has no call
+ * to list them.
+ */
+class PushIONotificationCategoryRegistry {
+    private static final String TAG = "pushio-cordova";
+
+    private static final String PREFS_NAME = "pushio-cordova-categories";
+    private static final String PREFS_KEY = "ids";
+
+    private final PushIOManager mPushIOManager;
+    private final Context mContext;
+
+    /** Category ID to serialized category; null until the category is read from the SDK. */
+    private final Map<String, String> mCategories = new LinkedHashMap<>();
+    private boolean mIdsLoaded;
+    private String mAllJson;
+
+    private long mWrites;
+    private long mSkippedWrites;
+    private long mLookups;
+
+    PushIONotificationCategoryRegistry(PushIOManager pushIOManager, Context context) {
+        mPushIOManager = pushIOManager;
+        mContext = context;
+    }
+
+    /**
+     * Adds the categories to the SDK, skipping those it already has unchanged.
+     *
+     * @return {@code {added: [id], updated: [id], unchanged: [id], invalid: [index]}}
+     */
+    synchronized JSONObject addAll(JSONArray categories) throws JSONException {
+        ensureIdsLoaded();
+
+        JSONArray added = new JSONArray();
+        JSONArray updated = new JSONArray();
+        JSONArray unchanged = new JSONArray();
+        JSONArray invalid = new JSONArray();
+        boolean changed = false;
+
+        for (int i = 0; i < categories.length(); i++) {
+            PIOInteractiveNotificationCategory category = PushIOManagerPluginUtils.notificationCategoryFromJson(
+                    categories.optJSONObject(i));
+            JSONObject categoryJson = (category != null)
+                    ? PushIOManagerPluginUtils.notificationCategoryAsJson(category) : null;
+            if (categoryJson == null) {
+                invalid.put(i);
+                continue;
+            }
+
+            final String id = category.getCategory();
+            final String json = categoryJson.toString();
+            final String current = lookup(id);
+            if (json.equals(current)) {
+                unchanged.put(id);
+                mSkippedWrites++;
+                continue;
+            }
+
+            mPushIOManager.addInteractiveNotificationCategory(category);
+            mWrites++;
+            mCategories.put(id, json);
+            changed = true;
+            if (current == null) {
+                added.put(id);
+            } else {
+                updated.put(id);
+            }
+        }
+
+        if (changed) {
+            onChanged();
+        }
+
+        JSONObject result = new JSONObject();
+        result.put("added", added);
+        result.put("updated", updated);
+        result.put("unchanged", unchanged);
+        result.put("invalid", invalid);
+        return result;
+    }
+
+    /**
+     * @return the serialized category, or null if the SDK does not have it.
+     */
+    synchronized String get(String id) {
+        ensureIdsLoaded();
+        return lookup(id);
+    }
+
+    /**
+     * @return a JSON array of every registered category, in the order they were first added.
+     */
+    synchronized String getAll() {
+        ensureIdsLoaded();
+        if (mAllJson != null) {
+            return mAllJson;
+        }
+
+        StringBuilder json = new StringBuilder("[");
+        for (String id : mCategories.keySet().toArray(new String[0])) {
+            String categoryJson = lookup(id);
+            if (categoryJson != null) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append(categoryJson);
+            }
+        }
+        mAllJson = json.append(']').toString();
+        return mAllJson;
+    }
+
+    synchronized void delete(String id) {
+        ensureIdsLoaded();
+        mPushIOManager.deleteInteractiveNotificationCategory(id);
+        if (mCategories.containsKey(id)) {
+            mCategories.remove(id);
+            onChanged();
+        }
+    }
+
+    synchronized void clear() {
+        mPushIOManager.clearInteractiveNotificationCategories();
+        mCategories.clear();
+        mIdsLoaded = true;
+        onChanged();
+    }
+
+    synchronized JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("categories", mCategories.size());
+        jsonObject.put("writes", mWrites);
+        jsonObject.put("skippedWrites", mSkippedWrites);
+        jsonObject.put("lookups", mLookups);
+        return jsonObject;
+    }
+
+    /**
+     * Serialized category from the registry, or from the SDK if this process has
+     * not seen it yet.
+     */
+    private String lookup(String id) {
+        String json = mCategories.get(id);
+        if (json != null) {
+            return json;
+        }
+
+        mLookups++;
+        final boolean known = mCategories.containsKey(id);
+        PIOInteractiveNotificationCategory category = mPushIOManager.getInteractiveNotificationCategory(id);
+        JSONObject categoryJson = (category != null)
+                ? PushIOManagerPluginUtils.notificationCategoryAsJson(category) : null;
+        if (categoryJson == null) {
+            if (known) {
+                mCategories.remove(id);
+                onChanged();
+            }
+            return null;
+        }
+
+        json = categoryJson.toString();
+        mCategories.put(id, json);
+        if (!known) {
+            onChanged();
+        }
+        return json;
+    }
+
+    private void onChanged() {
+        mAllJson = null;
+
+        JSONArray ids = new JSONArray();
+        for (Map.Entry<String, String> entry : mCategories.entrySet()) {
+            ids.put(entry.getKey());
+        }
+        prefs().edit().putString(PREFS_KEY, ids.toString()).apply();
+    }
+
+    /**
+     * Seeds the registry with the IDs registered in earlier processes; their
+     * categories are read from the SDK when first needed.
+     */
+    private void ensureIdsLoaded() {
+        if (mIdsLoaded) {
+            return;
+        }
+        mIdsLoaded = true;
+
+        final String json = prefs().getString(PREFS_KEY, null);
+        if (TextUtils.isEmpty(json)) {
+            return;
+        }
+        try {
+            JSONArray ids = new JSONArray(json);
+            for (int i = 0; i < ids.length(); i++) {
+                String id = ids.optString(i);
+                if (!TextUtils.isEmpty(id) && !mCategories.containsKey(id)) {
+                    mCategories.put(id, null);
+                }
+            }
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+        }
+    }
+
+    private SharedPreferences prefs() {
+        return mContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaWebView;
+import org.apache.cordova.PluginResult;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-action call counts and latencies of the plugin bridge.
+ *
+ * <p>Each call is timed at three points, relative to when {@code execute}
+ * queued it: when its handler starts ({@code wait}), when the handler returns
+ * ({@code handler}), and when the first result is sent to JS ({@code callback}).
+ * Latencies go into log2 histograms, so recording a call costs a few atomic
+ * increments and no allocation beyond the {@link TrackedCallbackContext}.
+ */
+class PushIOPluginMetrics {
+    private final ConcurrentHashMap<String, ActionStats> mActions = new ConcurrentHashMap<>();
+    private final AtomicLong mUnknownActions = new AtomicLong();
+
+    /**
+     * Wraps the callback context of a call to {@code action}, starting its clock.
+     */
+    TrackedCallbackContext track(String action, CallbackContext callbackContext, CordovaWebView webView) {
+        ActionStats stats = mActions.get(action);
+        if (stats == null) {
+            ActionStats newStats = new ActionStats();
+            stats = mActions.putIfAbsent(action, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        stats.calls.incrementAndGet();
+        return new TrackedCallbackContext(callbackContext, webView, stats);
+    }
+
+    void recordUnknownAction() {
+        mUnknownActions.incrementAndGet();
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        JSONObject actions = new JSONObject();
+        for (Map.Entry<String, ActionStats> entry : mActions.entrySet()) {
+            actions.put(entry.getKey(), entry.getValue().asJson());
+        }
+
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("actions", actions);
+        jsonObject.put("unknownActions", mUnknownActions.get());
+        return jsonObject;
+    }
+
+    /**
+     * Forwards results to the original callback context and records when the first
+     * one was sent and whether the call failed.
+     */
+    static class TrackedCallbackContext extends CallbackContext {
+        private final CallbackContext mDelegate;
+        private final ActionStats mStats;
+        private final long mEnqueuedAt = System.nanoTime();
+        private long mStartedAt;
+        private final AtomicBoolean mResultSent = new AtomicBoolean();
+
+        TrackedCallbackContext(CallbackContext delegate, CordovaWebView webView, ActionStats stats) {
+            super(delegate.getCallbackId(), webView);
+            mDelegate = delegate;
+            mStats = stats;
+        }
+
+        void onStart() {
+            mStartedAt = System.nanoTime();
+            mStats.wait.record(mStartedAt - mEnqueuedAt);
+        }
+
+        void onHandlerReturned() {
+            mStats.handler.record(System.nanoTime() - mStartedAt);
+        }
+
+        void onException() {
+            mStats.exceptions.incrementAndGet();
+        }
+
+        void onRejected() {
+            mStats.rejected.incrementAndGet();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return mDelegate.isFinished();
+        }
+
+        @Override
+        public void sendPluginResult(PluginResult pluginResult) {
+            if (mResultSent.compareAndSet(false, true)) {
+                mStats.callback.record(System.nanoTime() - mEnqueuedAt);
+                if (pluginResult.getStatus() != PluginResult.Status.OK.ordinal()
+                        && pluginResult.getStatus() != PluginResult.Status.NO_RESULT.ordinal()) {
+                    mStats.errors.incrementAndGet();
+                }
+            }
+            mDelegate.sendPluginResult(pluginResult);
+        }
+    }
+
+    private static class ActionStats {
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong exceptions = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final PushIOLatencyHistogram wait = new PushIOLatencyHistogram();
+        final PushIOLatencyHistogram handler = new PushIOLatencyHistogram();
+        final PushIOLatencyHistogram callback = new PushIOLatencyHistogram();
+
+        JSONObject asJson() throws JSONException {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("calls", calls.get());
+            jsonObject.put("errors", errors.get());
+            jsonObject.put("exceptions", exceptions.get());
+            jsonObject.put("rejected", rejected.get());
+            jsonObject.put("wait", wait.asJson());
+            jsonObject.put("handler", handler.asJson());
+            jsonObject.put("callback", callback.asJson());
+            return jsonObject;
+        }
+    }
+}
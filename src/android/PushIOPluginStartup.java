@@ -0,0 +1,230 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * When and where the plugin's heavy initialization (SDK instance, journal,
+ * caches, executors) runs, and how long each phase of it took.
+ *
+ * <p>Each phase is a {@link Trace} section named {@code PushIO:<phase>}, so it
+ * shows up in a system trace of the app launch. Time spent on the main thread
+ * is checked against a budget and logged when it is exceeded.
+ */
+class PushIOPluginStartup {
+    private static final String TAG = "pushio-cordova";
+
+    static final int DEFAULT_BUDGET_MS = 50;
+
+    enum Mode {
+        /** Everything runs in {@code initialize}, on the main thread. */
+        EAGER,
+        /** {@code initialize} starts the heavy part on a background thread. */
+        BACKGROUND,
+        /**
+         * The heavy part runs on a background thread once it is first needed: by a
+         * bridge call, or by an intent that may carry a deep link.
+         */
+        LAZY;
+
+        static Mode fromString(String value) {
+            if ("background".equalsIgnoreCase(value)) {
+                return BACKGROUND;
+            } else if ("lazy".equalsIgnoreCase(value)) {
+                return LAZY;
+            }
+            return EAGER;
+        }
+    }
+
+    private final Mode mMode;
+    private final long mBudgetMs;
+    private final long mCreatedAt = SystemClock.elapsedRealtime();
+
+    private final AtomicBoolean mStarted = new AtomicBoolean();
+    private final CountDownLatch mReadyLatch = new CountDownLatch(1);
+    private final List<Runnable> mOnReady = new ArrayList<>();
+    private volatile boolean mReady;
+    private long mReadyAt;
+
+    private final Map<String, Long> mPhases = new LinkedHashMap<>();
+    private long mMainThreadMs;
+    private final AtomicLong mWaitingCalls = new AtomicLong();
+
+    PushIOPluginStartup(Mode mode, long budgetMs) {
+        mMode = mode;
+        mBudgetMs = budgetMs;
+    }
+
+    Mode mode() {
+        return mMode;
+    }
+
+    boolean isReady() {
+        return mReady;
+    }
+
+    /**
+     * Runs {@code phase} in a trace section and records how long it took.
+     */
+    void runPhase(String name, Runnable phase) {
+        final long startedAt = SystemClock.elapsedRealtime();
+        Trace.beginSection("PushIO:" + name);
+        try {
+            phase.run();
+        } finally {
+            Trace.endSection();
+            final long elapsed = SystemClock.elapsedRealtime() - startedAt;
+            synchronized (mPhases) {
+                mPhases.put(name, elapsed);
+                if (Looper.myLooper() == Looper.getMainLooper()) {
+                    mMainThreadMs += elapsed;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs {@code init} once: inline in {@link Mode#EAGER}, otherwise on a new
+     * background thread. The plugin is ready once it returns.
+     */
+    void start(final Runnable init) {
+        if (!mStarted.compareAndSet(false, true)) {
+            return;
+        }
+
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    init.run();
+                } catch (RuntimeException e) {
+                    Log.v(TAG, "Exception: " + e.getMessage());
+                }
+                markReady();
+            }
+        };
+
+        if (mMode == Mode.EAGER) {
+            task.run();
+        } else {
+            new Thread(task, "pushio-init").start();
+        }
+    }
+
+    /**
+     * Blocks until the plugin is ready. Called on lane threads before an action
+     * runs, never on the main thread.
+     */
+    void awaitReady() {
+        if (mReady) {
+            return;
+        }
+
+        mWaitingCalls.incrementAndGet();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                mReadyLatch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs {@code task} now if the plugin is ready, otherwise right after it
+     * becomes ready, on the init thread. Tasks run in the order they were passed.
+     */
+    void whenReady(Runnable task) {
+        synchronized (mOnReady) {
+            if (!mReady) {
+                mOnReady.add(task);
+                return;
+            }
+        }
+        task.run();
+    }
+
+    private void markReady() {
+        while (true) {
+            final List<Runnable> tasks;
+            synchronized (mOnReady) {
+                if (mOnReady.isEmpty()) {
+                    mReadyAt = SystemClock.elapsedRealtime();
+                    mReady = true;
+                    break;
+                }
+                tasks = new ArrayList<>(mOnReady);
+                mOnReady.clear();
+            }
+            for (Runnable task : tasks) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    Log.v(TAG, "Exception: " + e.getMessage());
+                }
+            }
+        }
+        mReadyLatch.countDown();
+
+        final long mainThreadMs;
+        final String phases;
+        synchronized (mPhases) {
+            mainThreadMs = mMainThreadMs;
+            phases = mPhases.toString();
+        }
+        Log.v(TAG, "Plugin ready after " + (mReadyAt - mCreatedAt) + " ms, " + mainThreadMs
+                + " ms on the main thread: " + phases);
+        if (mBudgetMs > 0 && mainThreadMs > mBudgetMs) {
+            Log.v(TAG, "Plugin startup used " + mainThreadMs + " ms of the main thread, over the budget of "
+                    + mBudgetMs + " ms");
+        }
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        JSONObject phases = new JSONObject();
+        final long mainThreadMs;
+        synchronized (mPhases) {
+            for (Map.Entry<String, Long> entry : mPhases.entrySet()) {
+                phases.put(entry.getKey(), entry.getValue());
+            }
+            mainThreadMs = mMainThreadMs;
+        }
+
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("mode", mMode.name().toLowerCase());
+        jsonObject.put("ready", mReady);
+        if (mReady) {
+            jsonObject.put("readyAfterMs", mReadyAt - mCreatedAt);
+        }
+        jsonObject.put("mainThreadMs", mainThreadMs);
+        jsonObject.put("budgetMs", mBudgetMs);
+        jsonObject.put("overBudget", mBudgetMs > 0 && mainThreadMs > mBudgetMs);
+        jsonObject.put("phases", phases);
+        jsonObject.put("callsWaitedForInit", mWaitingCalls.get());
+        return jsonObject;
+    }
+}
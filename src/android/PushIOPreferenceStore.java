@@ -0,0 +1,425 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.util.Log;
+
+import com.pushio.manager.PushIOManager;
+import com.pushio.manager.exception.ValidationException;
+import com.pushio.manager.preferences.PushIOPreference;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The plugin's view of the SDK's preferences.
+ *
+ * <p>Reads are served from a snapshot that is loaded from the SDK on first use
+ * and kept up to date by every write made through the plugin. Each preference
+ * keeps its serialized JSON, and the JSON of the whole list is cached until the
+ * next change, so polling reads neither call the SDK nor build JSON. A key
+ * missing from the snapshot is looked up in the SDK once.
+ *
+ * <p>{@code setPreferences} writes are write-behind: values are checked against
+ * the declared type of their preference, values equal to the current one are
+ * skipped, and the rest are applied to the snapshot at once and held until
+ * {@link #flush()} hands them to the SDK together.
+ *
+ * <p>All methods except {@link #metricsAsJson()} are called on the preferences
+ * lane. Every action that writes to the SDK directly calls {@link #flush()}
+ * first, so the SDK sees writes in the order JS made them.
+ */
+class PushIOPreferenceStore {
+    private static final String TAG = "pushio-cordova";
+
+    /** Pending value that removes the preference. */
+    private static final Object REMOVED = new Object();
+
+    private static final class Declaration {
+        final String label;
+        final PushIOPreference.Type type;
+
+        Declaration(String label, PushIOPreference.Type type) {
+            this.label = label;
+            this.type = type;
+        }
+    }
+
+    private static final class Entry {
+        /** The value as returned by {@link #coerce}, for comparisons. */
+        final Object value;
+        final String json;
+
+        Entry(String key, Declaration declaration, Object value) throws JSONException {
+            this(key, declaration, value, value);
+        }
+
+        /**
+         * @param sdkValue the value as the SDK returns it, serialized the way
+         *                 {@code getPreferences} always has.
+         */
+        Entry(String key, Declaration declaration, Object value, Object sdkValue) throws JSONException {
+            this.value = value;
+            this.json = PushIOManagerPluginUtils.preferenceAsJson(key, declaration.label, declaration.type, sdkValue)
+                    .toString();
+        }
+    }
+
+    private final PushIOManager mPushIOManager;
+
+    private final Map<String, Declaration> mDeclarations = new HashMap<>();
+    private Map<String, Entry> mSnapshot;
+    private String mSnapshotJson;
+    /** Keys the SDK had no value for when last asked. */
+    private final Set<String> mMissing = new HashSet<>();
+
+    private final Map<String, Object> mPending = new LinkedHashMap<>();
+    private final AtomicBoolean mFlushScheduled = new AtomicBoolean();
+
+    private final AtomicLong mLoads = new AtomicLong();
+    private final AtomicLong mReads = new AtomicLong();
+    private final AtomicLong mReadThroughs = new AtomicLong();
+    private final AtomicLong mQueued = new AtomicLong();
+    private final AtomicLong mUnchanged = new AtomicLong();
+    private final AtomicLong mInvalid = new AtomicLong();
+    private final AtomicLong mFlushed = new AtomicLong();
+    private final AtomicLong mFlushes = new AtomicLong();
+    private final AtomicLong mFlushErrors = new AtomicLong();
+
+    PushIOPreferenceStore(PushIOManager pushIOManager) {
+        mPushIOManager = pushIOManager;
+    }
+
+    /**
+     * Returns the JSON of one preference, or null if the SDK has no value for it.
+     */
+    String preferenceJson(String key) {
+        ensureLoaded();
+        mReads.incrementAndGet();
+
+        Entry entry = mSnapshot.get(key);
+        if (entry == null) {
+            entry = readThrough(key);
+        }
+        return (entry != null) ? entry.json : null;
+    }
+
+    /**
+     * Returns the JSON array of all preferences.
+     */
+    String preferencesJson() {
+        ensureLoaded();
+        mReads.incrementAndGet();
+
+        if (mSnapshotJson == null) {
+            mSnapshotJson = joinJson(mSnapshot.values());
+        }
+        return mSnapshotJson;
+    }
+
+    /**
+     * Returns the JSON array of the preferences with the given keys that have a value.
+     */
+    String preferencesJson(Collection<String> keys) {
+        ensureLoaded();
+        mReads.incrementAndGet();
+
+        List<Entry> entries = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Entry entry = mSnapshot.get(key);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return joinJson(entries);
+    }
+
+    private static String joinJson(Collection<Entry> entries) {
+        int length = 2;
+        for (Entry entry : entries) {
+            length += entry.json.length() + 1;
+        }
+
+        StringBuilder json = new StringBuilder(length);
+        json.append('[');
+        for (Entry entry : entries) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(entry.json);
+        }
+        return json.append(']').toString();
+    }
+
+    void onDeclared(String key, String label, PushIOPreference.Type type) {
+        mDeclarations.put(key, new Declaration(label, type));
+        mMissing.remove(key);
+        if (mSnapshot != null) {
+            // A new declaration may change the label or type of the stored value.
+            refresh(key);
+        }
+    }
+
+    /**
+     * Validates the given values and queues the changed ones. A null value
+     * removes the preference.
+     *
+     * @return {@code {queued, unchanged, invalid: {key: reason}}}
+     */
+    JSONObject set(Map<String, Object> values) throws JSONException {
+        ensureLoaded();
+
+        int queued = 0;
+        int unchanged = 0;
+        JSONObject invalid = new JSONObject();
+
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            final String key = entry.getKey();
+            final Entry current = mSnapshot.get(key);
+            Object value = entry.getValue();
+
+            if (value == null || value == JSONObject.NULL) {
+                if (current == null && !mPending.containsKey(key)) {
+                    unchanged++;
+                    continue;
+                }
+                value = REMOVED;
+                putSnapshotEntry(key, null);
+            } else {
+                final Declaration declaration = declarationFor(key);
+                if (declaration == null) {
+                    invalid.put(key, "Preference not declared");
+                    continue;
+                }
+                value = coerce(declaration.type, value);
+                if (value == null) {
+                    invalid.put(key, "Expected a value of type " + declaration.type);
+                    continue;
+                }
+                if (current != null && value.equals(current.value)) {
+                    unchanged++;
+                    continue;
+                }
+                putSnapshotEntry(key, new Entry(key, declaration, value));
+            }
+
+            mPending.put(key, value);
+            queued++;
+        }
+
+        mQueued.addAndGet(queued);
+        mUnchanged.addAndGet(unchanged);
+        mInvalid.addAndGet(invalid.length());
+
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("queued", queued);
+        jsonObject.put("unchanged", unchanged);
+        jsonObject.put("invalid", invalid);
+        return jsonObject;
+    }
+
+    /**
+     * @return true if pending values are waiting and no flush is scheduled yet;
+     * the caller is then expected to schedule one.
+     */
+    boolean shouldScheduleFlush() {
+        return !mPending.isEmpty() && mFlushScheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Hands all pending values to the SDK.
+     */
+    void flush() {
+        mFlushScheduled.set(false);
+        if (mPending.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<String, Object> entry : mPending.entrySet()) {
+            final String key = entry.getKey();
+            final Object value = entry.getValue();
+            try {
+                if (value == REMOVED) {
+                    mPushIOManager.removePreference(key);
+                } else if (value instanceof String) {
+                    mPushIOManager.setPreference(key, (String) value);
+                } else if (value instanceof Boolean) {
+                    mPushIOManager.setPreference(key, (boolean) (Boolean) value);
+                } else {
+                    mPushIOManager.setPreference(key, (Number) value);
+                }
+                mFlushed.incrementAndGet();
+            } catch (ValidationException e) {
+                Log.v(TAG, "Exception: " + e.getMessage());
+                mFlushErrors.incrementAndGet();
+                refresh(key);
+            }
+        }
+        mPending.clear();
+        mFlushes.incrementAndGet();
+    }
+
+    /**
+     * Records a value written to the SDK by a single-preference action.
+     */
+    void onWritten(String key, Object value) {
+        if (mSnapshot == null) {
+            return;
+        }
+
+        Declaration declaration = declarationFor(key);
+        Object coerced = (declaration != null) ? coerce(declaration.type, value) : null;
+        if (coerced == null) {
+            refresh(key);
+            return;
+        }
+
+        try {
+            putSnapshotEntry(key, new Entry(key, declaration, coerced));
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            refresh(key);
+        }
+    }
+
+    void onRemoved(String key) {
+        if (mSnapshot != null) {
+            putSnapshotEntry(key, null);
+        }
+    }
+
+    void onCleared() {
+        mSnapshot = new LinkedHashMap<>();
+        mSnapshotJson = null;
+        mMissing.clear();
+    }
+
+    private void ensureLoaded() {
+        if (mSnapshot != null) {
+            return;
+        }
+
+        mLoads.incrementAndGet();
+        mSnapshot = new LinkedHashMap<>();
+        mSnapshotJson = null;
+
+        List<PushIOPreference> preferences = mPushIOManager.getPreferences();
+        if (preferences != null) {
+            for (PushIOPreference preference : preferences) {
+                putFromSdk(preference);
+            }
+        }
+    }
+
+    private Entry readThrough(String key) {
+        if (mMissing.contains(key)) {
+            return null;
+        }
+
+        mReadThroughs.incrementAndGet();
+        Entry entry = putFromSdk(mPushIOManager.getPreference(key));
+        if (entry == null) {
+            mMissing.add(key);
+        }
+        return entry;
+    }
+
+    /**
+     * Reloads one preference from the SDK after the snapshot may have gone out of sync.
+     */
+    private void refresh(String key) {
+        putSnapshotEntry(key, null);
+        mMissing.remove(key);
+        readThrough(key);
+    }
+
+    private Entry putFromSdk(PushIOPreference preference) {
+        if (preference == null || preference.getType() == null) {
+            return null;
+        }
+
+        final String key = preference.getKey();
+        Declaration declaration = mDeclarations.get(key);
+        if (declaration == null || declaration.type != preference.getType()) {
+            declaration = new Declaration(preference.getLabel(), preference.getType());
+            mDeclarations.put(key, declaration);
+        }
+
+        final Object value = coerce(declaration.type, preference.getValue());
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            Entry entry = new Entry(key, declaration, value, preference.getValue());
+            putSnapshotEntry(key, entry);
+            return entry;
+        } catch (JSONException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void putSnapshotEntry(String key, Entry entry) {
+        if (entry != null) {
+            mSnapshot.put(key, entry);
+            mMissing.remove(key);
+        } else {
+            mSnapshot.remove(key);
+        }
+        mSnapshotJson = null;
+    }
+
+    private Declaration declarationFor(String key) {
+        Declaration declaration = mDeclarations.get(key);
+        if (declaration == null) {
+            // The SDK may know the declaration of a preference that has no value yet.
+            readThrough(key);
+            declaration = mDeclarations.get(key);
+        }
+        return declaration;
+    }
+
+    /**
+     * Returns the value in the form it is written to the SDK, or null if it does
+     * not match the type. Numbers are written as doubles, like {@code setNumberPreference}.
+     */
+    private static Object coerce(PushIOPreference.Type type, Object value) {
+        if (type == PushIOPreference.Type.STRING) {
+            return (value instanceof String) ? value : null;
+        } else if (type == PushIOPreference.Type.NUMBER) {
+            return (value instanceof Number) ? (Object) ((Number) value).doubleValue() : null;
+        } else if (type == PushIOPreference.Type.BOOLEAN) {
+            return (value instanceof Boolean) ? value : null;
+        }
+        return null;
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("loads", mLoads.get());
+        jsonObject.put("reads", mReads.get());
+        jsonObject.put("readThroughs", mReadThroughs.get());
+        jsonObject.put("queued", mQueued.get());
+        jsonObject.put("unchanged", mUnchanged.get());
+        jsonObject.put("invalid", mInvalid.get());
+        jsonObject.put("flushed", mFlushed.get());
+        jsonObject.put("flushes", mFlushes.get());
+        jsonObject.put("flushErrors", mFlushErrors.get());
+        return jsonObject;
+    }
+}
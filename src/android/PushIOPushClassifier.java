@@ -0,0 +1,130 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.text.TextUtils;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheap first check of push payloads passed to {@code isResponsysPush} and
+ * {@code handleMessage}.
+ *
+ * <p>By default every payload is parsed and checked by the SDK. An app whose
+ * Responsys pushes all carry some keys can list them as marker keys; the raw
+ * bridge arguments are then scanned for a member named after one of them, and a
+ * payload without any is answered as not a Responsys push without being parsed
+ * or handed to the SDK. The marker keys are the app's guarantee: the SDK does
+ * not promise that any key is present in every Responsys push, so a push without
+ * them would be missed. A payload that has one is parsed and the SDK makes the
+ * final decision, so a marker key that also appears in other pushes costs time
+ * but never a wrong answer.
+ */
+class PushIOPushClassifier {
+    static final String DEFAULT_MARKER_KEYS = "";
+
+    /** Marker keys as quoted JSON names, e.g. {@code "ei"}. */
+    private final String[] mMarkers;
+
+    private final AtomicLong mFiltered = new AtomicLong();
+    private final AtomicLong mResponsys = new AtomicLong();
+    private final AtomicLong mFalsePositives = new AtomicLong();
+    private final PushIOLatencyHistogram mScan = new PushIOLatencyHistogram();
+    private final PushIOLatencyHistogram mFull = new PushIOLatencyHistogram();
+
+    /**
+     * @param markerKeys comma-separated payload keys; empty to send every payload to the SDK.
+     */
+    PushIOPushClassifier(String markerKeys) {
+        List<String> markers = new ArrayList<>();
+        if (!TextUtils.isEmpty(markerKeys)) {
+            for (String key : markerKeys.split(",")) {
+                key = key.trim();
+                if (!key.isEmpty()) {
+                    markers.add(JSONObject.quote(key));
+                }
+            }
+        }
+        mMarkers = markers.toArray(new String[0]);
+    }
+
+    /**
+     * @return false if the raw JSON has no member named after a marker key, in which
+     *         case it is not a Responsys push.
+     */
+    boolean mayBeResponsys(String json) {
+        if (mMarkers.length == 0) {
+            return true;
+        }
+        if (json == null) {
+            return false;
+        }
+
+        for (String marker : mMarkers) {
+            int index = json.indexOf(marker);
+            while (index >= 0) {
+                if (isMemberName(json, index, marker.length())) {
+                    return true;
+                }
+                index = json.indexOf(marker, index + 1);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the quoted string at {@code start} is followed by a colon, i.e. is a
+     * member name rather than a value. A quote preceded by a backslash is inside
+     * another string.
+     */
+    private static boolean isMemberName(String json, int start, int length) {
+        if (start > 0 && json.charAt(start - 1) == '\\') {
+            return false;
+        }
+
+        for (int i = start + length; i < json.length(); i++) {
+            final char c = json.charAt(i);
+            if (c == ':') {
+                return true;
+            } else if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records a payload rejected by {@link #mayBeResponsys}.
+     */
+    void recordFiltered(long nanos) {
+        mFiltered.incrementAndGet();
+        mScan.record(nanos);
+    }
+
+    /**
+     * Records a payload that passed the scan and was checked by the SDK.
+     */
+    void recordClassified(long nanos, boolean responsys) {
+        (responsys ? mResponsys : mFalsePositives).incrementAndGet();
+        mFull.record(nanos);
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("markerKeys", mMarkers.length);
+        jsonObject.put("filtered", mFiltered.get());
+        jsonObject.put("responsys", mResponsys.get());
+        jsonObject.put("falsePositives", mFalsePositives.get());
+        jsonObject.put("filteredLatency", mScan.asJson());
+        jsonObject.put("classifiedLatency", mFull.asJson());
+        return jsonObject;
+    }
+}
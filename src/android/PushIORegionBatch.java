@@ -0,0 +1,210 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import com.pushio.manager.PIOBeaconRegion;
+import com.pushio.manager.PIOGeoRegion;
+import com.pushio.manager.PIORegionEventType;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * One {@code reportRegionEvents} call.
+ *
+ * <p>The records are parsed and run through the {@link PushIORegionEventFilter}
+ * in one pass. The transitions left are handed to the
+ * {@link PushIORegionReporter} with at most {@code concurrency} reports
+ * outstanding at a time, and at most one per region, so that the transitions of
+ * a region reach the SDK in the order of the records. Once every report has
+ * completed, JS gets one result per record, in the order of the records.
+ */
+class PushIORegionBatch {
+    static final int DEFAULT_CONCURRENCY = 4;
+
+    private final class Item implements PushIORegionReporter.Callback {
+        final int index;
+        final String regionKey;
+        final PIORegionEventType type;
+        final PIOGeoRegion geoRegion;
+        final PIOBeaconRegion beaconRegion;
+
+        Item(int index, String regionKey, PIORegionEventType type, PIOGeoRegion geoRegion,
+                PIOBeaconRegion beaconRegion) {
+            this.index = index;
+            this.regionKey = regionKey;
+            this.type = type;
+            this.geoRegion = geoRegion;
+            this.beaconRegion = beaconRegion;
+        }
+
+        @Override
+        public void onRegionReported(String regionId, PIORegionEventType regionEventType, String errorMessage) {
+            onReported(this, PushIORegionReporter.resultJson(regionId, regionEventType,
+                    (errorMessage != null) ? "error" : null, errorMessage));
+        }
+    }
+
+    private final PushIORegionReporter mReporter;
+    private final CallbackContext mCallbackContext;
+    private final int mConcurrency;
+
+    private final String[] mResults;
+    private final ArrayDeque<Item> mQueue = new ArrayDeque<>();
+    /** Regions with a report outstanding. */
+    private final Set<String> mBusyRegions = new HashSet<>();
+    private int mInFlight;
+    private int mRemaining;
+    private boolean mStarting;
+
+    private PushIORegionBatch(PushIORegionReporter reporter, CallbackContext callbackContext, int concurrency,
+            int size) {
+        mReporter = reporter;
+        mCallbackContext = callbackContext;
+        mConcurrency = Math.max(1, concurrency);
+        mResults = new String[size];
+    }
+
+    /**
+     * @param records {@code [{eventType: 'GEOFENCE_ENTRY' | 'GEOFENCE_EXIT' | 'BEACON_ENTRY' | 'BEACON_EXIT',
+     *                region: {...}}]}
+     */
+    static void report(PushIORegionReporter reporter, PushIORegionEventFilter filter, JSONArray records,
+            int concurrency, CallbackContext callbackContext) {
+        PushIORegionBatch batch = new PushIORegionBatch(reporter, callbackContext, concurrency, records.length());
+
+        for (int i = 0; i < records.length(); i++) {
+            batch.add(i, records.optJSONObject(i), filter);
+        }
+
+        synchronized (batch) {
+            batch.mRemaining = batch.mQueue.size();
+            if (batch.mRemaining == 0) {
+                batch.sendResults();
+                return;
+            }
+            batch.mStarting = true;
+        }
+        batch.startReports();
+    }
+
+    private void add(int index, JSONObject record, PushIORegionEventFilter filter) {
+        PIORegionEventType type = null;
+        if (record != null) {
+            try {
+                type = PIORegionEventType.valueOf(record.optString("eventType"));
+            } catch (IllegalArgumentException e) {
+                type = null;
+            }
+        }
+        if (type == null) {
+            mResults[index] = PushIORegionReporter.resultJson(null, null, "error", "Invalid eventType");
+            return;
+        }
+
+        final JSONObject regionJson = record.optJSONObject("region");
+        final boolean geofence = PushIORegionReporter.isGeofence(type);
+        final PIOGeoRegion geoRegion = geofence ? PushIOManagerPluginUtils.geoRegionFromJson(regionJson, type) : null;
+        final PIOBeaconRegion beaconRegion = geofence ? null
+                : PushIOManagerPluginUtils.beaconRegionFromJson(regionJson, type);
+        final String regionId = (regionJson != null)
+                ? regionJson.optString(geofence ? "geofenceId" : "beaconId") : null;
+
+        if (geoRegion == null && beaconRegion == null) {
+            mResults[index] = PushIORegionReporter.resultJson(regionId, type, "error", "Error reading region");
+            return;
+        }
+
+        final String suppressed = filter.filter(type, regionId);
+        if (suppressed != null) {
+            mResults[index] = PushIORegionReporter.resultJson(regionId, type, "suppressed", suppressed);
+            return;
+        }
+
+        final String regionKey = (geofence ? "geofence:" : "beacon:") + regionId;
+        mQueue.add(new Item(index, regionKey, type, geoRegion, beaconRegion));
+    }
+
+    /**
+     * Starts queued reports until {@code concurrency} are outstanding or every
+     * queued record is for a region that has a report outstanding. Only one
+     * thread starts reports at a time; the SDK may complete a report on the
+     * starting thread, which must not recurse into this method.
+     */
+    private void startReports() {
+        while (true) {
+            final Item item;
+            synchronized (this) {
+                item = (mInFlight < mConcurrency) ? pollReady() : null;
+                if (item == null) {
+                    mStarting = false;
+                    return;
+                }
+                mBusyRegions.add(item.regionKey);
+                mInFlight++;
+            }
+            mReporter.report(item.type, item.geoRegion, item.beaconRegion, item);
+        }
+    }
+
+    /**
+     * @return the first queued record whose region has no report outstanding, or
+     *         null if there is none.
+     */
+    private Item pollReady() {
+        final Iterator<Item> iterator = mQueue.iterator();
+        while (iterator.hasNext()) {
+            final Item item = iterator.next();
+            if (!mBusyRegions.contains(item.regionKey)) {
+                iterator.remove();
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private void onReported(Item item, String result) {
+        final boolean done;
+        final boolean startMore;
+        synchronized (this) {
+            mResults[item.index] = result;
+            mBusyRegions.remove(item.regionKey);
+            mInFlight--;
+            mRemaining--;
+            done = (mRemaining == 0);
+            startMore = !done && !mStarting;
+            if (startMore) {
+                mStarting = true;
+            }
+        }
+
+        if (done) {
+            sendResults();
+        } else if (startMore) {
+            startReports();
+        }
+    }
+
+    private void sendResults() {
+        StringBuilder json = new StringBuilder(mResults.length * 64 + 2);
+        json.append('[');
+        for (int i = 0; i < mResults.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append((mResults[i] != null) ? mResults[i] : "null");
+        }
+        json.append(']');
+        mCallbackContext.sendPluginResult(new PushIOJsonPluginResult(PluginResult.Status.OK, json.toString()));
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.os.SystemClock;
+
+import com.pushio.manager.PIORegionEventType;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decides which geofence and beacon transitions reported by JS are passed on
+ * to the SDK. A transition of a region is suppressed if:
+ * <ol>
+ * <li>it repeats the last transition passed on for that region
+ * ({@link #REASON_DUPLICATE});</li>
+ * <li>for a beacon, it comes less than {@code hysteresisMs} after the last
+ * transition passed on, i.e. the region is flapping
+ * ({@link #REASON_HYSTERESIS});</li>
+ * <li>for a beacon, it is an exit less than {@code minDwellMs} after the entry
+ * passed on ({@link #REASON_DWELL});</li>
+ * <li>for a beacon, {@code rateLimit} transitions of the region were already
+ * passed on in the current {@code rateWindowMs} window
+ * ({@link #REASON_RATE_LIMITED}).</li>
+ * </ol>
+ * A suppressed transition leaves the region's state unchanged, so a real exit
+ * that was suppressed is passed on with the next exit reported after the
+ * windows have passed. Beacon scanners report repeatedly, so that exit comes.
+ * The OS reports a geofence transition only once, so geofences are only
+ * deduplicated; a suppressed geofence exit would be lost. A setting of 0 turns
+ * the check off.
+ *
+ * <p>Geofences and beacons are tracked separately. The state of at most
+ * {@link #MAX_REGIONS} regions is kept; the least recently seen are dropped.
+ */
+class PushIORegionEventFilter {
+    static final String REASON_DUPLICATE = "duplicate";
+    static final String REASON_HYSTERESIS = "hysteresis";
+    static final String REASON_DWELL = "dwell";
+    static final String REASON_RATE_LIMITED = "rateLimited";
+
+    static final int DEFAULT_RATE_WINDOW_MS = 60 * 1000;
+    static final int MAX_REGIONS = 1024;
+
+    interface Clock {
+        long now();
+    }
+
+    static final Clock ELAPSED_REALTIME = new Clock() {
+        @Override
+        public long now() {
+            return SystemClock.elapsedRealtime();
+        }
+    };
+
+    private static final class RegionState {
+        boolean inside;
+        long lastPassedAt;
+        long windowStart;
+        int passedInWindow;
+    }
+
+    private final boolean mDedupe;
+    private final long mHysteresisMs;
+    private final long mMinDwellMs;
+    private final int mRateLimit;
+    private final long mRateWindowMs;
+    private final Clock mClock;
+
+    private final Map<String, RegionState> mRegions =
+            new LinkedHashMap<String, RegionState>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, RegionState> eldest) {
+                    return size() > MAX_REGIONS;
+                }
+            };
+
+    private long mPassed;
+    private long mDuplicates;
+    private long mHysteresis;
+    private long mDwell;
+    private long mRateLimited;
+
+    PushIORegionEventFilter(boolean dedupe, long hysteresisMs, long minDwellMs, int rateLimit, long rateWindowMs,
+            Clock clock) {
+        mDedupe = dedupe;
+        mHysteresisMs = Math.max(0, hysteresisMs);
+        mMinDwellMs = Math.max(0, minDwellMs);
+        mRateLimit = Math.max(0, rateLimit);
+        mRateWindowMs = Math.max(1, rateWindowMs);
+        mClock = clock;
+    }
+
+    /**
+     * Records a transition reported by JS.
+     *
+     * @return null if the transition is to be passed on to the SDK, otherwise
+     * the reason it was suppressed.
+     */
+    synchronized String filter(PIORegionEventType type, String regionId) {
+        final boolean entry = (type == PIORegionEventType.GEOFENCE_ENTRY || type == PIORegionEventType.BEACON_ENTRY);
+        final boolean beacon = (type == PIORegionEventType.BEACON_ENTRY || type == PIORegionEventType.BEACON_EXIT);
+        final String key = (beacon ? "b:" : "g:") + regionId;
+        final long now = mClock.now();
+
+        RegionState state = mRegions.get(key);
+        if (state == null) {
+            state = new RegionState();
+            state.inside = entry;
+            state.lastPassedAt = now;
+            state.windowStart = now;
+            state.passedInWindow = 1;
+            mRegions.put(key, state);
+            mPassed++;
+            return null;
+        }
+
+        if (entry == state.inside) {
+            if (mDedupe) {
+                mDuplicates++;
+                return REASON_DUPLICATE;
+            }
+        } else if (beacon) {
+            final long sinceLast = now - state.lastPassedAt;
+            if (sinceLast < mHysteresisMs) {
+                mHysteresis++;
+                return REASON_HYSTERESIS;
+            }
+            if (!entry && sinceLast < mMinDwellMs) {
+                mDwell++;
+                return REASON_DWELL;
+            }
+        }
+
+        if (now - state.windowStart >= mRateWindowMs) {
+            state.windowStart = now;
+            state.passedInWindow = 0;
+        }
+        if (beacon && mRateLimit > 0 && state.passedInWindow >= mRateLimit) {
+            mRateLimited++;
+            return REASON_RATE_LIMITED;
+        }
+
+        state.inside = entry;
+        state.lastPassedAt = now;
+        state.passedInWindow++;
+        mPassed++;
+        return null;
+    }
+
+    synchronized JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("regions", mRegions.size());
+        jsonObject.put("passed", mPassed);
+        jsonObject.put("duplicate", mDuplicates);
+        jsonObject.put("hysteresis", mHysteresis);
+        jsonObject.put("dwell", mDwell);
+        jsonObject.put("rateLimited", mRateLimited);
+        return jsonObject;
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.util.Log;
+
+import com.pushio.manager.PIOBeaconRegion;
+import com.pushio.manager.PIOGeoRegion;
+import com.pushio.manager.PIORegionCompletionListener;
+import com.pushio.manager.PIORegionEventType;
+import com.pushio.manager.PIORegionException;
+import com.pushio.manager.PushIOManager;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports geofence and beacon transitions to the SDK for the single region
+ * actions and for {@code reportRegionEvents}.
+ *
+ * <p>Results are written straight to JSON text from per-type fragments built
+ * once, so a reported region costs one small completion listener and no
+ * {@code JSONObject}. Listeners are not reused: the SDK keeps a reference to the
+ * listener it was given and may call it more than once, so a reused listener
+ * could send a late answer to another caller. Report counts, errors and latency
+ * are kept per {@link PIORegionEventType}.
+ */
+class PushIORegionReporter {
+    private static final String TAG = "pushio-cordova";
+
+    private static final int MAX_RETAINED_BUILDER_CHARS = 1024;
+
+    /**
+     * Receives the outcome of one report; {@code errorMessage} is null if the
+     * region was reported.
+     */
+    interface Callback {
+        void onRegionReported(String regionId, PIORegionEventType type, String errorMessage);
+    }
+
+    private static final Map<PIORegionEventType, String> TYPE_FRAGMENTS = new EnumMap<>(PIORegionEventType.class);
+
+    static {
+        for (PIORegionEventType type : PIORegionEventType.values()) {
+            TYPE_FRAGMENTS.put(type, "\"regionType\":" + JSONObject.quote(type.toString()));
+        }
+    }
+
+    private static final ThreadLocal<StringBuilder> BUILDER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(128);
+        }
+    };
+
+    private final PushIOManager mPushIOManager;
+    private final Map<PIORegionEventType, TypeStats> mStats = new EnumMap<>(PIORegionEventType.class);
+
+    PushIORegionReporter(PushIOManager pushIOManager) {
+        mPushIOManager = pushIOManager;
+        for (PIORegionEventType type : PIORegionEventType.values()) {
+            mStats.put(type, new TypeStats());
+        }
+    }
+
+    static boolean isGeofence(PIORegionEventType type) {
+        return type == PIORegionEventType.GEOFENCE_ENTRY || type == PIORegionEventType.GEOFENCE_EXIT;
+    }
+
+    /**
+     * Reports the transition and answers {@code callbackContext} with
+     * {@code {regionID, regionType}}, or with the SDK's error message.
+     */
+    void report(PIORegionEventType type, PIOGeoRegion geoRegion, PIOBeaconRegion beaconRegion,
+            CallbackContext callbackContext) {
+        start(new Report(type, null, callbackContext), geoRegion, beaconRegion);
+    }
+
+    void report(PIORegionEventType type, PIOGeoRegion geoRegion, PIOBeaconRegion beaconRegion, Callback callback) {
+        start(new Report(type, callback, null), geoRegion, beaconRegion);
+    }
+
+    private void start(Report report, PIOGeoRegion geoRegion, PIOBeaconRegion beaconRegion) {
+        final PIORegionEventType type = report.type;
+        mStats.get(type).inFlight.incrementAndGet();
+
+        try {
+            switch (type) {
+                case GEOFENCE_ENTRY:
+                    mPushIOManager.onGeoRegionEntered(geoRegion, report);
+                    break;
+                case GEOFENCE_EXIT:
+                    mPushIOManager.onGeoRegionExited(geoRegion, report);
+                    break;
+                case BEACON_ENTRY:
+                    mPushIOManager.onBeaconRegionEntered(beaconRegion, report);
+                    break;
+                case BEACON_EXIT:
+                    mPushIOManager.onBeaconRegionExited(beaconRegion, report);
+                    break;
+            }
+        } catch (RuntimeException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            mStats.get(type).exceptions.incrementAndGet();
+            report.complete(null, type, String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * {@code {"regionID": regionId, "regionType": type, extraKey: extraValue}} as
+     * JSON text. {@code regionID} is left out if null, as {@code JSONObject}
+     * would; {@code extraKey} is left out if null.
+     */
+    static String resultJson(String regionId, PIORegionEventType type, String extraKey, String extraValue) {
+        StringBuilder json = BUILDER.get();
+        json.setLength(0);
+        appendResult(json, regionId, type, extraKey, extraValue);
+        final String result = json.toString();
+        if (json.capacity() > MAX_RETAINED_BUILDER_CHARS) {
+            BUILDER.remove();
+        }
+        return result;
+    }
+
+    static void appendResult(StringBuilder json, String regionId, PIORegionEventType type, String extraKey,
+            String extraValue) {
+        json.append('{');
+        boolean first = true;
+        if (regionId != null) {
+            json.append("\"regionID\":");
+            appendQuoted(json, regionId);
+            first = false;
+        }
+        if (type != null) {
+            if (!first) {
+                json.append(',');
+            }
+            json.append(TYPE_FRAGMENTS.get(type));
+            first = false;
+        }
+        if (extraKey != null) {
+            if (!first) {
+                json.append(',');
+            }
+            appendQuoted(json, extraKey);
+            json.append(':');
+            if (extraValue != null) {
+                appendQuoted(json, extraValue);
+            } else {
+                json.append("null");
+            }
+        }
+        json.append('}');
+    }
+
+    /**
+     * Appends {@code value} as a JSON string, escaped the way {@link JSONObject#quote} does.
+     */
+    private static void appendQuoted(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    json.append('\\').append(c);
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                case '\b':
+                    json.append("\\b");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\f':
+                    json.append("\\f");
+                    break;
+                default:
+                    if (c <= 0x1F) {
+                        json.append("\\u00");
+                        json.append(Character.forDigit(c >> 4, 16));
+                        json.append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        json.append(c);
+                    }
+                    break;
+            }
+        }
+        json.append('"');
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        for (Map.Entry<PIORegionEventType, TypeStats> entry : mStats.entrySet()) {
+            jsonObject.put(entry.getKey().toString(), entry.getValue().asJson());
+        }
+        return jsonObject;
+    }
+
+    /**
+     * Completion listener for one report; answers its caller once and ignores any
+     * later call from the SDK.
+     */
+    private final class Report implements PIORegionCompletionListener {
+        final PIORegionEventType type;
+        final Callback callback;
+        final CallbackContext callbackContext;
+        final long startedAt = System.nanoTime();
+        private boolean mDone;
+
+        Report(PIORegionEventType type, Callback callback, CallbackContext callbackContext) {
+            this.type = type;
+            this.callback = callback;
+            this.callbackContext = callbackContext;
+        }
+
+        @Override
+        public void onRegionReported(String regionId, PIORegionEventType regionEventType, PIORegionException e) {
+            complete(regionId, regionEventType, (e != null) ? String.valueOf(e.getErrorMessage()) : null);
+        }
+
+        void complete(String regionId, PIORegionEventType regionEventType, String errorMessage) {
+            synchronized (this) {
+                if (mDone) {
+                    return;
+                }
+                mDone = true;
+            }
+            final long elapsed = System.nanoTime() - startedAt;
+
+            TypeStats stats = mStats.get(type);
+            stats.inFlight.decrementAndGet();
+            stats.latency.record(elapsed);
+            if (errorMessage == null) {
+                stats.reported.incrementAndGet();
+            } else {
+                stats.errors.incrementAndGet();
+            }
+
+            final PIORegionEventType resultType = (regionEventType != null) ? regionEventType : type;
+            if (callback != null) {
+                callback.onRegionReported(regionId, resultType, errorMessage);
+            } else if (errorMessage == null) {
+                callbackContext.sendPluginResult(new PushIOJsonPluginResult(PluginResult.Status.OK,
+                        resultJson(regionId, resultType, null, null)));
+            } else {
+                callbackContext.error(errorMessage);
+            }
+        }
+    }
+
+    private static class TypeStats {
+        final AtomicLong reported = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong exceptions = new AtomicLong();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final PushIOLatencyHistogram latency = new PushIOLatencyHistogram();
+
+        JSONObject asJson() throws JSONException {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("reported", reported.get());
+            jsonObject.put("errors", errors.get());
+            jsonObject.put("exceptions", exceptions.get());
+            jsonObject.put("inFlight", inFlight.get());
+            jsonObject.put("latency", latency.asJson());
+            return jsonObject;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.util.Log;
+import android.util.LruCache;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rich content of Message Center messages, keyed by message ID.
+ *
+ * <p>The memory tier is an LRU bounded by the approximate size of the content in
+ * bytes. When a disk size is given, entries are also written to one file each
+ * under {@code diskDir}; the oldest files are deleted once the directory grows
+ * past that size. The size of the directory is measured once and then kept up to
+ * date as files are written and deleted, so the directory is only listed again
+ * when it has to be trimmed. Messages carry an expiry time (see {@link #setExpiry}), and
+ * content of an expired message is dropped from both tiers instead of served.
+ */
+class PushIORichContentCache {
+    private static final String TAG = "pushio-cordova";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static final int DEFAULT_MEMORY_BYTES = 2 * 1024 * 1024;
+    static final int DEFAULT_DISK_BYTES = 0;
+
+    /** Rough per-entry overhead of the key and entry objects. */
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private static final class Entry {
+        final String content;
+        final long expiresAt;
+
+        Entry(String content, long expiresAt) {
+            this.content = content;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final LruCache<String, Entry> mMemory;
+    private final File mDiskDir;
+    private final long mMaxDiskBytes;
+    private final Object mDiskLock = new Object();
+
+    /** Bytes in {@link #mDiskDir}, or -1 until it has been measured; guarded by {@link #mDiskLock}. */
+    private long mDiskBytes = -1;
+
+    /** Expiry times of messages seen in a message center, in ms since the epoch. */
+    private final Map<String, Long> mExpiries = new ConcurrentHashMap<>();
+
+    private final AtomicLong mMemoryHits = new AtomicLong();
+    private final AtomicLong mDiskHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+    private final AtomicLong mEvictions = new AtomicLong();
+    private final AtomicLong mExpired = new AtomicLong();
+    private final AtomicLong mDiskScans = new AtomicLong();
+
+    PushIORichContentCache(int maxMemoryBytes, File diskDir, long maxDiskBytes) {
+        mMemory = new LruCache<String, Entry>(Math.max(1, maxMemoryBytes)) {
+            @Override
+            protected int sizeOf(String key, Entry value) {
+                return ENTRY_OVERHEAD_BYTES + 2 * (key.length() + value.content.length());
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Entry oldValue, Entry newValue) {
+                if (evicted) {
+                    mEvictions.incrementAndGet();
+                }
+            }
+        };
+
+        mMaxDiskBytes = Math.max(0, maxDiskBytes);
+        mDiskDir = (mMaxDiskBytes > 0) ? diskDir : null;
+        if (mDiskDir != null && !mDiskDir.isDirectory() && !mDiskDir.mkdirs()) {
+            Log.v(TAG, "Exception: cannot create " + mDiskDir);
+        }
+    }
+
+    /**
+     * Records when a message expires, so its content can be dropped once it does.
+     *
+     * @param expiresAt ms since the epoch, or 0 if the message does not expire.
+     */
+    void setExpiry(String messageId, long expiresAt) {
+        if (expiresAt > 0) {
+            mExpiries.put(messageId, expiresAt);
+        } else {
+            mExpiries.remove(messageId);
+        }
+    }
+
+    /**
+     * Returns the cached content, or null if the message is not cached or has expired.
+     */
+    String get(String messageId) {
+        final long now = System.currentTimeMillis();
+
+        Entry entry = mMemory.get(messageId);
+        if (entry != null) {
+            if (!isExpired(messageId, entry, now)) {
+                mMemoryHits.incrementAndGet();
+                return entry.content;
+            }
+            remove(messageId);
+            mExpired.incrementAndGet();
+            mMisses.incrementAndGet();
+            return null;
+        }
+
+        entry = readFromDisk(messageId);
+        if (entry != null) {
+            if (!isExpired(messageId, entry, now)) {
+                mDiskHits.incrementAndGet();
+                mMemory.put(messageId, entry);
+                return entry.content;
+            }
+            remove(messageId);
+            mExpired.incrementAndGet();
+        }
+
+        mMisses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Whether {@link #get} would return content, without counting a hit or miss.
+     * Content of an expired message on disk is not read, since the expiry last
+     * seen in a message center decides.
+     */
+    boolean contains(String messageId) {
+        Entry entry = mMemory.get(messageId);
+        if (entry != null) {
+            return !isExpired(messageId, entry, System.currentTimeMillis());
+        }
+        if (mDiskDir == null) {
+            return false;
+        }
+
+        Long expiry = mExpiries.get(messageId);
+        if (expiry != null) {
+            return expiry > System.currentTimeMillis() && fileFor(messageId).exists();
+        }
+        entry = readExpiryFromDisk(messageId);
+        return entry != null && !isExpired(messageId, entry, System.currentTimeMillis());
+    }
+
+    void put(String messageId, String content) {
+        if (content == null) {
+            return;
+        }
+
+        Long expiresAt = mExpiries.get(messageId);
+        Entry entry = new Entry(content, (expiresAt != null) ? expiresAt : 0);
+        if (isExpired(messageId, entry, System.currentTimeMillis())) {
+            return;
+        }
+
+        mMemory.put(messageId, entry);
+        writeToDisk(messageId, entry);
+    }
+
+    /**
+     * Drops the content of every message whose expiry time has passed.
+     */
+    void evictExpired() {
+        final long now = System.currentTimeMillis();
+        for (Map.Entry<String, Long> expiry : mExpiries.entrySet()) {
+            if (expiry.getValue() <= now) {
+                remove(expiry.getKey());
+                mExpiries.remove(expiry.getKey());
+                mExpired.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The expiry last seen in a message center wins over the one stored with the
+     * entry, which may have been written before the message was updated.
+     */
+    private boolean isExpired(String messageId, Entry entry, long now) {
+        Long expiry = mExpiries.get(messageId);
+        long expiresAt = (expiry != null) ? expiry : entry.expiresAt;
+        return expiresAt > 0 && expiresAt <= now;
+    }
+
+    void clear() {
+        mMemory.evictAll();
+        mExpiries.clear();
+        if (mDiskDir != null) {
+            synchronized (mDiskLock) {
+                File[] files = mDiskDir.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        deleteFile(file);
+                    }
+                }
+            }
+        }
+    }
+
+    private void remove(String messageId) {
+        mMemory.remove(messageId);
+        if (mDiskDir != null) {
+            synchronized (mDiskLock) {
+                deleteFile(fileFor(messageId));
+            }
+        }
+    }
+
+    private File fileFor(String messageId) {
+        // Message IDs are not guaranteed to be valid file names.
+        StringBuilder name = new StringBuilder(messageId.length() * 2 + 5);
+        for (byte b : messageId.getBytes(UTF_8)) {
+            name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return new File(mDiskDir, name.append(".html").toString());
+    }
+
+    /**
+     * Reads an entry from disk. The first line of the file is the expiry time,
+     * the rest is the content.
+     */
+    private Entry readFromDisk(String messageId) {
+        if (mDiskDir == null) {
+            return null;
+        }
+
+        synchronized (mDiskLock) {
+            File file = fileFor(messageId);
+            if (!file.exists()) {
+                return null;
+            }
+
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(file), UTF_8))) {
+                long expiresAt = Long.parseLong(reader.readLine());
+                StringBuilder content = new StringBuilder((int) Math.min(file.length(), Integer.MAX_VALUE));
+                char[] buffer = new char[8192];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    content.append(buffer, 0, read);
+                }
+                file.setLastModified(System.currentTimeMillis());
+                return new Entry(content.toString(), expiresAt);
+            } catch (IOException | NumberFormatException e) {
+                Log.v(TAG, "Exception: " + e.getMessage());
+                deleteFile(file);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Reads only the expiry line of an entry on disk; the returned entry has no content.
+     */
+    private Entry readExpiryFromDisk(String messageId) {
+        synchronized (mDiskLock) {
+            File file = fileFor(messageId);
+            if (!file.exists()) {
+                return null;
+            }
+
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(file), UTF_8), 64)) {
+                return new Entry("", Long.parseLong(reader.readLine()));
+            } catch (IOException | NumberFormatException e) {
+                Log.v(TAG, "Exception: " + e.getMessage());
+                deleteFile(file);
+                return null;
+            }
+        }
+    }
+
+    private void writeToDisk(String messageId, Entry entry) {
+        if (mDiskDir == null) {
+            return;
+        }
+
+        synchronized (mDiskLock) {
+            File file = fileFor(messageId);
+            File tmp = new File(file.getPath() + ".tmp");
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), UTF_8)) {
+                writer.write(Long.toString(entry.expiresAt));
+                writer.write('\n');
+                writer.write(entry.content);
+            } catch (IOException e) {
+                Log.v(TAG, "Exception: " + e.getMessage());
+                tmp.delete();
+                return;
+            }
+            final long replacedBytes = file.length();
+            final long writtenBytes = tmp.length();
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+                return;
+            }
+            if (mDiskBytes >= 0) {
+                mDiskBytes += writtenBytes - replacedBytes;
+            }
+            trimDisk();
+        }
+    }
+
+    /**
+     * Deletes a cache file and takes its size off the running total. Called with
+     * {@link #mDiskLock} held.
+     */
+    private void deleteFile(File file) {
+        final long length = file.length();
+        if (file.delete() && mDiskBytes >= 0) {
+            mDiskBytes -= length;
+        }
+    }
+
+    /**
+     * Deletes the least recently used files until the directory fits in its size.
+     * The directory is listed only if the running total is over the size, or has
+     * not been measured yet. Called with {@link #mDiskLock} held.
+     */
+    private void trimDisk() {
+        if (mDiskBytes >= 0 && mDiskBytes <= mMaxDiskBytes) {
+            return;
+        }
+
+        File[] files = mDiskDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        mDiskScans.incrementAndGet();
+
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total > mMaxDiskBytes) {
+            Arrays.sort(files, new Comparator<File>() {
+                @Override
+                public int compare(File a, File b) {
+                    return Long.compare(a.lastModified(), b.lastModified());
+                }
+            });
+            for (int i = 0; i < files.length && total > mMaxDiskBytes; i++) {
+                final long length = files[i].length();
+                if (files[i].delete()) {
+                    total -= length;
+                    mEvictions.incrementAndGet();
+                }
+            }
+        }
+        // Measured afresh, which also corrects any drift, e.g. from files deleted by the system.
+        mDiskBytes = total;
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("memoryBytes", mMemory.size());
+        jsonObject.put("maxMemoryBytes", mMemory.maxSize());
+        jsonObject.put("diskEnabled", mDiskDir != null);
+        synchronized (mDiskLock) {
+            jsonObject.put("diskBytes", Math.max(0, mDiskBytes));
+        }
+        jsonObject.put("diskScans", mDiskScans.get());
+        jsonObject.put("memoryHits", mMemoryHits.get());
+        jsonObject.put("diskHits", mDiskHits.get());
+        jsonObject.put("misses", mMisses.get());
+        jsonObject.put("evictions", mEvictions.get());
+        jsonObject.put("expired", mExpired.get());
+        return jsonObject;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.util.Log;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaWebView;
+import org.apache.cordova.PluginResult;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collapses concurrent identical calls into one operation.
+ *
+ * <p>A call is identified by its action and a key built from its arguments. While
+ * an operation for that call is in flight, an identical call does not start
+ * another one; it waits, and gets the same result as the call that started it.
+ * The operation is run with a callback that forwards its final result to every
+ * waiting call. A call made after that result was sent starts a new operation.
+ *
+ * <p>At most {@code maxInFlight} operations are tracked; when the table is full,
+ * calls run on their own without being collapsed.
+ */
+class PushIOSingleFlight {
+    private static final String TAG = "pushio-cordova";
+
+    static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    /**
+     * The work of a call, answering {@code callbackContext} once done.
+     */
+    interface Operation {
+        void run(CallbackContext callbackContext);
+    }
+
+    private final int mMaxInFlight;
+    private final CordovaWebView mWebView;
+    private final Map<String, Flight> mFlights = new HashMap<>();
+
+    private long mRequests;
+    private long mOperations;
+    private long mCollapsed;
+    private long mBypassed;
+    private int mMaxWaiters;
+
+    PushIOSingleFlight(int maxInFlight, CordovaWebView webView) {
+        mMaxInFlight = Math.max(0, maxInFlight);
+        mWebView = webView;
+    }
+
+    /**
+     * Runs {@code operation} for the call, or adds the call to the waiters of an
+     * identical one in flight.
+     */
+    void execute(String action, String key, CallbackContext callbackContext, Operation operation) {
+        final String flightKey = action + '\u0000' + key;
+        final Flight flight;
+        synchronized (mFlights) {
+            mRequests++;
+            Flight current = mFlights.get(flightKey);
+            if (current != null) {
+                current.mWaiters.add(callbackContext);
+                mCollapsed++;
+                mMaxWaiters = Math.max(mMaxWaiters, current.mWaiters.size());
+                return;
+            }
+
+            mOperations++;
+            if (mFlights.size() >= mMaxInFlight) {
+                mBypassed++;
+                flight = null;
+            } else {
+                flight = new Flight(flightKey, callbackContext);
+                mFlights.put(flightKey, flight);
+            }
+        }
+
+        if (flight == null) {
+            operation.run(callbackContext);
+            return;
+        }
+
+        try {
+            operation.run(flight);
+        } catch (RuntimeException e) {
+            Log.v(TAG, "Exception: " + e.getMessage());
+            flight.error(e.getMessage());
+        }
+    }
+
+    JSONObject metricsAsJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        synchronized (mFlights) {
+            jsonObject.put("inFlight", mFlights.size());
+            jsonObject.put("requests", mRequests);
+            jsonObject.put("operations", mOperations);
+            jsonObject.put("collapsed", mCollapsed);
+            jsonObject.put("bypassed", mBypassed);
+            jsonObject.put("maxWaiters", mMaxWaiters);
+        }
+        return jsonObject;
+    }
+
+    /**
+     * The callback an operation answers; forwards each result to every waiting call.
+     */
+    private class Flight extends CallbackContext {
+        private final String mKey;
+        private final List<CallbackContext> mWaiters = new ArrayList<>(2);
+        private boolean mDone;
+
+        Flight(String key, CallbackContext first) {
+            super(first.getCallbackId(), mWebView);
+            mKey = key;
+            mWaiters.add(first);
+        }
+
+        @Override
+        public boolean isFinished() {
+            synchronized (mFlights) {
+                return mDone;
+            }
+        }
+
+        @Override
+        public void sendPluginResult(PluginResult pluginResult) {
+            final List<CallbackContext> waiters;
+            synchronized (mFlights) {
+                if (mDone) {
+                    return;
+                }
+                if (!pluginResult.getKeepCallback()) {
+                    // Calls made from now on start a new operation.
+                    mDone = true;
+                    if (mFlights.get(mKey) == this) {
+                        mFlights.remove(mKey);
+                    }
+                }
+                waiters = new ArrayList<>(mWaiters);
+            }
+
+            for (CallbackContext waiter : waiters) {
+                waiter.sendPluginResult(pluginResult);
+            }
+        }
+    }
+}
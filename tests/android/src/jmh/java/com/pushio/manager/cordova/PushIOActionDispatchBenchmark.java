@@ -0,0 +1,101 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaPreferences;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving and calling an action handler of {@link PushIOManagerPlugin}: the
+ * handler table against the reflective lookup the plugin used before, which
+ * checked the action against a list of names and then looked the method up with
+ * {@code getDeclaredMethod} on every call.
+ *
+ * <p>Both run the same handler on the calling thread, so the difference is the
+ * cost of the lookup. {@code action} is early and late in the list of names.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushIOActionDispatchBenchmark {
+    @Param({"getAPIKey", "setVerifiedUserId"})
+    public String action;
+
+    private PushIOBenchmarkPlugin mBenchmarkPlugin;
+    private PushIOManagerPlugin mPlugin;
+    private List<String> mActionNames;
+    private JSONArray mArgs;
+    private CallbackContext mCallbackContext;
+
+    @Setup
+    public void setUp() throws Exception {
+        mBenchmarkPlugin = new PushIOBenchmarkPlugin(new CordovaPreferences());
+        mPlugin = mBenchmarkPlugin.plugin();
+
+        // Every method the reflective lookup could reach.
+        mActionNames = new ArrayList<>();
+        for (Method method : PushIOManagerPlugin.class.getDeclaredMethods()) {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            if (parameterTypes.length == 2 && parameterTypes[0] == JSONArray.class
+                    && parameterTypes[1] == CallbackContext.class) {
+                mActionNames.add(method.getName());
+            }
+        }
+        Collections.sort(mActionNames);
+
+        mArgs = new JSONArray().put("user@example.com");
+        mCallbackContext = new CallbackContext("dispatch", null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mBenchmarkPlugin.destroy();
+    }
+
+    @Benchmark
+    public boolean handlerTable() {
+        PushIOManagerPlugin.ActionHandler handler = mPlugin.actionHandler(action);
+        if (handler == null) {
+            return false;
+        }
+        handler.handle(mArgs, mCallbackContext);
+        return true;
+    }
+
+    @Benchmark
+    public boolean reflection() throws Exception {
+        if (!mActionNames.contains(action)) {
+            return false;
+        }
+        Method method = mPlugin.getClass().getDeclaredMethod(action, JSONArray.class, CallbackContext.class);
+        method.setAccessible(true);
+        method.invoke(mPlugin, mArgs, mCallbackContext);
+        method.setAccessible(false);
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.app.Activity;
+import android.content.Context;
+
+import org.apache.cordova.CordovaInterface;
+import org.apache.cordova.CordovaPreferences;
+import org.apache.cordova.CordovaWebView;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A {@link PushIOManagerPlugin} initialized on the shims as Cordova does it, with
+ * its own data directory, for benchmarks that call into the plugin.
+ */
+class PushIOBenchmarkPlugin {
+    private final File mDataDirectory;
+    private final PushIOManagerPlugin mPlugin;
+
+    PushIOBenchmarkPlugin(CordovaPreferences preferences) throws IOException {
+        mDataDirectory = Files.createTempDirectory("pushio-benchmark").toFile();
+        final Activity activity = new Activity(mDataDirectory);
+        CordovaInterface cordova = new CordovaInterface() {
+            @Override
+            public Activity getActivity() {
+                return activity;
+            }
+
+            @Override
+            public Context getContext() {
+                return activity;
+            }
+
+            @Override
+            public ExecutorService getThreadPool() {
+                return null;
+            }
+        };
+        CordovaWebView webView = new CordovaWebView() {
+        };
+
+        mPlugin = new PushIOManagerPlugin();
+        mPlugin.privateInitialize("PushIOManagerPlugin", cordova, webView, preferences);
+    }
+
+    PushIOManagerPlugin plugin() {
+        return mPlugin;
+    }
+
+    void destroy() {
+        mPlugin.onDestroy();
+        delete(mDataDirectory);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
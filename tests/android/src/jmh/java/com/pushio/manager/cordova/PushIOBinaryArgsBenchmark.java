@@ -0,0 +1,264 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code trackEvent} arguments as JSON read by {@link PushIOJsonParser},
+ * against a binary transport as cordova-android would carry it: the JS side
+ * encodes the arguments in a compact MessagePack-style format, {@code cordova.exec}
+ * base64-encodes the ArrayBuffer into the JSON argument string, and the native
+ * side extracts the string, base64-decodes it and decodes the binary form into
+ * the same {@code HashMap}/{@code ArrayList} properties.
+ *
+ * <p>{@code binaryDecode} is the binary path without the bridge string, i.e. the
+ * least a binary mode could cost if Android had a binary channel. {@code properties}
+ * is the number of event properties.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushIOBinaryArgsBenchmark {
+    @Param({"100", "1000", "5000"})
+    public int properties;
+
+    private String mJsonArgs;
+    private String mBinaryArgs;
+    private byte[] mBinary;
+
+    @Setup
+    public void setUp() throws JSONException {
+        Map<String, Object> event = new LinkedHashMap<>();
+        for (int i = 0; i < properties; i++) {
+            switch (i % 5) {
+                case 0:
+                    event.put("property" + i, "value " + i);
+                    break;
+                case 1:
+                    event.put("property" + i, (long) i * 1000);
+                    break;
+                case 2:
+                    event.put("property" + i, i * 0.25);
+                    break;
+                case 3:
+                    event.put("property" + i, (i % 10) == 3);
+                    break;
+                default:
+                    List<Object> tags = new ArrayList<>();
+                    tags.add("tag" + i);
+                    tags.add((long) i);
+                    Map<String, Object> nested = new LinkedHashMap<>();
+                    nested.put("id", (long) i);
+                    nested.put("tags", tags);
+                    event.put("property" + i, nested);
+                    break;
+            }
+        }
+        List<Object> args = new ArrayList<>();
+        args.add("screen_view");
+        args.add(event);
+
+        mJsonArgs = new JSONArray(args).toString();
+        mBinary = CompactCodec.encode(args);
+        mBinaryArgs = new JSONArray().put(new JSONObject()
+                .put("CDVType", "ArrayBuffer")
+                .put("data", Base64.getEncoder().encodeToString(mBinary))).toString();
+    }
+
+    /**
+     * The current path: the raw bridge string read once by the streaming parser.
+     */
+    @Benchmark
+    public Map<String, Object> json() throws JSONException {
+        return PushIOJsonParser.parseArgs(mJsonArgs).optMap(1);
+    }
+
+    /**
+     * An ArrayBuffer argument over the bridge: the argument string is parsed to
+     * reach the base64 data, as {@code CordovaArgs} does, decoded and then read by
+     * the binary decoder.
+     */
+    @Benchmark
+    public Map<String, Object> binaryOverBridge() throws JSONException {
+        String data = new JSONArray(mBinaryArgs).getJSONObject(0).getString("data");
+        return eventOf(CompactCodec.decode(Base64.getDecoder().decode(data)));
+    }
+
+    /**
+     * The binary decoder alone, on bytes that are already native.
+     */
+    @Benchmark
+    public Map<String, Object> binaryDecode() {
+        return eventOf(CompactCodec.decode(mBinary));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> eventOf(Object args) {
+        return (Map<String, Object>) ((List<Object>) args).get(1);
+    }
+
+    /**
+     * A MessagePack subset: nil, booleans, 64-bit integers and floats, UTF-8
+     * strings, arrays and maps, all with 32-bit lengths.
+     */
+    private static final class CompactCodec {
+        private static final int NIL = 0xc0;
+        private static final int FALSE = 0xc2;
+        private static final int TRUE = 0xc3;
+        private static final int FLOAT64 = 0xcb;
+        private static final int INT64 = 0xd3;
+        private static final int STR32 = 0xdb;
+        private static final int ARRAY32 = 0xdd;
+        private static final int MAP32 = 0xdf;
+
+        private final byte[] mBytes;
+        private int mPosition;
+
+        private CompactCodec(byte[] bytes) {
+            mBytes = bytes;
+        }
+
+        static byte[] encode(Object value) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            write(out, value);
+            return out.toByteArray();
+        }
+
+        @SuppressWarnings("unchecked")
+        private static void write(ByteArrayOutputStream out, Object value) {
+            if (value == null) {
+                out.write(NIL);
+            } else if (value instanceof Boolean) {
+                out.write((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Double) {
+                out.write(FLOAT64);
+                writeLong(out, Double.doubleToLongBits((Double) value));
+            } else if (value instanceof Number) {
+                out.write(INT64);
+                writeLong(out, ((Number) value).longValue());
+            } else if (value instanceof String) {
+                byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+                out.write(STR32);
+                writeInt(out, utf8.length);
+                out.write(utf8, 0, utf8.length);
+            } else if (value instanceof List) {
+                List<Object> list = (List<Object>) value;
+                out.write(ARRAY32);
+                writeInt(out, list.size());
+                for (Object item : list) {
+                    write(out, item);
+                }
+            } else {
+                Map<String, Object> map = (Map<String, Object>) value;
+                out.write(MAP32);
+                writeInt(out, map.size());
+                for (Map.Entry<String, Object> entry : map.entrySet()) {
+                    write(out, entry.getKey());
+                    write(out, entry.getValue());
+                }
+            }
+        }
+
+        private static void writeInt(ByteArrayOutputStream out, int value) {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+        }
+
+        private static void writeLong(ByteArrayOutputStream out, long value) {
+            writeInt(out, (int) (value >>> 32));
+            writeInt(out, (int) value);
+        }
+
+        static Object decode(byte[] bytes) {
+            return new CompactCodec(bytes).read();
+        }
+
+        private Object read() {
+            final int type = mBytes[mPosition++] & 0xff;
+            switch (type) {
+                case NIL:
+                    return null;
+                case FALSE:
+                    return Boolean.FALSE;
+                case TRUE:
+                    return Boolean.TRUE;
+                case FLOAT64:
+                    return Double.longBitsToDouble(readLong());
+                case INT64:
+                    return readLong();
+                case STR32:
+                    return readString();
+                case ARRAY32: {
+                    final int size = readInt();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(read());
+                    }
+                    return list;
+                }
+                case MAP32: {
+                    final int size = readInt();
+                    Map<String, Object> map = new HashMap<>((int) (size / 0.75f) + 1);
+                    for (int i = 0; i < size; i++) {
+                        mPosition++;
+                        final String key = readString();
+                        map.put(key, read());
+                    }
+                    return map;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown type " + type);
+            }
+        }
+
+        private String readString() {
+            final int length = readInt();
+            final String value = new String(mBytes, mPosition, length, StandardCharsets.UTF_8);
+            mPosition += length;
+            return value;
+        }
+
+        private int readInt() {
+            final int value = ((mBytes[mPosition] & 0xff) << 24) | ((mBytes[mPosition + 1] & 0xff) << 16)
+                    | ((mBytes[mPosition + 2] & 0xff) << 8) | (mBytes[mPosition + 3] & 0xff);
+            mPosition += 4;
+            return value;
+        }
+
+        private long readLong() {
+            return ((long) readInt() << 32) | (readInt() & 0xffffffffL);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the two dates of each message of an inbox of {@code messages}
+ * messages, with the cached per-thread formatter of {@link PushIODateFormatter}
+ * against a new {@code SimpleDateFormat} per date as before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushIODateFormatterBenchmark {
+    @Param({"10", "100", "1000"})
+    public int messages;
+
+    private Date[] mDates;
+
+    @Setup
+    public void setUp() {
+        mDates = new Date[messages * 2];
+        for (int i = 0; i < mDates.length; i++) {
+            mDates[i] = new Date(1600000000000L + i * 3600000L);
+        }
+    }
+
+    @Benchmark
+    public void cachedFormatter(Blackhole blackhole) {
+        for (Date date : mDates) {
+            blackhole.consume(PushIODateFormatter.format(date));
+        }
+    }
+
+    @Benchmark
+    public void newFormatter(Blackhole blackhole) {
+        for (Date date : mDates) {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZZZZZ", Locale.getDefault());
+            format.setTimeZone(TimeZone.getDefault());
+            blackhole.consume(format.format(date));
+        }
+    }
+}
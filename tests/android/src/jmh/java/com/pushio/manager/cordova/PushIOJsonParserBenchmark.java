@@ -0,0 +1,92 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PushIOJsonParser} against parsing a {@code JSONObject} and copying it
+ * with {@code toMap}, over event payloads of {@code properties} leaf values nested
+ * {@code depth} levels deep. Compare {@code gc.alloc.rate.norm} for the bytes
+ * allocated per payload.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushIOJsonParserBenchmark {
+    @Param({"10", "100", "1000", "5000"})
+    public int properties;
+
+    @Param({"1", "3", "6"})
+    public int depth;
+
+    private String mJson;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder(properties * 32);
+        appendObject(json, properties, 1, depth);
+        mJson = json.toString();
+    }
+
+    private static void appendObject(StringBuilder json, int properties, int level, int depth) {
+        final int leaves = (level < depth) ? Math.max(1, properties / 2) : properties;
+        json.append('{');
+        for (int i = 0; i < leaves; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\"property").append(i).append("\":");
+            switch (i % 4) {
+                case 0:
+                    json.append("\"value ").append(i).append('"');
+                    break;
+                case 1:
+                    json.append(i * 1000);
+                    break;
+                case 2:
+                    json.append((i % 8) == 2);
+                    break;
+                default:
+                    json.append("[\"tag").append(i).append("\",").append(i).append(']');
+                    break;
+            }
+        }
+        if (level < depth && properties > leaves) {
+            json.append(",\"child\":");
+            appendObject(json, properties - leaves, level + 1, depth);
+        }
+        json.append('}');
+    }
+
+    @Benchmark
+    public Map<String, Object> parser() throws JSONException {
+        return PushIOJsonParser.parseObject(mJson);
+    }
+
+    @Benchmark
+    public Map<String, Object> toMapOfJSONObject() throws JSONException {
+        return PushIOManagerPluginUtils.toMap(new JSONObject(mJson));
+    }
+}
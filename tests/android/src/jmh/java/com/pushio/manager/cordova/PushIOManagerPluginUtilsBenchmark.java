@@ -0,0 +1,219 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import com.pushio.manager.PIOBeaconRegion;
+import com.pushio.manager.PIOGeoRegion;
+import com.pushio.manager.PIOInteractiveNotificationButton;
+import com.pushio.manager.PIOInteractiveNotificationCategory;
+import com.pushio.manager.PIOMCMessage;
+import com.pushio.manager.PIORegionEventType;
+import com.pushio.manager.preferences.PushIOPreference;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline for the conversions between bridge JSON and SDK objects.
+ *
+ * <p>{@code size} is the number of entries in each payload: properties of an
+ * event, preferences, inbox messages, category buttons or region extras. The
+ * sweep runs from a typical call to a large one. Run with {@code gradle jmh}; the
+ * gc profiler reports {@code gc.alloc.rate.norm}, the bytes allocated per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushIOManagerPluginUtilsBenchmark {
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private String mObjectJson;
+    private JSONObject mObject;
+    private JSONArray mArray;
+    private JSONObject mFlatObject;
+    private List<PushIOPreference> mPreferences;
+    private List<PIOMCMessage> mMessages;
+    private PIOInteractiveNotificationCategory mCategory;
+    private JSONObject mGeoRegion;
+    private JSONObject mBeaconRegion;
+
+    @Setup
+    public void setUp() throws JSONException {
+        mObject = new JSONObject();
+        mFlatObject = new JSONObject();
+        mArray = new JSONArray();
+        for (int i = 0; i < size; i++) {
+            // A mix of the value types an event carries, with some nesting.
+            switch (i % 4) {
+                case 0:
+                    mObject.put("key" + i, "value-" + i);
+                    break;
+                case 1:
+                    mObject.put("key" + i, i * 1.5);
+                    break;
+                case 2:
+                    mObject.put("key" + i, new JSONArray().put(i).put("item").put(true));
+                    break;
+                default:
+                    mObject.put("key" + i, new JSONObject().put("id", i).put("name", "nested-" + i));
+                    break;
+            }
+            mFlatObject.put("key" + i, "value-" + i);
+            mArray.put(new JSONObject().put("id", i).put("tags", new JSONArray().put("a").put("b")));
+        }
+        mObjectJson = mObject.toString();
+
+        mPreferences = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            switch (i % 3) {
+                case 0:
+                    mPreferences.add(new PushIOPreference("pref" + i, "Preference " + i,
+                            PushIOPreference.Type.STRING, "value-" + i));
+                    break;
+                case 1:
+                    mPreferences.add(new PushIOPreference("pref" + i, "Preference " + i,
+                            PushIOPreference.Type.NUMBER, i * 0.5));
+                    break;
+                default:
+                    mPreferences.add(new PushIOPreference("pref" + i, "Preference " + i,
+                            PushIOPreference.Type.BOOLEAN, (i & 1) == 0));
+                    break;
+            }
+        }
+
+        mMessages = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PIOMCMessage message = new PIOMCMessage();
+            message.setId("message-" + i);
+            message.setSubject("Subject " + i);
+            message.setMessage("Body of message " + i);
+            message.setIconUrl("https://example.com/icons/" + i + ".png");
+            message.setMessageCenterName("Primary");
+            message.setDeeplinkUrl("app://inbox/" + i);
+            message.setRichMessageHtml("<html><body><p>Rich content " + i + "</p></body></html>");
+            message.setRichMessageUrl("https://example.com/rich/" + i);
+            message.setSentTimestamp(new Date(1600000000000L + i * 60000L));
+            message.setExpiryTimestamp(new Date(1700000000000L + i * 60000L));
+            mMessages.add(message);
+        }
+
+        mCategory = new PIOInteractiveNotificationCategory();
+        mCategory.setCategory("category");
+        for (int i = 0; i < size; i++) {
+            PIOInteractiveNotificationButton button = new PIOInteractiveNotificationButton();
+            button.setId("button" + i);
+            button.setAction("FG");
+            button.setLabel("Button " + i);
+            mCategory.addInteractiveNotificationButton(button);
+        }
+
+        JSONObject extra = new JSONObject();
+        for (int i = 0; i < size; i++) {
+            extra.put("extra" + i, "value-" + i);
+        }
+        mGeoRegion = new JSONObject()
+                .put("geofenceId", "geofence-1")
+                .put("geofenceName", "Store")
+                .put("zoneName", "Zone")
+                .put("zoneId", "zone-1")
+                .put("source", "app")
+                .put("deviceBearing", 90.0)
+                .put("deviceSpeed", 1.5)
+                .put("dwellTime", 30)
+                .put("extra", extra);
+        mBeaconRegion = new JSONObject()
+                .put("beaconId", "beacon-1")
+                .put("beaconName", "Entrance")
+                .put("beaconTag", "tag")
+                .put("beaconProximity", "Near")
+                .put("iBeaconUUID", "2f234454-cf6d-4a0f-adf2-f4911ba9ffa6")
+                .put("iBeaconMajor", 1)
+                .put("iBeaconMinor", 2)
+                .put("zoneName", "Zone")
+                .put("zoneId", "zone-1")
+                .put("source", "app")
+                .put("dwellTime", 30)
+                .put("extra", extra);
+    }
+
+    @Benchmark
+    public Map<String, Object> toMap() throws JSONException {
+        return PushIOManagerPluginUtils.toMap(mObject);
+    }
+
+    /**
+     * The bridge path as a whole: arguments arrive as a string.
+     */
+    @Benchmark
+    public Map<String, Object> parseAndToMap() throws JSONException {
+        return PushIOManagerPluginUtils.toMap(new JSONObject(mObjectJson));
+    }
+
+    /**
+     * The same path through the streaming parser.
+     */
+    @Benchmark
+    public Map<String, Object> parseObject() throws JSONException {
+        return PushIOJsonParser.parseObject(mObjectJson);
+    }
+
+    @Benchmark
+    public List<Object> toList() throws JSONException {
+        return PushIOManagerPluginUtils.toList(mArray);
+    }
+
+    @Benchmark
+    public Map<String, String> toMapStr() throws JSONException {
+        return PushIOManagerPluginUtils.toMapStr(mFlatObject);
+    }
+
+    @Benchmark
+    public JSONArray preferencesAsJsonArray() {
+        return PushIOManagerPluginUtils.preferencesAsJsonArray(mPreferences);
+    }
+
+    @Benchmark
+    public JSONArray messageCenterMessagesAsJSONArray() {
+        return PushIOManagerPluginUtils.messageCenterMessagesAsJSONArray(mMessages);
+    }
+
+    @Benchmark
+    public JSONObject notificationCategoryAsJson() {
+        return PushIOManagerPluginUtils.notificationCategoryAsJson(mCategory);
+    }
+
+    @Benchmark
+    public PIOGeoRegion geoRegionFromJson() {
+        return PushIOManagerPluginUtils.geoRegionFromJson(mGeoRegion, PIORegionEventType.GEOFENCE_ENTRY);
+    }
+
+    @Benchmark
+    public PIOBeaconRegion beaconRegionFromJson() {
+        return PushIOManagerPluginUtils.beaconRegionFromJson(mBeaconRegion, PIORegionEventType.BEACON_ENTRY);
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import com.google.firebase.messaging.RemoteMessage;
+import com.pushio.manager.PushIOManager;
+
+import org.apache.cordova.CordovaPreferences;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classifying the payloads passed to {@code isResponsysPush} and
+ * {@code handleMessage}, through the plugin's {@code responsysMessage}.
+ *
+ * <p>Each call takes the next payload of a mix in which {@code responsysPercent}
+ * of the payloads are Responsys pushes and the rest are other FCM pushes of the
+ * same size. {@code markerKeys} is {@code PushIOResponsysPushMarkerKeys}: empty
+ * sends every payload to the SDK, {@code ei} rejects the others from a scan of
+ * the raw string. {@code dataEntries} is the size of the data map.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushIOPushClassifierBenchmark {
+    private static final int PAYLOADS = 100;
+
+    @Param({"", "ei"})
+    public String markerKeys;
+
+    @Param({"0", "10", "100"})
+    public int responsysPercent;
+
+    @Param({"10", "100"})
+    public int dataEntries;
+
+    private PushIOBenchmarkPlugin mBenchmarkPlugin;
+    private PushIOManagerPlugin mPlugin;
+    private PushIOPushClassifier mClassifier;
+    private String[] mPayloads;
+    private int mNext;
+
+    /**
+     * Plays the SDK, for which a push with an {@code ei} entry is a Responsys push.
+     */
+    private static class FakeSdk extends PushIOManager {
+        @Override
+        public boolean isResponsysPayload(RemoteMessage remoteMessage) {
+            return remoteMessage.getData().containsKey("ei");
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        PushIOManager.setInstance(new FakeSdk());
+        CordovaPreferences preferences = new CordovaPreferences();
+        preferences.set("PushIOResponsysPushMarkerKeys", markerKeys);
+        mBenchmarkPlugin = new PushIOBenchmarkPlugin(preferences);
+        mPlugin = mBenchmarkPlugin.plugin();
+        mClassifier = new PushIOPushClassifier(markerKeys);
+
+        mPayloads = new String[PAYLOADS];
+        for (int i = 0; i < PAYLOADS; i++) {
+            mPayloads[i] = payload(i, i < responsysPercent * PAYLOADS / 100);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mBenchmarkPlugin.destroy();
+        PushIOManager.setInstance(null);
+    }
+
+    /**
+     * The bridge arguments of a push: the RemoteMessage fields and a data map of
+     * string values, some of them JSON like the ones push providers send.
+     */
+    private String payload(int index, boolean responsys) throws JSONException {
+        JSONObject data = new JSONObject();
+        if (responsys) {
+            data.put("ei", "engagement-" + index);
+        }
+        data.put("alert", "Message " + index + " with an \"ei\": in the text");
+        for (int i = 1; i < dataEntries; i++) {
+            if (i % 5 == 0) {
+                data.put("key" + i, new JSONObject().put("tag", "ei").put("id", i).toString());
+            } else {
+                data.put("key" + i, "value-" + index + "-" + i);
+            }
+        }
+        JSONObject message = new JSONObject()
+                .put("to", "sender@fcm.googleapis.com")
+                .put("messageId", "0:" + index)
+                .put("messageType", "data")
+                .put("collapseKey", "app")
+                .put("ttl", 2419200)
+                .put("data", data);
+        return new JSONArray().put(message).toString();
+    }
+
+    private String nextPayload() {
+        final String payload = mPayloads[mNext];
+        mNext = (mNext + 1) % PAYLOADS;
+        return payload;
+    }
+
+    /**
+     * The whole check as the actions run it: scan, then parse and ask the SDK.
+     */
+    @Benchmark
+    public RemoteMessage responsysMessage() throws JSONException {
+        return mPlugin.responsysMessage(nextPayload());
+    }
+
+    /**
+     * The scan alone.
+     */
+    @Benchmark
+    public boolean mayBeResponsys() {
+        return mClassifier.mayBeResponsys(nextPayload());
+    }
+}
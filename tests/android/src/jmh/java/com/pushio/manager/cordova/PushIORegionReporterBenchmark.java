@@ -0,0 +1,89 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import com.pushio.manager.PIOGeoRegion;
+import com.pushio.manager.PIORegionCompletionListener;
+import com.pushio.manager.PIORegionEventType;
+import com.pushio.manager.PIORegionException;
+import com.pushio.manager.PushIOManager;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reporting a geofence entry through {@link PushIORegionReporter}, against the
+ * listener-and-JSONObject path each region action had before the reporter. The
+ * SDK answers at once, so {@code gc.alloc.rate.norm} is the bytes allocated per
+ * reported region.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushIORegionReporterBenchmark {
+    private PushIOManager mSdk;
+    private PushIORegionReporter mReporter;
+    private PIOGeoRegion mRegion;
+    private CallbackContext mCallbackContext;
+
+    /**
+     * Plays the SDK, answering every report at once.
+     */
+    private static class FakeSdk extends PushIOManager {
+        @Override
+        public void onGeoRegionEntered(PIOGeoRegion region, PIORegionCompletionListener listener) {
+            listener.onRegionReported("geo", PIORegionEventType.GEOFENCE_ENTRY, null);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        mSdk = new FakeSdk();
+        mReporter = new PushIORegionReporter(mSdk);
+        mRegion = new PIOGeoRegion();
+        mCallbackContext = new CallbackContext("callback", null);
+    }
+
+    @Benchmark
+    public void reporter() {
+        mReporter.report(PIORegionEventType.GEOFENCE_ENTRY, mRegion, null, mCallbackContext);
+    }
+
+    @Benchmark
+    public void listenerAndJSONObject() {
+        final CallbackContext callbackContext = mCallbackContext;
+        mSdk.onGeoRegionEntered(mRegion, new PIORegionCompletionListener() {
+            @Override
+            public void onRegionReported(String regionId, PIORegionEventType type, PIORegionException e) {
+                try {
+                    JSONObject jsonObject = new JSONObject();
+                    jsonObject.put("regionID", regionId);
+                    jsonObject.put("regionType", type);
+                    callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.OK,
+                            jsonObject.toString()));
+                } catch (Exception ex) {
+                    callbackContext.error(ex.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package android.app;
+
+import android.content.Context;
+import android.content.Intent;
+
+import java.io.File;
+
+/**
+ * JVM stand-in for the Android class of the same name.
+ */
+public class Activity extends Context {
+    private Intent mIntent = new Intent();
+
+    public Activity(File dataDirectory) {
+        super(dataDirectory);
+    }
+
+    public Intent getIntent() {
+        return mIntent;
+    }
+
+    public void setIntent(Intent intent) {
+        mIntent = intent;
+    }
+}
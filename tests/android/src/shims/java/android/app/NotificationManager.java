@@ -0,0 +1,17 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package android.app;
+
+import android.service.notification.StatusBarNotification;
+
+/**
+ * JVM stand-in for the Android class of the same name. No notifications are shown.
+ */
+public class NotificationManager {
+    public StatusBarNotification[] getActiveNotifications() {
+        return new StatusBarNotification[0];
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package android.content;
+
+import android.app.NotificationManager;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in for the Android class of the same name. Files and caches live
+ * under the directory it is created with; shared preferences are kept in memory.
+ */
+public class Context {
+    public static final int MODE_PRIVATE = 0;
+    public static final String NOTIFICATION_SERVICE = "notification";
+
+    private final File mDataDirectory;
+    private final Map<String, MemorySharedPreferences> mSharedPreferences = new HashMap<>();
+
+    public Context(File dataDirectory) {
+        mDataDirectory = dataDirectory;
+    }
+
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    public File getFilesDir() {
+        return new File(mDataDirectory, "files");
+    }
+
+    public File getCacheDir() {
+        return new File(mDataDirectory, "cache");
+    }
+
+    public Object getSystemService(String name) {
+        return NOTIFICATION_SERVICE.equals(name) ? new NotificationManager() : null;
+    }
+
+    public Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter) {
+        return null;
+    }
+
+    public void unregisterReceiver(BroadcastReceiver receiver) {
+    }
+
+    public synchronized SharedPreferences getSharedPreferences(String name, int mode) {
+        MemorySharedPreferences preferences = mSharedPreferences.get(name);
+        if (preferences == null) {
+            preferences = new MemorySharedPreferences();
+            mSharedPreferences.put(name, preferences);
+        }
+        return preferences;
+    }
+
+    private static class MemorySharedPreferences implements SharedPreferences {
+        private final Map<String, String> mValues = new HashMap<>();
+
+        @Override
+        public synchronized String getString(String key, String defValue) {
+            return mValues.containsKey(key) ? mValues.get(key) : defValue;
+        }
+
+        @Override
+        public Editor edit() {
+            return new Editor() {
+                private final Map<String, String> mChanges = new HashMap<>();
+                private boolean mClear;
+
+                @Override
+                public Editor putString(String key, String value) {
+                    mChanges.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor remove(String key) {
+                    mChanges.put(key, null);
+                    return this;
+                }
+
+                @Override
+                public Editor clear() {
+                    mClear = true;
+                    return this;
+                }
+
+                @Override
+                public void apply() {
+                    commit();
+                }
+
+                @Override
+                public boolean commit() {
+                    synchronized (MemorySharedPreferences.this) {
+                        if (mClear) {
+                            mValues.clear();
+                        }
+                        for (Map.Entry<String, String> change : mChanges.entrySet()) {
+                            if (change.getValue() == null) {
+                                mValues.remove(change.getKey());
+                            } else {
+                                mValues.put(change.getKey(), change.getValue());
+                            }
+                        }
+                    }
+                    return true;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package android.content;
+
+import android.net.Uri;
+import android.os.Bundle;
+
+/**
+ * JVM stand-in for {@code android.content.Intent}, with the actions and accessors
+ * the plugin uses.
+ */
+public class Intent {
+    public static final String ACTION_TIMEZONE_CHANGED = "android.intent.action.TIMEZONE_CHANGED";
+    public static final String ACTION_LOCALE_CHANGED = "android.intent.action.LOCALE_CHANGED";
+
+    public String getAction() {
+        return null;
+    }
+
+    public Uri getData() {
+        return null;
+    }
+
+    public String getDataString() {
+        return null;
+    }
+
+    public Bundle getExtras() {
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package android.content;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM stand-in for {@code android.content.IntentFilter}.
+ */
+public class IntentFilter {
+    private final List<String> mActions = new ArrayList<>();
+
+    public IntentFilter(String action) {
+        mActions.add(action);
+    }
+
+    public void addAction(String action) {
+        mActions.add(action);
+    }
+
+    public final int countActions() {
+        return mActions.size();
+    }
+
+    public final String getAction(int index) {
+        return mActions.get(index);
+    }
+}
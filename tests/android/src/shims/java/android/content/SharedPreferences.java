@@ -0,0 +1,28 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package android.content;
+
+/**
+ * JVM stand-in for the Android interface of the same name, with only the
+ * methods the plugin calls.
+ */
+public interface SharedPreferences {
+    String getString(String key, String defValue);
+
+    Editor edit();
+
+    interface Editor {
+        Editor putString(String key, String value);
+
+        Editor remove(String key);
+
+        Editor clear();
+
+        void apply();
+
+        boolean commit();
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package android.net;
+
+/**
+ * JVM stand-in for the Android class of the same name.
+ */
+public class Uri {
+}
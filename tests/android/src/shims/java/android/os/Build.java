@@ -0,0 +1,22 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package android.os;
+
+/**
+ * JVM stand-in for the Android class of the same name, reporting API level 30.
+ */
+public class Build {
+    public static class VERSION {
+        public static final int SDK_INT = 30;
+    }
+
+    public static class VERSION_CODES {
+        public static final int JELLY_BEAN_MR2 = 18;
+        public static final int M = 23;
+        public static final int N = 24;
+        public static final int O = 26;
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package android.os;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JVM stand-in for the Android class of the same name.
+ */
+public class Bundle {
+    private final Map<String, Object> mValues = new LinkedHashMap<>();
+
+    public Set<String> keySet() {
+        return mValues.keySet();
+    }
+
+    public Object get(String key) {
+        return mValues.get(key);
+    }
+
+    public void putString(String key, String value) {
+        mValues.put(key, value);
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package android.service.notification;
+
+/**
+ * JVM stand-in for the Android class of the same name.
+ */
+public class StatusBarNotification {
+    private final long mPostTime;
+
+    public StatusBarNotification(long postTime) {
+        mPostTime = postTime;
+    }
+
+    public long getPostTime() {
+        return mPostTime;
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package android.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in for {@code android.util.LruCache}, with the methods the tested
+ * classes use.
+ */
+public class LruCache<K, V> {
+    private final LinkedHashMap<K, V> mMap = new LinkedHashMap<>(16, 0.75f, true);
+    private final int mMaxSize;
+    private int mSize;
+
+    public LruCache(int maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    public final synchronized V get(K key) {
+        return mMap.get(key);
+    }
+
+    public final V put(K key, V value) {
+        V previous;
+        synchronized (this) {
+            mSize += sizeOf(key, value);
+            previous = mMap.put(key, value);
+            if (previous != null) {
+                mSize -= sizeOf(key, previous);
+            }
+        }
+        if (previous != null) {
+            entryRemoved(false, key, previous, value);
+        }
+        trimToSize(mMaxSize);
+        return previous;
+    }
+
+    public final V remove(K key) {
+        V previous;
+        synchronized (this) {
+            previous = mMap.remove(key);
+            if (previous != null) {
+                mSize -= sizeOf(key, previous);
+            }
+        }
+        if (previous != null) {
+            entryRemoved(false, key, previous, null);
+        }
+        return previous;
+    }
+
+    public final void evictAll() {
+        trimToSize(-1);
+    }
+
+    public final synchronized int size() {
+        return mSize;
+    }
+
+    public final synchronized int maxSize() {
+        return mMaxSize;
+    }
+
+    private void trimToSize(int maxSize) {
+        while (true) {
+            K key;
+            V value;
+            synchronized (this) {
+                if (mSize <= maxSize || mMap.isEmpty()) {
+                    return;
+                }
+                Iterator<Map.Entry<K, V>> eldest = mMap.entrySet().iterator();
+                Map.Entry<K, V> entry = eldest.next();
+                key = entry.getKey();
+                value = entry.getValue();
+                eldest.remove();
+                mSize -= sizeOf(key, value);
+            }
+            entryRemoved(true, key, value, null);
+        }
+    }
+
+    protected int sizeOf(K key, V value) {
+        return 1;
+    }
+
+    protected void entryRemoved(boolean evicted, K key, V oldValue, V newValue) {
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.google.firebase.messaging;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * JVM stand-in for the Firebase class of the same name.
+ */
+public class RemoteMessage {
+    private final String mTo;
+    private final Map<String, String> mData;
+
+    private RemoteMessage(String to, Map<String, String> data) {
+        mTo = to;
+        mData = data;
+    }
+
+    public String getTo() {
+        return mTo;
+    }
+
+    public Map<String, String> getData() {
+        return mData;
+    }
+
+    public static class Builder {
+        private final String mTo;
+        private Map<String, String> mData = Collections.emptyMap();
+
+        public Builder(String to) {
+            mTo = to;
+        }
+
+        public Builder setMessageId(String messageId) {
+            return this;
+        }
+
+        public Builder setMessageType(String messageType) {
+            return this;
+        }
+
+        public Builder setCollapseKey(String collapseKey) {
+            return this;
+        }
+
+        public Builder setTtl(int ttl) {
+            return this;
+        }
+
+        public Builder setData(Map<String, String> data) {
+            mData = data;
+            return this;
+        }
+
+        public RemoteMessage build() {
+            return new RemoteMessage(mTo, mData);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager;
+
+/**
+ * JVM stand-in for the SDK class of the same name.
+ */
+public class PIOBeaconRegion extends PIORegion {
+    private String mBeaconId;
+    private String mBeaconName;
+    private String mBeaconTag;
+    private String mBeaconProximity;
+    private String mIBeaconUUID;
+    private int mIBeaconMajor;
+    private int mIBeaconMinor;
+    private String mEddyStoneID1;
+    private String mEddyStoneID2;
+
+    public void setBeaconId(String beaconId) {
+        mBeaconId = beaconId;
+    }
+
+    public String getBeaconId() {
+        return mBeaconId;
+    }
+
+    public void setBeaconName(String beaconName) {
+        mBeaconName = beaconName;
+    }
+
+    public void setBeaconTag(String beaconTag) {
+        mBeaconTag = beaconTag;
+    }
+
+    public void setBeaconProximity(String beaconProximity) {
+        mBeaconProximity = beaconProximity;
+    }
+
+    public void setiBeaconUUID(String iBeaconUUID) {
+        mIBeaconUUID = iBeaconUUID;
+    }
+
+    public void setiBeaconMajor(int iBeaconMajor) {
+        mIBeaconMajor = iBeaconMajor;
+    }
+
+    public void setiBeaconMinor(int iBeaconMinor) {
+        mIBeaconMinor = iBeaconMinor;
+    }
+
+    public void setEddyStoneID1(String eddyStoneID1) {
+        mEddyStoneID1 = eddyStoneID1;
+    }
+
+    public void setEddyStoneID2(String eddyStoneID2) {
+        mEddyStoneID2 = eddyStoneID2;
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager;
+
+/**
+ * JVM stand-in for the SDK class of the same name.
+ */
+public class PIOGeoRegion extends PIORegion {
+    private String mGeofenceId;
+    private String mGeofenceName;
+    private double mDeviceBearing;
+    private double mDeviceSpeed;
+
+    public void setGeofenceId(String geofenceId) {
+        mGeofenceId = geofenceId;
+    }
+
+    public String getGeofenceId() {
+        return mGeofenceId;
+    }
+
+    public void setGeofenceName(String geofenceName) {
+        mGeofenceName = geofenceName;
+    }
+
+    public void setDeviceBearing(double deviceBearing) {
+        mDeviceBearing = deviceBearing;
+    }
+
+    public void setDeviceSpeed(double deviceSpeed) {
+        mDeviceSpeed = deviceSpeed;
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager;
+
+/**
+ * JVM stand-in for the SDK class of the same name.
+ */
+public class PIOInteractiveNotificationButton {
+    private String mId;
+    private String mAction;
+    private String mLabel;
+
+    public String getId() {
+        return mId;
+    }
+
+    public void setId(String id) {
+        mId = id;
+    }
+
+    public String getAction() {
+        return mAction;
+    }
+
+    public void setAction(String action) {
+        mAction = action;
+    }
+
+    public String getLabel() {
+        return mLabel;
+    }
+
+    public void setLabel(String label) {
+        mLabel = label;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM stand-in for the SDK class of the same name.
+ */
+public class PIOInteractiveNotificationCategory {
+    private String mCategory;
+    private final List<PIOInteractiveNotificationButton> mButtons = new ArrayList<>();
+
+    public String getCategory() {
+        return mCategory;
+    }
+
+    public void setCategory(String category) {
+        mCategory = category;
+    }
+
+    public List<PIOInteractiveNotificationButton> getInteractiveNotificationButtons() {
+        return mButtons;
+    }
+
+    public void addInteractiveNotificationButton(PIOInteractiveNotificationButton button) {
+        mButtons.add(button);
+    }
+}
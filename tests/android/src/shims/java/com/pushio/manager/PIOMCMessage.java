@@ -0,0 +1,104 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager;
+
+import java.util.Date;
+
+/**
+ * JVM stand-in for the SDK class of the same name. The setters are for tests.
+ */
+public class PIOMCMessage {
+    private String mId;
+    private String mSubject;
+    private String mMessage;
+    private String mIconUrl;
+    private String mMessageCenterName;
+    private String mDeeplinkUrl;
+    private String mRichMessageHtml;
+    private String mRichMessageUrl;
+    private Date mSentTimestamp;
+    private Date mExpiryTimestamp;
+
+    public String getId() {
+        return mId;
+    }
+
+    public void setId(String id) {
+        mId = id;
+    }
+
+    public String getSubject() {
+        return mSubject;
+    }
+
+    public void setSubject(String subject) {
+        mSubject = subject;
+    }
+
+    public String getMessage() {
+        return mMessage;
+    }
+
+    public void setMessage(String message) {
+        mMessage = message;
+    }
+
+    public String getIconUrl() {
+        return mIconUrl;
+    }
+
+    public void setIconUrl(String iconUrl) {
+        mIconUrl = iconUrl;
+    }
+
+    public String getMessageCenterName() {
+        return mMessageCenterName;
+    }
+
+    public void setMessageCenterName(String messageCenterName) {
+        mMessageCenterName = messageCenterName;
+    }
+
+    public String getDeeplinkUrl() {
+        return mDeeplinkUrl;
+    }
+
+    public void setDeeplinkUrl(String deeplinkUrl) {
+        mDeeplinkUrl = deeplinkUrl;
+    }
+
+    public String getRichMessageHtml() {
+        return mRichMessageHtml;
+    }
+
+    public void setRichMessageHtml(String richMessageHtml) {
+        mRichMessageHtml = richMessageHtml;
+    }
+
+    public String getRichMessageUrl() {
+        return mRichMessageUrl;
+    }
+
+    public void setRichMessageUrl(String richMessageUrl) {
+        mRichMessageUrl = richMessageUrl;
+    }
+
+    public Date getSentTimestamp() {
+        return mSentTimestamp;
+    }
+
+    public void setSentTimestamp(Date sentTimestamp) {
+        mSentTimestamp = sentTimestamp;
+    }
+
+    public Date getExpiryTimestamp() {
+        return mExpiryTimestamp;
+    }
+
+    public void setExpiryTimestamp(Date expiryTimestamp) {
+        mExpiryTimestamp = expiryTimestamp;
+    }
+}
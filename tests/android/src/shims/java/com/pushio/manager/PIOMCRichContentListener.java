@@ -0,0 +1,15 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager;
+
+/**
+ * JVM stand-in for the SDK interface of the same name.
+ */
+public interface PIOMCRichContentListener {
+    void onSuccess(String messageId, String richContent);
+
+    void onFailure(String messageId, PIOMCMessageError error);
+}
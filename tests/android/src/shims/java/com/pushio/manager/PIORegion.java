@@ -0,0 +1,52 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager;
+
+import java.util.Map;
+
+/**
+ * JVM stand-in for the SDK class of the same name.
+ */
+public class PIORegion {
+    private PIORegionEventType mRegionEventType;
+    private String mZoneName;
+    private String mZoneId;
+    private String mSource;
+    private int mDwellTime;
+    private Map<String, String> mExtra;
+
+    public void setRegionEventType(PIORegionEventType regionEventType) {
+        mRegionEventType = regionEventType;
+    }
+
+    public PIORegionEventType getRegionEventType() {
+        return mRegionEventType;
+    }
+
+    public void setZoneName(String zoneName) {
+        mZoneName = zoneName;
+    }
+
+    public void setZoneId(String zoneId) {
+        mZoneId = zoneId;
+    }
+
+    public void setSource(String source) {
+        mSource = source;
+    }
+
+    public void setDwellTime(int dwellTime) {
+        mDwellTime = dwellTime;
+    }
+
+    public void setExtra(Map<String, String> extra) {
+        mExtra = extra;
+    }
+
+    public Map<String, String> getExtra() {
+        return mExtra;
+    }
+}
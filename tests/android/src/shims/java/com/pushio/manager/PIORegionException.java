@@ -0,0 +1,19 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager;
+
+/**
+ * JVM stand-in for the SDK class of the same name.
+ */
+public class PIORegionException extends Exception {
+    public PIORegionException(String message) {
+        super(message);
+    }
+
+    public String getErrorMessage() {
+        return getMessage();
+    }
+}
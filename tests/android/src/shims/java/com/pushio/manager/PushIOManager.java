@@ -0,0 +1,287 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager;
+
+import android.content.Context;
+import android.content.Intent;
+
+import com.google.firebase.messaging.RemoteMessage;
+import com.pushio.manager.exception.PIOMCMessageException;
+import com.pushio.manager.exception.PIOMCRichContentException;
+import com.pushio.manager.exception.ValidationException;
+import com.pushio.manager.preferences.PushIOPreference;
+import com.pushio.manager.tasks.PushIOEngagementListener;
+import com.pushio.manager.tasks.PushIOListener;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JVM stand-in for the SDK class of the same name. Every call does nothing and
+ * returns an empty value; tests override the calls they need to play the SDK,
+ * and install their instance with {@link #setInstance}.
+ */
+public class PushIOManager {
+    private static PushIOManager sInstance;
+
+    public static synchronized PushIOManager getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new PushIOManager();
+        }
+        return sInstance;
+    }
+
+    public static synchronized void setInstance(PushIOManager instance) {
+        sInstance = instance;
+    }
+
+    public String getAPIKey() {
+        return null;
+    }
+
+    public String getAccountToken() {
+        return null;
+    }
+
+    public void overwriteApiKey(String apiKey) {
+    }
+
+    public void overwriteAccountToken(String accountToken) {
+    }
+
+    public void configure(String fileName, PIOConfigurationListener listener) {
+    }
+
+    public void registerPushIOListener(PushIOListener listener) {
+    }
+
+    public void registerApp(boolean useLocation) {
+    }
+
+    public void unregisterApp() {
+    }
+
+    public void unregisterDevice() {
+    }
+
+    public void setDeviceToken(String deviceToken) {
+    }
+
+    public String getDeviceId() {
+        return null;
+    }
+
+    public String getLibVersion() {
+        return null;
+    }
+
+    public void setExternalDeviceTrackingID(String edti) {
+    }
+
+    public String getExternalDeviceTrackingID() {
+        return null;
+    }
+
+    public void setAdvertisingID(String adid) {
+    }
+
+    public String getAdvertisingID() {
+        return null;
+    }
+
+    public void registerUserId(String userId) {
+    }
+
+    public String getRegisteredUserId() {
+        return null;
+    }
+
+    public void unregisterUserId() {
+    }
+
+    public String getVerifiedUserId() {
+        return null;
+    }
+
+    public void setVerifiedUserId(String verifiedUserId) {
+    }
+
+    public void declarePreference(String key, String label, PushIOPreference.Type type) throws ValidationException {
+    }
+
+    public List<PushIOPreference> getPreferences() {
+        return null;
+    }
+
+    public PushIOPreference getPreference(String key) {
+        return null;
+    }
+
+    public void setPreference(String key, String value) throws ValidationException {
+    }
+
+    public void setPreference(String key, Number value) throws ValidationException {
+    }
+
+    public void setPreference(String key, boolean value) throws ValidationException {
+    }
+
+    public void removePreference(String key) {
+    }
+
+    public void clearAllPreferences() {
+    }
+
+    public void trackEvent(String eventType, Map<String, Object> properties) {
+    }
+
+    public void trackEngagement(int metric, Map<String, String> attributes, Map<String, String> properties, PushIOEngagementListener listener) {
+    }
+
+    public String getEngagementTimestamp() {
+        return null;
+    }
+
+    public long getEngagementMaxAge() {
+        return 0;
+    }
+
+    public void resetEngagementContext() {
+    }
+
+    public void trackEmailConversion(Intent intent, PIODeepLinkListener listener) {
+    }
+
+    public String getConversionUrl() {
+        return null;
+    }
+
+    public String getRIAppId() {
+        return null;
+    }
+
+    public void setExecuteRsysWebUrl(boolean execute, PIORsysIAMHyperlinkListener listener) {
+    }
+
+    public boolean getExecuteRsysWebUrl() {
+        return false;
+    }
+
+    public void setLogLevel(int logLevel) {
+    }
+
+    public void setLoggingEnabled(boolean enabled) {
+    }
+
+    public void setCrashLoggingEnabled(boolean enabled) {
+    }
+
+    public boolean isCrashLoggingEnabled() {
+        return false;
+    }
+
+    public void setInAppFetchEnabled(boolean enabled) {
+    }
+
+    public void clearInAppMessages() {
+    }
+
+    public void setNotificationsStacked(boolean stacked) {
+    }
+
+    public boolean getNotificationStacked() {
+        return false;
+    }
+
+    public void setDefaultSmallIcon(int icon) {
+    }
+
+    public void setDefaultLargeIcon(int icon) {
+    }
+
+    public void delayRichPushDisplay(boolean delay) {
+    }
+
+    public boolean isRichPushDelaySet() {
+        return false;
+    }
+
+    public void showRichPushMessage() {
+    }
+
+    public boolean isMessageCenterEnabled() {
+        return false;
+    }
+
+    public void setMessageCenterEnabled(boolean enabled) {
+    }
+
+    public void fetchMessagesForMessageCenter(String messageCenter, PIOMCMessageListener listener) throws PIOMCMessageException {
+    }
+
+    public void fetchRichContentForMessage(String messageId, PIOMCRichContentListener listener) throws PIOMCRichContentException {
+    }
+
+    public void resetMessageCenter() {
+    }
+
+    public void onMessageCenterViewVisible() throws PIOMCMessageException {
+    }
+
+    public void onMessageCenterViewFinish() throws PIOMCMessageException {
+    }
+
+    public void trackMessageCenterOpenEngagement(String messageId) {
+    }
+
+    public void trackMessageCenterDisplayEngagement(String messageId) {
+    }
+
+    public void setMessageCenterBadgingEnabled(boolean enabled) {
+    }
+
+    public void setBadgeCount(int count, boolean forceSetBadge, PIOBadgeSyncListener listener) {
+    }
+
+    public int getBadgeCount() {
+        return 0;
+    }
+
+    public void resetBadgeCount(boolean forceSetBadge, PIOBadgeSyncListener listener) {
+    }
+
+    public void addInteractiveNotificationCategory(PIOInteractiveNotificationCategory category) {
+    }
+
+    public PIOInteractiveNotificationCategory getInteractiveNotificationCategory(String categoryId) {
+        return null;
+    }
+
+    public void deleteInteractiveNotificationCategory(String categoryId) {
+    }
+
+    public void clearInteractiveNotificationCategories() {
+    }
+
+    public void onGeoRegionEntered(PIOGeoRegion region, PIORegionCompletionListener listener) {
+    }
+
+    public void onGeoRegionExited(PIOGeoRegion region, PIORegionCompletionListener listener) {
+    }
+
+    public void onBeaconRegionEntered(PIOBeaconRegion region, PIORegionCompletionListener listener) {
+    }
+
+    public void onBeaconRegionExited(PIOBeaconRegion region, PIORegionCompletionListener listener) {
+    }
+
+    public boolean isResponsysPayload(RemoteMessage remoteMessage) {
+        return false;
+    }
+
+    public void handleMessage(RemoteMessage remoteMessage) {
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.exception;
+
+/**
+ * JVM stand-in for the SDK class of the same name.
+ */
+public class ValidationException extends Exception {
+    public ValidationException(String message) {
+        super(message);
+    }
+}
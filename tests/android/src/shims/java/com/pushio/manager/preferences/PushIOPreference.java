@@ -0,0 +1,45 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.preferences;
+
+/**
+ * JVM stand-in for the SDK class of the same name. The constructor is for tests.
+ */
+public class PushIOPreference {
+    public enum Type {
+        STRING,
+        NUMBER,
+        BOOLEAN
+    }
+
+    private final String mKey;
+    private final String mLabel;
+    private final Type mType;
+    private final Object mValue;
+
+    public PushIOPreference(String key, String label, Type type, Object value) {
+        mKey = key;
+        mLabel = label;
+        mType = type;
+        mValue = value;
+    }
+
+    public String getKey() {
+        return mKey;
+    }
+
+    public String getLabel() {
+        return mLabel;
+    }
+
+    public Type getType() {
+        return mType;
+    }
+
+    public Object getValue() {
+        return mValue;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * JVM stand-in for the Cordova class of the same name. Results are dropped;
+ * tests override {@link #sendPluginResult} to see them.
+ */
+public class CallbackContext {
+    private final String mCallbackId;
+    private boolean mFinished;
+
+    public CallbackContext(String callbackId, CordovaWebView webView) {
+        mCallbackId = callbackId;
+    }
+
+    public String getCallbackId() {
+        return mCallbackId;
+    }
+
+    public boolean isFinished() {
+        return mFinished;
+    }
+
+    public void sendPluginResult(PluginResult pluginResult) {
+        mFinished = !pluginResult.getKeepCallback();
+    }
+
+    public void success() {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK));
+    }
+
+    public void success(String message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void success(JSONObject message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void success(JSONArray message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void success(int message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void error(String message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+    }
+
+    public void error(JSONObject message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+    }
+
+    public void error(int message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package org.apache.cordova;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in for the Cordova class of the same name: the {@code <preference>}
+ * values of config.xml.
+ */
+public class CordovaPreferences {
+    private final Map<String, String> mPrefs = new HashMap<>();
+
+    public void set(String name, String value) {
+        mPrefs.put(name.toLowerCase(), value);
+    }
+
+    public void set(String name, boolean value) {
+        set(name, String.valueOf(value));
+    }
+
+    public void set(String name, int value) {
+        set(name, String.valueOf(value));
+    }
+
+    public boolean getBoolean(String name, boolean defaultValue) {
+        String value = mPrefs.get(name.toLowerCase());
+        return (value != null) ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    public int getInteger(String name, int defaultValue) {
+        String value = mPrefs.get(name.toLowerCase());
+        return (value != null) ? Integer.decode(value) : defaultValue;
+    }
+
+    public String getString(String name, String defaultValue) {
+        String value = mPrefs.get(name.toLowerCase());
+        return (value != null) ? value : defaultValue;
+    }
+}
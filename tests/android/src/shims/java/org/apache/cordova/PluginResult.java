@@ -0,0 +1,89 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * JVM stand-in for the Cordova class of the same name. The message is kept as
+ * the text Cordova would send to JS.
+ */
+public class PluginResult {
+    public enum Status {
+        NO_RESULT,
+        OK,
+        CLASS_NOT_FOUND_EXCEPTION,
+        ILLEGAL_ACCESS_EXCEPTION,
+        INSTANTIATION_EXCEPTION,
+        MALFORMED_URL_EXCEPTION,
+        IO_EXCEPTION,
+        INVALID_ACTION,
+        JSON_EXCEPTION,
+        ERROR
+    }
+
+    public static final int MESSAGE_TYPE_STRING = 1;
+    public static final int MESSAGE_TYPE_JSON = 2;
+    public static final int MESSAGE_TYPE_NUMBER = 3;
+    public static final int MESSAGE_TYPE_BOOLEAN = 4;
+    public static final int MESSAGE_TYPE_NULL = 5;
+
+    private final Status mStatus;
+    private final int mMessageType;
+    private final String mMessage;
+    private boolean mKeepCallback;
+
+    public PluginResult(Status status) {
+        this(status, (String) null);
+    }
+
+    public PluginResult(Status status, String message) {
+        this(status, (message != null) ? MESSAGE_TYPE_STRING : MESSAGE_TYPE_NULL, message);
+    }
+
+    public PluginResult(Status status, JSONObject message) {
+        this(status, MESSAGE_TYPE_JSON, message.toString());
+    }
+
+    public PluginResult(Status status, JSONArray message) {
+        this(status, MESSAGE_TYPE_JSON, message.toString());
+    }
+
+    public PluginResult(Status status, int i) {
+        this(status, MESSAGE_TYPE_NUMBER, String.valueOf(i));
+    }
+
+    public PluginResult(Status status, boolean b) {
+        this(status, MESSAGE_TYPE_BOOLEAN, String.valueOf(b));
+    }
+
+    private PluginResult(Status status, int messageType, String message) {
+        mStatus = status;
+        mMessageType = messageType;
+        mMessage = message;
+    }
+
+    public int getStatus() {
+        return mStatus.ordinal();
+    }
+
+    public int getMessageType() {
+        return mMessageType;
+    }
+
+    public String getMessage() {
+        return mMessage;
+    }
+
+    public void setKeepCallback(boolean keepCallback) {
+        mKeepCallback = keepCallback;
+    }
+
+    public boolean getKeepCallback() {
+        return mKeepCallback;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PushIOActionSchedulerTest {
+    private static final int TASKS = 200;
+
+    private PushIOActionScheduler mScheduler;
+
+    @Before
+    public void setUp() {
+        mScheduler = new PushIOActionScheduler();
+    }
+
+    @After
+    public void tearDown() {
+        mScheduler.shutdown();
+    }
+
+    /**
+     * Submits {@link #TASKS} tasks, cycling through {@code actions}, each of which
+     * spins for a random few microseconds, and returns the order they ran in.
+     */
+    private List<Integer> runInterleaved(String... actions) throws InterruptedException {
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch done = new CountDownLatch(TASKS);
+        final Random random = new Random(42);
+
+        for (int i = 0; i < TASKS; i++) {
+            final int index = i;
+            final long spinNanos = random.nextInt(50000);
+            assertTrue(mScheduler.execute(actions[i % actions.length], new Runnable() {
+                @Override
+                public void run() {
+                    final long startedAt = System.nanoTime();
+                    while (System.nanoTime() - startedAt < spinNanos) {
+                        // Uneven task lengths would expose reordering on a pool.
+                    }
+                    order.add(index);
+                    done.countDown();
+                }
+            }));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        return order;
+    }
+
+    private static List<Integer> sequence() {
+        List<Integer> sequence = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            sequence.add(i);
+        }
+        return sequence;
+    }
+
+    @Test
+    public void preferencesLaneRunsInSubmissionOrder() throws InterruptedException {
+        assertEquals(sequence(), runInterleaved("setStringPreference", "getPreference", "removePreference"));
+    }
+
+    @Test
+    public void userLaneRunsInSubmissionOrder() throws InterruptedException {
+        assertEquals(sequence(), runInterleaved("registerUserId", "getRegisteredUserId", "unregisterUserId"));
+    }
+
+    @Test
+    public void badgeLaneRunsInSubmissionOrder() throws InterruptedException {
+        assertEquals(sequence(), runInterleaved("setBadgeCount", "getBadgeCount", "resetBadgeCount"));
+    }
+
+    @Test
+    public void regionLaneRunsInSubmissionOrder() throws InterruptedException {
+        assertEquals(sequence(), runInterleaved("onGeoRegionEntered", "onGeoRegionExited",
+                "onBeaconRegionEntered", "onBeaconRegionExited", "reportRegionEvents"));
+    }
+
+    @Test
+    public void subscriptionLaneRunsInSubmissionOrder() throws InterruptedException {
+        assertEquals(sequence(), runInterleaved("unsubscribeDeepLinks", "subscribeDeepLinks",
+                "onDeepLinkReceived", "unsubscribeEvents", "subscribeEvents"));
+    }
+
+    @Test
+    public void defaultLaneRunsInSubmissionOrder() throws InterruptedException {
+        assertEquals(sequence(), runInterleaved("trackEvent", "setLogLevel", "someUnknownAction"));
+    }
+
+    @Test
+    public void classifiesActions() {
+        assertEquals(PushIOActionScheduler.Lane.READ, PushIOActionScheduler.laneFor("getDeviceID"));
+        assertEquals(PushIOActionScheduler.Lane.PREFERENCES, PushIOActionScheduler.laneFor("setPreferences"));
+        assertEquals(PushIOActionScheduler.Lane.USER, PushIOActionScheduler.laneFor("configure"));
+        assertEquals(PushIOActionScheduler.Lane.BADGE, PushIOActionScheduler.laneFor("setBadgeCount"));
+        assertEquals(PushIOActionScheduler.Lane.REGION, PushIOActionScheduler.laneFor("onGeoRegionExited"));
+        assertEquals(PushIOActionScheduler.Lane.REGION, PushIOActionScheduler.laneFor("reportRegionEvents"));
+        assertEquals(PushIOActionScheduler.Lane.SUBSCRIPTION, PushIOActionScheduler.laneFor("subscribeDeepLinks"));
+        assertEquals(PushIOActionScheduler.Lane.SUBSCRIPTION, PushIOActionScheduler.laneFor("subscribeEvents"));
+        assertEquals(PushIOActionScheduler.Lane.NETWORK,
+                PushIOActionScheduler.laneFor("fetchMessagesForMessageCenter"));
+        assertEquals(PushIOActionScheduler.Lane.DEFAULT, PushIOActionScheduler.laneFor("someUnknownAction"));
+    }
+
+    @Test
+    public void blockedLaneDoesNotHoldUpOtherLanes() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch ran = new CountDownLatch(3);
+        final Runnable block = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        final Runnable count = new Runnable() {
+            @Override
+            public void run() {
+                ran.countDown();
+            }
+        };
+
+        mScheduler.execute("trackEvent", block);
+        mScheduler.execute("fetchMessagesForMessageCenter", block);
+        mScheduler.execute("getDeviceID", count);
+        mScheduler.execute("onGeoRegionEntered", count);
+        mScheduler.execute("setBadgeCount", count);
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void saturatedNetworkLaneRejects() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable block = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        // 3 workers plus a queue of 256.
+        for (int i = 0; i < 3 + 256; i++) {
+            assertTrue(mScheduler.execute("fetchRichContentForMessage", block));
+        }
+        assertFalse(mScheduler.execute("fetchRichContentForMessage", block));
+        assertEquals(1, mScheduler.metricsAsJson().getJSONObject("NETWORK").getLong("rejected"));
+        release.countDown();
+    }
+}
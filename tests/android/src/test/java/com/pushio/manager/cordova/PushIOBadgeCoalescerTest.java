@@ -0,0 +1,242 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import com.pushio.manager.PIOBadgeSyncListener;
+import com.pushio.manager.PushIOManager;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PushIOBadgeCoalescerTest {
+    private static final long COALESCE_MS = 50;
+
+    /**
+     * Plays the SDK: logs every sync and holds its listener until the test
+     * answers it.
+     */
+    private static class FakeSdk extends PushIOManager {
+        final BlockingQueue<PIOBadgeSyncListener> mListeners = new LinkedBlockingQueue<>();
+        final List<String> mSyncs = Collections.synchronizedList(new ArrayList<String>());
+        volatile int mCount;
+        volatile int mCountReads;
+
+        @Override
+        public void setBadgeCount(int count, boolean forceSetBadge, PIOBadgeSyncListener listener) {
+            mSyncs.add("set " + count + (forceSetBadge ? " forced" : ""));
+            mListeners.add(listener);
+        }
+
+        @Override
+        public void resetBadgeCount(boolean forceSetBadge, PIOBadgeSyncListener listener) {
+            mSyncs.add("reset" + (forceSetBadge ? " forced" : ""));
+            mListeners.add(listener);
+        }
+
+        @Override
+        public int getBadgeCount() {
+            mCountReads++;
+            return mCount;
+        }
+
+        /**
+         * Waits for the next sync to reach the SDK.
+         */
+        PIOBadgeSyncListener nextSync() throws InterruptedException {
+            PIOBadgeSyncListener listener = mListeners.poll(5, TimeUnit.SECONDS);
+            assertNotNull("no sync", listener);
+            return listener;
+        }
+    }
+
+    /**
+     * The JS side of every call: counts successes and errors.
+     */
+    private static class Callers {
+        final List<String> mResults = Collections.synchronizedList(new ArrayList<String>());
+        private CountDownLatch mAnswered = new CountDownLatch(0);
+
+        void expect(int answers) {
+            mAnswered = new CountDownLatch(answers);
+        }
+
+        CallbackContext newCaller() {
+            return new CallbackContext("badge", null) {
+                @Override
+                public void sendPluginResult(PluginResult pluginResult) {
+                    mResults.add((pluginResult.getStatus() == PluginResult.Status.OK.ordinal() ? "ok " : "error ")
+                            + pluginResult.getMessage());
+                    mAnswered.countDown();
+                }
+            };
+        }
+
+        void await() throws InterruptedException {
+            assertTrue("callers not answered", mAnswered.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private final List<String> mSynced = Collections.synchronizedList(new ArrayList<String>());
+    private FakeSdk mSdk;
+    private Callers mCallers;
+    private PushIOBadgeCoalescer mCoalescer;
+
+    @Before
+    public void setUp() {
+        mSdk = new FakeSdk();
+        mCallers = new Callers();
+        mCoalescer = new PushIOBadgeCoalescer(mSdk, new PushIOBadgeCoalescer.Listener() {
+            @Override
+            public void onBadgeSynced(int count, boolean synced, String message) {
+                mSynced.add(count + (synced ? " synced" : " failed"));
+            }
+        }, COALESCE_MS);
+    }
+
+    @After
+    public void tearDown() {
+        mCoalescer.shutdown();
+    }
+
+    @Test
+    public void burstIsSentInOneSync() throws Exception {
+        mCallers.expect(20);
+        for (int i = 1; i <= 20; i++) {
+            mCoalescer.set(i, false, mCallers.newCaller());
+        }
+
+        mSdk.nextSync().onBadgeSyncedSuccess("done");
+        mCallers.await();
+
+        assertEquals(Collections.singletonList("set 20"), mSdk.mSyncs);
+        assertEquals(Collections.nCopies(20, "ok done"), mCallers.mResults);
+        assertEquals(Collections.singletonList("20 synced"), mSynced);
+        assertEquals(1, mCoalescer.metricsAsJson().getLong("syncs"));
+        assertEquals(20, mCoalescer.metricsAsJson().getLong("requests"));
+    }
+
+    @Test
+    public void callsDuringASyncGoIntoTheNextOne() throws Exception {
+        mCallers.expect(26);
+        for (int i = 1; i <= 20; i++) {
+            mCoalescer.set(i, false, mCallers.newCaller());
+        }
+        PIOBadgeSyncListener first = mSdk.nextSync();
+
+        for (int i = 21; i <= 25; i++) {
+            mCoalescer.set(i, false, mCallers.newCaller());
+        }
+        mCoalescer.reset(false, mCallers.newCaller());
+        // Nothing more is sent while the first sync is in flight.
+        assertNull(mSdk.mListeners.poll(COALESCE_MS * 3, TimeUnit.MILLISECONDS));
+
+        first.onBadgeSyncedSuccess("first");
+        mSdk.nextSync().onBadgeSyncedSuccess("second");
+        mCallers.await();
+
+        assertEquals(2, mSdk.mSyncs.size());
+        assertEquals("set 20", mSdk.mSyncs.get(0));
+        assertEquals("reset", mSdk.mSyncs.get(1));
+        assertEquals(26, mCallers.mResults.size());
+        assertEquals(6, Collections.frequency(mCallers.mResults, "ok second"));
+    }
+
+    @Test
+    public void syncIsForcedIfAnyCoalescedCallAskedForIt() throws Exception {
+        mCallers.expect(3);
+        mCoalescer.set(1, true, mCallers.newCaller());
+        mCoalescer.set(2, false, mCallers.newCaller());
+        mCoalescer.set(3, false, mCallers.newCaller());
+
+        mSdk.nextSync().onBadgeSyncedSuccess("done");
+        mCallers.await();
+        assertEquals(Collections.singletonList("set 3 forced"), mSdk.mSyncs);
+
+        // The next burst starts unforced.
+        mCallers.expect(1);
+        mCoalescer.set(4, false, mCallers.newCaller());
+        mSdk.nextSync().onBadgeSyncedSuccess("done");
+        mCallers.await();
+        assertEquals("set 4", mSdk.mSyncs.get(1));
+    }
+
+    @Test
+    public void countIsServedFromMemory() throws Exception {
+        mSdk.mCount = 7;
+
+        assertEquals(7, mCoalescer.getCount());
+        assertEquals(7, mCoalescer.getCount());
+        assertEquals(1, mSdk.mCountReads);
+
+        mCallers.expect(1);
+        mCoalescer.set(3, false, mCallers.newCaller());
+        assertEquals(3, mCoalescer.getCount());
+        mSdk.nextSync().onBadgeSyncedSuccess("done");
+        mCallers.await();
+
+        assertEquals(3, mCoalescer.getCount());
+        assertEquals(1, mSdk.mCountReads);
+    }
+
+    @Test
+    public void invalidatedCountIsReadFromTheSdkAgain() {
+        mSdk.mCount = 7;
+        assertEquals(7, mCoalescer.getCount());
+
+        // E.g. a push changed the badge.
+        mSdk.mCount = 8;
+        mCoalescer.invalidate();
+
+        assertEquals(8, mCoalescer.getCount());
+        assertEquals(2, mSdk.mCountReads);
+    }
+
+    @Test
+    public void countOfAPendingCallSurvivesInvalidation() throws Exception {
+        mSdk.mCount = 7;
+        mCallers.expect(1);
+        mCoalescer.set(3, false, mCallers.newCaller());
+
+        mCoalescer.invalidate();
+
+        assertEquals(3, mCoalescer.getCount());
+        assertEquals(0, mSdk.mCountReads);
+        mSdk.nextSync().onBadgeSyncedSuccess("done");
+        mCallers.await();
+    }
+
+    @Test
+    public void failedSyncForgetsTheCount() throws Exception {
+        mSdk.mCount = 7;
+        mCallers.expect(2);
+        mCoalescer.set(3, false, mCallers.newCaller());
+        mCoalescer.set(4, false, mCallers.newCaller());
+
+        mSdk.nextSync().onBadgeSyncedFailure("offline");
+        mCallers.await();
+
+        assertEquals(Collections.nCopies(2, "error offline"), mCallers.mResults);
+        assertEquals(Collections.singletonList("4 failed"), mSynced);
+        assertEquals(7, mCoalescer.getCount());
+        assertEquals(1, mCoalescer.metricsAsJson().getLong("errors"));
+    }
+}
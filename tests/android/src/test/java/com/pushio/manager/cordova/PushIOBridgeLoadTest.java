@@ -0,0 +1,326 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.app.Activity;
+import android.content.Context;
+
+import com.pushio.manager.PIOMCMessage;
+import com.pushio.manager.PIOMCMessageListener;
+import com.pushio.manager.PushIOManager;
+import com.pushio.manager.preferences.PushIOPreference;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaInterface;
+import org.apache.cordova.CordovaPreferences;
+import org.apache.cordova.CordovaWebView;
+import org.apache.cordova.PluginResult;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Load harness for the bridge. Runs {@link PushIOManagerPlugin} on shims of
+ * Cordova and Android with a fake SDK, replays a mixed trace of calls through
+ * {@code execute} as the Cordova bridge does, and prints throughput, p50/p99
+ * callback latency per action and the peak queue depth per lane for a few
+ * offered rates. The figures are read back through {@code getPluginMetrics}.
+ *
+ * <p>The trace and latencies can be changed with system properties, e.g.
+ * {@code gradle test --tests '*BridgeLoad*' -Dpushio.load.inboxLatencyMs=200}:
+ * <ul>
+ * <li>{@code pushio.load.calls}: calls per run, default 2000.</li>
+ * <li>{@code pushio.load.rates}: comma-separated offered rates in calls per
+ * second, 0 for as fast as possible; default {@code 1000,5000,0}.</li>
+ * <li>{@code pushio.load.eventMicros}: CPU time of an SDK {@code trackEvent}.</li>
+ * <li>{@code pushio.load.preferenceMs}: time of an SDK preference write.</li>
+ * <li>{@code pushio.load.inboxLatencyMs}: time until the SDK answers an inbox fetch.</li>
+ * <li>{@code pushio.load.inboxMessages}: messages in the inbox.</li>
+ * <li>{@code pushio.load.config}: config.xml preferences of the plugin, e.g.
+ * {@code PushIOMessageCenterCacheTtlMs=0,PushIOJournalFsync=always}.</li>
+ * </ul>
+ */
+public class PushIOBridgeLoadTest {
+    private static final int CALLS = Integer.getInteger("pushio.load.calls", 2000);
+    private static final String RATES = System.getProperty("pushio.load.rates", "1000,5000,0");
+    private static final int EVENT_MICROS = Integer.getInteger("pushio.load.eventMicros", 20);
+    private static final int PREFERENCE_MS = Integer.getInteger("pushio.load.preferenceMs", 2);
+    private static final int INBOX_LATENCY_MS = Integer.getInteger("pushio.load.inboxLatencyMs", 50);
+    private static final int INBOX_MESSAGES = Integer.getInteger("pushio.load.inboxMessages", 50);
+    private static final String CONFIG = System.getProperty("pushio.load.config", "");
+
+    /** Actions whose latency is printed, in trace order. */
+    private static final String[] ACTIONS = {"trackEvent", "setStringPreference", "fetchMessagesForMessageCenter"};
+
+    /**
+     * Shared by every plugin instance, like the app's data directory; the event
+     * journal is process-wide.
+     */
+    @ClassRule
+    public static TemporaryFolder sDataDirectory = new TemporaryFolder();
+
+    private FakeSdk mSdk;
+    private PushIOManagerPlugin mPlugin;
+
+    @After
+    public void tearDown() {
+        if (mPlugin != null) {
+            mPlugin.onDestroy();
+            mPlugin = null;
+        }
+        if (mSdk != null) {
+            mSdk.shutdown();
+            mSdk = null;
+        }
+        PushIOManager.setInstance(null);
+    }
+
+    /**
+     * Creates and initializes a plugin as Cordova does at app start.
+     */
+    private void startPlugin() {
+        mSdk = new FakeSdk();
+        PushIOManager.setInstance(mSdk);
+
+        final Activity activity = new Activity(sDataDirectory.getRoot());
+        CordovaInterface cordova = new CordovaInterface() {
+            @Override
+            public Activity getActivity() {
+                return activity;
+            }
+
+            @Override
+            public Context getContext() {
+                return activity;
+            }
+
+            @Override
+            public ExecutorService getThreadPool() {
+                return null;
+            }
+        };
+        CordovaWebView webView = new CordovaWebView() {
+        };
+
+        CordovaPreferences preferences = new CordovaPreferences();
+        for (String setting : CONFIG.split(",")) {
+            final int separator = setting.indexOf('=');
+            if (separator > 0) {
+                preferences.set(setting.substring(0, separator).trim(), setting.substring(separator + 1).trim());
+            }
+        }
+
+        mPlugin = new PushIOManagerPlugin();
+        mPlugin.privateInitialize("PushIOManagerPlugin", cordova, webView, preferences);
+    }
+
+    /**
+     * Plays the SDK: {@code trackEvent} spins, preference writes block like a
+     * disk write, and inbox fetches answer from another thread after a delay.
+     */
+    private static class FakeSdk extends PushIOManager {
+        private final ScheduledExecutorService mNetwork = Executors.newSingleThreadScheduledExecutor();
+        private final List<PIOMCMessage> mMessages = new ArrayList<>();
+
+        FakeSdk() {
+            for (int i = 0; i < INBOX_MESSAGES; i++) {
+                PIOMCMessage message = new PIOMCMessage();
+                message.setId("message-" + i);
+                message.setSubject("Subject " + i);
+                message.setMessage("Body of message " + i);
+                message.setMessageCenterName("Primary");
+                message.setDeeplinkUrl("app://inbox/" + i);
+                message.setSentTimestamp(new Date(1600000000000L + i * 60000L));
+                message.setExpiryTimestamp(new Date(1700000000000L + i * 60000L));
+                mMessages.add(message);
+            }
+        }
+
+        @Override
+        public void trackEvent(String eventType, Map<String, Object> properties) {
+            final long startedAt = System.nanoTime();
+            while (System.nanoTime() - startedAt < EVENT_MICROS * 1000L) {
+                // Serializing and queueing the event.
+            }
+        }
+
+        @Override
+        public PushIOPreference getPreference(String key) {
+            return new PushIOPreference(key, key, PushIOPreference.Type.STRING, null);
+        }
+
+        @Override
+        public void setPreference(String key, String value) {
+            try {
+                Thread.sleep(PREFERENCE_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void fetchMessagesForMessageCenter(final String messageCenter, final PIOMCMessageListener listener) {
+            mNetwork.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onSuccess(messageCenter, mMessages);
+                }
+            }, INBOX_LATENCY_MS, TimeUnit.MILLISECONDS);
+        }
+
+        void shutdown() {
+            mNetwork.shutdownNow();
+        }
+    }
+
+    /**
+     * The JS side of a call: counts the call as answered on its final result.
+     */
+    private static class JsCallback extends CallbackContext {
+        private final CountDownLatch mAnswered;
+        private final AtomicLong mErrors;
+        private final AtomicReference<String> mMessage = new AtomicReference<>();
+
+        JsCallback(String callbackId, CountDownLatch answered, AtomicLong errors) {
+            super(callbackId, null);
+            mAnswered = answered;
+            mErrors = errors;
+        }
+
+        @Override
+        public void sendPluginResult(PluginResult pluginResult) {
+            if (pluginResult.getStatus() == PluginResult.Status.ERROR.ordinal()) {
+                mErrors.incrementAndGet();
+            }
+            if (!pluginResult.getKeepCallback()) {
+                mMessage.set(pluginResult.getMessage());
+                mAnswered.countDown();
+            }
+        }
+    }
+
+    /**
+     * Call {@code i} of the trace: bursts of events from a page, with a preference
+     * write every 10 calls and an inbox fetch every 100.
+     */
+    private void replayCall(int i, CallbackContext callbackContext) throws JSONException {
+        if (i % 100 == 99) {
+            mPlugin.execute("fetchMessagesForMessageCenter", "[\"Primary\"]", callbackContext);
+        } else if (i % 10 == 9) {
+            mPlugin.execute("setStringPreference", "[\"pref" + (i % 7) + "\",\"value-" + i + "\"]",
+                    callbackContext);
+        } else {
+            mPlugin.execute("trackEvent", "[\"screen_view\",{\"screen\":\"page-" + (i % 20)
+                    + "\",\"position\":" + i + ",\"tags\":[\"a\",\"b\"]}]", callbackContext);
+        }
+    }
+
+    /**
+     * Replays the trace, offering {@code rate} calls per second or, if 0, as many
+     * as the caller can submit, and waits for every call to be answered.
+     *
+     * @return the number of calls answered with an error.
+     */
+    private long replay(int rate) throws Exception {
+        final CountDownLatch answered = new CountDownLatch(CALLS);
+        final AtomicLong errors = new AtomicLong();
+        final long intervalNanos = (rate > 0) ? 1000000000L / rate : 0;
+        final long startedAt = System.nanoTime();
+
+        for (int i = 0; i < CALLS; i++) {
+            if (intervalNanos > 0) {
+                final long dueAt = startedAt + i * intervalNanos;
+                long now;
+                while ((now = System.nanoTime()) < dueAt) {
+                    LockSupport.parkNanos(dueAt - now);
+                }
+            }
+            replayCall(i, new JsCallback(String.valueOf(i), answered, errors));
+        }
+
+        assertTrue("calls not answered: " + answered.getCount(), answered.await(60, TimeUnit.SECONDS));
+        final double elapsedSec = (System.nanoTime() - startedAt) / 1e9;
+        print(rate, elapsedSec, pluginMetrics());
+        return errors.get();
+    }
+
+    private JSONObject pluginMetrics() throws Exception {
+        final CountDownLatch answered = new CountDownLatch(1);
+        final JsCallback callback = new JsCallback("metrics", answered, new AtomicLong());
+        mPlugin.execute("getPluginMetrics", "[]", callback);
+        assertTrue(answered.await(10, TimeUnit.SECONDS));
+        return new JSONObject(callback.mMessage.get());
+    }
+
+    private static void print(int rate, double elapsedSec, JSONObject metrics) throws JSONException {
+        JSONObject actions = metrics.getJSONObject("actions");
+        JSONObject lanes = metrics.getJSONObject("lanes");
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.US, "Bridge load, offered %s: %d calls in %.2f s, %.0f calls/s%n",
+                (rate > 0) ? rate + " calls/s" : "max", CALLS, elapsedSec, CALLS / elapsedSec));
+        for (String action : ACTIONS) {
+            JSONObject callback = actions.getJSONObject(action).getJSONObject("callback");
+            JSONObject wait = actions.getJSONObject(action).getJSONObject("wait");
+            builder.append(String.format(Locale.US,
+                    "  %-30s %5d calls  callback p50 %8.3f ms  p99 %8.3f ms  wait p99 %8.3f ms%n",
+                    action, callback.getLong("count"), callback.getDouble("p50Ms"),
+                    callback.getDouble("p99Ms"), wait.getDouble("p99Ms")));
+        }
+        for (String lane : new String[]{"DEFAULT", "PREFERENCES", "NETWORK"}) {
+            JSONObject stats = lanes.getJSONObject(lane);
+            builder.append(String.format(Locale.US,
+                    "  %-12s lane  max queue depth %5d  %8.0f tasks/s%n",
+                    lane, stats.getInt("maxQueueDepth"), stats.getDouble("throughputPerSec")));
+        }
+        System.out.print(builder);
+    }
+
+    @Test
+    public void mixedTraceIsAnsweredAtEveryRate() throws Exception {
+        for (String rate : RATES.split(",")) {
+            // A fresh plugin per rate, so the figures do not mix.
+            tearDown();
+            startPlugin();
+
+            assertEquals(0, replay(Integer.parseInt(rate.trim())));
+
+            JSONObject metrics = pluginMetrics();
+            JSONObject actions = metrics.getJSONObject("actions");
+            long calls = 0;
+            for (String action : ACTIONS) {
+                JSONObject stats = actions.getJSONObject(action);
+                assertEquals(0, stats.getLong("rejected"));
+                assertEquals(0, stats.getLong("exceptions"));
+                assertEquals(stats.getLong("calls"), stats.getJSONObject("callback").getLong("count"));
+                calls += stats.getLong("calls");
+            }
+            assertEquals(CALLS, calls);
+            // Every event was journaled and acknowledged once the SDK took it.
+            assertEquals(0, metrics.getJSONObject("journal").getInt("pending"));
+        }
+    }
+}
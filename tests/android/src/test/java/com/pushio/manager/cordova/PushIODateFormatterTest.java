@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import android.content.Intent;
+import android.content.IntentFilter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PushIODateFormatterTest {
+    private static final Date DATE = new Date(1600000000000L);
+
+    private TimeZone mDefaultTimeZone;
+
+    @Before
+    public void setUp() {
+        mDefaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        PushIODateFormatter.invalidate();
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(mDefaultTimeZone);
+        PushIODateFormatter.invalidate();
+    }
+
+    /**
+     * What {@code getDateAsString} returned before formatters were cached.
+     */
+    private static String formatWithNewFormatter(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZZZZZ", Locale.getDefault());
+        format.setTimeZone(TimeZone.getDefault());
+        return format.format(date);
+    }
+
+    // The offset is written "Z"/"+05:30" on Android and "+0000"/"+0530" by the JVM's
+    // SimpleDateFormat, so results are compared with a new formatter's.
+
+    @Test
+    public void formatsLikeANewFormatter() {
+        assertTrue(PushIODateFormatter.format(DATE).startsWith("2020-09-13T12:26:40"));
+        assertEquals(formatWithNewFormatter(DATE), PushIODateFormatter.format(DATE));
+        assertNull(PushIODateFormatter.format(null));
+    }
+
+    @Test
+    public void invalidatePicksUpANewTimeZone() {
+        final String utc = formatWithNewFormatter(DATE);
+        assertEquals(utc, PushIODateFormatter.format(DATE));
+
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Kolkata"));
+        // Cached until invalidated, as on a device until the broadcast arrives.
+        assertEquals(utc, PushIODateFormatter.format(DATE));
+
+        PushIODateFormatter.invalidate();
+        assertTrue(PushIODateFormatter.format(DATE).startsWith("2020-09-13T17:56:40"));
+        assertEquals(formatWithNewFormatter(DATE), PushIODateFormatter.format(DATE));
+    }
+
+    @Test
+    public void invalidationFilterMatchesTimeZoneAndLocaleChanges() {
+        IntentFilter filter = PushIODateFormatter.invalidationIntentFilter();
+
+        assertEquals(2, filter.countActions());
+        assertEquals(Intent.ACTION_TIMEZONE_CHANGED, filter.getAction(0));
+        assertEquals(Intent.ACTION_LOCALE_CHANGED, filter.getAction(1));
+    }
+
+    @Test
+    public void threadsFormatIndependently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 20000; i++) {
+                            Date date = new Date(DATE.getTime() + i * 60000L);
+                            if (!formatWithNewFormatter(date).equals(PushIODateFormatter.format(date))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A crash is simulated by dropping a journal without closing it and opening a new
+ * one on the same directory, as the next process would.
+ */
+public class PushIOEventJournalTest {
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private File mDirectory;
+
+    @Before
+    public void setUp() {
+        mDirectory = new File(mFolder.getRoot(), "journal");
+    }
+
+    private PushIOEventJournal open() {
+        return open(PushIOEventJournal.DEFAULT_SEGMENT_BYTES, PushIOEventJournal.DEFAULT_MAX_BYTES);
+    }
+
+    private PushIOEventJournal open(long segmentBytes, long maxBytes) {
+        return new PushIOEventJournal(mDirectory, PushIOEventJournal.FsyncPolicy.NEVER, 0, segmentBytes, maxBytes);
+    }
+
+    private static List<String> payloads(List<PushIOEventJournal.Record> records) {
+        List<String> payloads = new ArrayList<>();
+        for (PushIOEventJournal.Record record : records) {
+            payloads.add(record.payload);
+        }
+        return payloads;
+    }
+
+    private static List<String> list(String... payloads) {
+        List<String> list = new ArrayList<>();
+        for (String payload : payloads) {
+            list.add(payload);
+        }
+        return list;
+    }
+
+    @Test
+    public void unacknowledgedRecordsAreRecoveredAfterCrash() {
+        PushIOEventJournal journal = open();
+        journal.append(PushIOEventJournal.KIND_EVENT, "{\"type\":\"a\"}");
+        long b = journal.append(PushIOEventJournal.KIND_ENGAGEMENT, "{\"metric\":1}");
+        journal.append(PushIOEventJournal.KIND_EVENT, "{\"type\":\"c\"}");
+        journal.ack(b);
+
+        List<PushIOEventJournal.Record> recovered = open().recover();
+
+        assertEquals(list("{\"type\":\"a\"}", "{\"type\":\"c\"}"), payloads(recovered));
+        assertEquals(PushIOEventJournal.KIND_EVENT, recovered.get(0).kind);
+    }
+
+    @Test
+    public void recordsAppendedInThisProcessAreNotRecovered() {
+        PushIOEventJournal previous = open();
+        previous.append(PushIOEventJournal.KIND_EVENT, "old");
+
+        PushIOEventJournal journal = open();
+        // In flight in this process, e.g. queued before the replay ran.
+        journal.append(PushIOEventJournal.KIND_EVENT, "new");
+
+        assertEquals(list("old"), payloads(journal.recover()));
+        assertEquals(2, journal.pendingCount());
+    }
+
+    @Test
+    public void recoverReturnsRecordsOnlyOnce() {
+        open().append(PushIOEventJournal.KIND_EVENT, "a");
+
+        PushIOEventJournal journal = open();
+        assertEquals(1, journal.recover().size());
+        assertTrue(journal.recover().isEmpty());
+    }
+
+    @Test
+    public void recoveredRecordsStayPendingUntilAcknowledged() {
+        open().append(PushIOEventJournal.KIND_EVENT, "a");
+
+        PushIOEventJournal replaying = open();
+        replaying.recover();
+        // Crash again before the replayed record was acknowledged.
+
+        assertEquals(list("a"), payloads(open().recover()));
+    }
+
+    @Test
+    public void tornLastLineIsSkipped() throws IOException {
+        PushIOEventJournal journal = open();
+        journal.append(PushIOEventJournal.KIND_EVENT, "a");
+        journal.append(PushIOEventJournal.KIND_EVENT, "b");
+
+        appendToSegment("A 3 E 12");
+
+        PushIOEventJournal recovered = open();
+        assertEquals(list("a", "b"), payloads(recovered.recover()));
+
+        // New records go to a fresh segment and keep increasing sequence numbers.
+        assertTrue(recovered.append(PushIOEventJournal.KIND_EVENT, "c") > 2);
+        assertEquals(list("a", "b", "c"), payloads(open().recover()));
+    }
+
+    @Test
+    public void tornPayloadIsSkipped() throws IOException {
+        PushIOEventJournal journal = open();
+        journal.append(PushIOEventJournal.KIND_EVENT, "{\"type\":\"a\"}");
+        appendToSegment("A 2 E 1600000000000 {\"type\":\"b\",\"prop");
+
+        assertEquals(list("{\"type\":\"a\"}"), payloads(open().recover()));
+    }
+
+    @Test
+    public void tornAcknowledgementIsSkipped() throws IOException {
+        PushIOEventJournal journal = open();
+        for (int i = 1; i <= 12; i++) {
+            journal.append(PushIOEventJournal.KIND_EVENT, "event-" + i);
+        }
+        // "K 12" cut short reads as an acknowledgement of record 1.
+        appendToSegment("K 1");
+
+        List<PushIOEventJournal.Record> recovered = open().recover();
+        assertEquals(12, recovered.size());
+        assertEquals("event-1", recovered.get(0).payload);
+    }
+
+    private void appendToSegment(String text) throws IOException {
+        File[] segments = mDirectory.listFiles();
+        assertEquals(1, segments.length);
+        FileOutputStream out = new FileOutputStream(segments[0], true);
+        out.write(text.getBytes("UTF-8"));
+        out.close();
+    }
+
+    @Test
+    public void fullyAcknowledgedSegmentsAreDeleted() {
+        PushIOEventJournal journal = open(1024, 64 * 1024);
+        List<Long> seqs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            seqs.add(journal.append(PushIOEventJournal.KIND_EVENT, "{\"type\":\"event-" + i + "\"}"));
+        }
+        assertTrue(mDirectory.listFiles().length > 2);
+
+        for (long seq : seqs) {
+            journal.ack(seq);
+        }
+
+        assertEquals(1, mDirectory.listFiles().length);
+        assertTrue(open().recover().isEmpty());
+    }
+
+    @Test
+    public void relocatedRecordsAreRecoveredOnce() {
+        PushIOEventJournal journal = open(1024, 4 * 1024);
+        journal.append(PushIOEventJournal.KIND_EVENT, "keep");
+        // Fill past the size limit while acknowledging everything else, so the
+        // oldest segment is compacted by copying "keep" forward.
+        for (int i = 0; i < 200; i++) {
+            long seq = journal.append(PushIOEventJournal.KIND_EVENT, "{\"type\":\"event-" + i + "\"}");
+            assertTrue(seq > 0);
+            journal.ack(seq);
+        }
+
+        assertEquals(list("keep"), payloads(open().recover()));
+    }
+
+    @Test
+    public void appendIsRefusedWhenPendingRecordsFillTheJournal() {
+        PushIOEventJournal journal = open(1024, 4 * 1024);
+        int written = 0;
+        for (int i = 0; i < 200; i++) {
+            if (journal.append(PushIOEventJournal.KIND_EVENT, "{\"type\":\"event-" + i + "\"}") > 0) {
+                written++;
+            }
+        }
+
+        assertTrue(written > 0 && written < 200);
+        assertEquals(written, open().recover().size());
+    }
+}
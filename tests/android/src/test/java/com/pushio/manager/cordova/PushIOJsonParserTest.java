@@ -0,0 +1,155 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PushIOJsonParserTest {
+    /**
+     * An event payload with {@code properties} leaf values, nested {@code depth}
+     * levels deep.
+     */
+    static String payload(int properties, int depth) {
+        StringBuilder json = new StringBuilder(properties * 32);
+        appendObject(json, properties, 1, depth);
+        return json.toString();
+    }
+
+    private static void appendObject(StringBuilder json, int properties, int level, int depth) {
+        final int leaves = (level < depth) ? Math.max(1, properties / 2) : properties;
+        json.append('{');
+        for (int i = 0; i < leaves; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\"property").append(i).append("\":");
+            switch (i % 4) {
+                case 0:
+                    json.append("\"value ").append(i).append('"');
+                    break;
+                case 1:
+                    json.append(i * 1000);
+                    break;
+                case 2:
+                    json.append((i % 8) == 2);
+                    break;
+                default:
+                    json.append("[\"tag").append(i).append("\",").append(i).append(']');
+                    break;
+            }
+        }
+        if (level < depth && properties > leaves) {
+            json.append(",\"child\":");
+            appendObject(json, properties - leaves, level + 1, depth);
+        }
+        json.append('}');
+    }
+
+    @Test
+    public void valuesHaveTheTypesOfOrgJson() throws JSONException {
+        Map<String, Object> map = PushIOJsonParser.parseObject(
+                "{\"i\":-42,\"l\":12345678901,\"d\":1.5,\"e\":2e3,\"t\":true,\"f\":false,\"n\":null,"
+                        + "\"s\":\"a\\\"b\\\\c\\u00e9\\n\",\"a\":[1,\"x\"],\"o\":{}}");
+
+        assertEquals(-42, map.get("i"));
+        assertEquals(12345678901L, map.get("l"));
+        assertEquals(1.5, map.get("d"));
+        assertEquals(2000.0, map.get("e"));
+        assertEquals(Boolean.TRUE, map.get("t"));
+        assertEquals(Boolean.FALSE, map.get("f"));
+        assertSame(JSONObject.NULL, map.get("n"));
+        assertEquals("a\"b\\c\u00e9\n", map.get("s"));
+        assertEquals(2, ((List<?>) map.get("a")).size());
+        assertTrue(((Map<?, ?>) map.get("o")).isEmpty());
+    }
+
+    @Test
+    public void matchesToMapOfAJSONObject() throws JSONException {
+        for (int depth = 1; depth <= 6; depth++) {
+            String json = payload(500, depth);
+            assertEquals(PushIOManagerPluginUtils.toMap(new JSONObject(json)), PushIOJsonParser.parseObject(json));
+        }
+    }
+
+    @Test
+    public void argumentsKeepTheirRawText() throws JSONException {
+        String json = "[ \"event\" , {\"a\": [1, 2]}, [{\"x\":1}, \"y\" ] ]";
+        PushIOJsonParser.Args args = PushIOJsonParser.parseArgs(json);
+
+        assertEquals(3, args.length());
+        assertEquals("event", args.optString(0));
+        assertEquals("\"event\"", args.rawAt(0));
+        assertEquals("{\"a\": [1, 2]}", args.rawAt(1));
+        assertEquals("{\"x\":1}", args.rawElementAt(2, 0));
+        assertEquals("\"y\"", args.rawElementAt(2, 1));
+        assertNull(args.rawElementAt(2, 2));
+        assertNull(args.rawElementAt(1, 0));
+        assertNull(args.rawAt(3));
+    }
+
+    @Test
+    public void optStringMirrorsJSONArray() throws JSONException {
+        String json = "[null, 7, true, \"s\"]";
+        PushIOJsonParser.Args args = PushIOJsonParser.parseArgs(json);
+        JSONArray array = new JSONArray(json);
+
+        for (int i = 0; i <= 4; i++) {
+            assertEquals(array.optString(i), args.optString(i));
+        }
+    }
+
+    @Test
+    public void repeatedKeysAreInterned() throws JSONException {
+        Map<String, Object> first = PushIOJsonParser.parseObject("{\"eventType\":1}");
+        Map<String, Object> second = PushIOJsonParser.parseObject("{\"eventType\":2}");
+
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+    }
+
+    @Test
+    public void nestingBeyondMaxDepthIsRejected() throws JSONException {
+        // The arguments array is the first level.
+        PushIOJsonParser.parseArgs("[[[1]]]", 3, 100);
+        assertRejected("[[[[1]]]]", 3, 100);
+    }
+
+    @Test
+    public void moreValuesThanMaxValuesAreRejected() throws JSONException {
+        PushIOJsonParser.parseArgs("[1,2,3]", 8, 3);
+        assertRejected("[1,2,3,4]", 8, 3);
+        assertRejected("[{\"a\":1,\"b\":2,\"c\":3}]", 8, 3);
+    }
+
+    @Test
+    public void malformedJsonIsRejected() {
+        String[] malformed = {"", "{}", "[1,]", "[1 2]", "[\"a]", "[{\"a\" 1}]", "[{a:1}]", "[1] x", "[tru]",
+                "[-]", "[\"\\u12\"]"};
+        for (String json : malformed) {
+            assertRejected(json, PushIOJsonParser.DEFAULT_MAX_DEPTH, PushIOJsonParser.DEFAULT_MAX_VALUES);
+        }
+    }
+
+    private static void assertRejected(String json, int maxDepth, int maxValues) {
+        try {
+            PushIOJsonParser.parseArgs(json, maxDepth, maxValues);
+            fail("Parsed " + json);
+        } catch (JSONException expected) {
+            // Rejected as it should be.
+        }
+    }
+}
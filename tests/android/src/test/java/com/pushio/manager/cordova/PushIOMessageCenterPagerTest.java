@@ -0,0 +1,193 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import com.pushio.manager.PIOMCMessage;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PushIOMessageCenterPagerTest {
+    private static final String MESSAGE_CENTER = "Primary";
+
+    private static PIOMCMessage message(String id) {
+        PIOMCMessage message = new PIOMCMessage();
+        message.setId(id);
+        message.setSubject("Subject " + id);
+        message.setMessage("Message " + id);
+        message.setMessageCenterName(MESSAGE_CENTER);
+        message.setRichMessageHtml("<html><body><h1>" + id + "</h1><p>" + new String(new char[2000]).replace('\0', 'x')
+                + "</p></body></html>");
+        message.setSentTimestamp(new Date(1600000000000L));
+        return message;
+    }
+
+    private static List<PIOMCMessage> messages(int count) {
+        List<PIOMCMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(message("m" + i));
+        }
+        return messages;
+    }
+
+    /**
+     * Follows {@code nextCursor} from the first page to the last, as JS does, and
+     * returns the IDs of the messages on the pages.
+     */
+    private static List<String> readAll(List<PIOMCMessage> snapshot, int pageSize) throws JSONException {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            JSONObject page = new JSONObject(PushIOMessageCenterPager.pageJson(MESSAGE_CENTER, snapshot,
+                    PushIOMessageCenterPager.offsetFor(snapshot, cursor), pageSize, null));
+            JSONArray pageMessages = page.getJSONArray("messages");
+            for (int i = 0; i < pageMessages.length(); i++) {
+                ids.add(pageMessages.getJSONObject(i).getString("messageID"));
+            }
+            assertEquals(snapshot.size(), page.getInt("total"));
+            assertEquals(page.getBoolean("done"), page.isNull("nextCursor"));
+            cursor = page.isNull("nextCursor") ? null : page.getString("nextCursor");
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static List<String> ids(List<PIOMCMessage> messages) {
+        List<String> ids = new ArrayList<>(messages.size());
+        for (PIOMCMessage message : messages) {
+            ids.add(message.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void cursorsVisitEveryMessageOnceInOrder() throws JSONException {
+        List<PIOMCMessage> messages = messages(120);
+
+        assertEquals(ids(messages), readAll(messages, 50));
+        assertEquals(ids(messages), readAll(messages, 1));
+        assertEquals(ids(messages), readAll(messages, 500));
+    }
+
+    @Test
+    public void emptyMessageCenterIsOneDonePage() throws JSONException {
+        JSONObject page = new JSONObject(PushIOMessageCenterPager.pageJson(MESSAGE_CENTER,
+                Collections.<PIOMCMessage>emptyList(), 0, 50, null));
+
+        assertEquals(0, page.getJSONArray("messages").length());
+        assertTrue(page.getBoolean("done"));
+    }
+
+    @Test
+    public void cursorContinuesAfterItsMessageWhenNewMessagesArriveOnTop() throws JSONException {
+        List<PIOMCMessage> messages = messages(10);
+        String cursor = new JSONObject(PushIOMessageCenterPager.pageJson(MESSAGE_CENTER, messages, 0, 4, null))
+                .getString("nextCursor");
+        assertEquals("4:m3", cursor);
+
+        List<PIOMCMessage> refreshed = new ArrayList<>(messages);
+        refreshed.add(0, message("new1"));
+        refreshed.add(0, message("new0"));
+
+        assertEquals(6, PushIOMessageCenterPager.offsetFor(refreshed, cursor));
+    }
+
+    @Test
+    public void cursorFallsBackToItsOffsetWhenItsMessageIsGone() {
+        List<PIOMCMessage> messages = messages(10);
+        messages.remove(3);
+
+        assertEquals(4, PushIOMessageCenterPager.offsetFor(messages, "4:m3"));
+        assertEquals(messages.size(), PushIOMessageCenterPager.offsetFor(messages, "40:m39"));
+    }
+
+    @Test
+    public void malformedCursorIsRejected() {
+        List<PIOMCMessage> messages = messages(3);
+
+        assertEquals(0, PushIOMessageCenterPager.offsetFor(messages, null));
+        assertEquals(0, PushIOMessageCenterPager.offsetFor(messages, ""));
+        for (String cursor : new String[]{"m1", ":m1", "x:m1", "-1:m1"}) {
+            assertEquals(cursor, -1, PushIOMessageCenterPager.offsetFor(messages, cursor));
+        }
+    }
+
+    @Test
+    public void fieldsLimitWhatIsSerialized() throws JSONException {
+        Set<String> fields = new HashSet<>();
+        fields.add("messageID");
+        fields.add("sentTimestamp");
+
+        JSONObject message = new JSONObject(PushIOMessageCenterPager.pageJson(MESSAGE_CENTER, messages(1), 0, 50,
+                fields)).getJSONArray("messages").getJSONObject(0);
+
+        assertEquals(2, message.length());
+        assertEquals("m0", message.getString("messageID"));
+        assertTrue(message.has("sentTimestamp"));
+        assertFalse(message.has("richMessageHTML"));
+    }
+
+    @Test
+    public void pageSizeIsClamped() {
+        assertEquals(PushIOMessageCenterPager.DEFAULT_PAGE_SIZE, PushIOMessageCenterPager.pageSizeFor(0));
+        assertEquals(7, PushIOMessageCenterPager.pageSizeFor(7));
+        assertEquals(PushIOMessageCenterPager.MAX_PAGE_SIZE, PushIOMessageCenterPager.pageSizeFor(100000));
+    }
+
+    @Test
+    public void snapshotIsACopy() {
+        PushIOMessageCenterPager pager = new PushIOMessageCenterPager();
+        List<PIOMCMessage> messages = messages(3);
+        pager.setSnapshot(MESSAGE_CENTER, messages);
+        messages.clear();
+
+        assertEquals(3, pager.snapshot(MESSAGE_CENTER).size());
+        pager.invalidateAll();
+        assertEquals(null, pager.snapshot(MESSAGE_CENTER));
+    }
+
+    /**
+     * Size and build time of the first page of a 500-message inbox, without rich
+     * content, against the whole inbox in one array.
+     */
+    @Test
+    public void firstPageIsSmallerAndFasterThanTheWholeInbox() {
+        List<PIOMCMessage> messages = messages(500);
+        Set<String> fields = new HashSet<>();
+        for (String field : new String[]{"messageID", "subject", "message", "sentTimestamp", "expiryTimestamp"}) {
+            fields.add(field);
+        }
+
+        // Warm up.
+        for (int i = 0; i < 20; i++) {
+            PushIOManagerPluginUtils.messageCenterMessagesAsJSONArray(messages).toString();
+            PushIOMessageCenterPager.pageJson(MESSAGE_CENTER, messages, 0, 50, fields);
+        }
+
+        long startedAt = System.nanoTime();
+        final int wholeChars = PushIOManagerPluginUtils.messageCenterMessagesAsJSONArray(messages).toString().length();
+        final long wholeNanos = System.nanoTime() - startedAt;
+        startedAt = System.nanoTime();
+        final int pageChars = PushIOMessageCenterPager.pageJson(MESSAGE_CENTER, messages, 0, 50, fields).length();
+        final long pageNanos = System.nanoTime() - startedAt;
+
+        System.out.println("500-message inbox: whole array " + wholeChars + " chars in " + wholeNanos / 1000
+                + " us, first page without rich content " + pageChars + " chars in " + pageNanos / 1000 + " us");
+        assertTrue(pageChars * 10 < wholeChars);
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import com.pushio.manager.PushIOManager;
+import com.pushio.manager.exception.ValidationException;
+import com.pushio.manager.preferences.PushIOPreference;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PushIOPreferenceStoreTest {
+    /**
+     * Plays the SDK: keeps declarations and values, and logs every write.
+     */
+    private static class FakeSdk extends PushIOManager {
+        final Map<String, PushIOPreference> mPreferences = new LinkedHashMap<>();
+        final List<String> mWrites = new ArrayList<>();
+        int mListReads;
+        String mRejectedKey;
+
+        void declare(String key, PushIOPreference.Type type, Object value) {
+            mPreferences.put(key, new PushIOPreference(key, key.toUpperCase(), type, value));
+        }
+
+        private void write(String key, Object value) throws ValidationException {
+            if (key.equals(mRejectedKey)) {
+                throw new ValidationException("rejected " + key);
+            }
+            mWrites.add(key + "=" + value);
+            PushIOPreference current = mPreferences.get(key);
+            mPreferences.put(key, new PushIOPreference(key, current.getLabel(), current.getType(), value));
+        }
+
+        @Override
+        public List<PushIOPreference> getPreferences() {
+            mListReads++;
+            List<PushIOPreference> preferences = new ArrayList<>();
+            for (PushIOPreference preference : mPreferences.values()) {
+                // Like the SDK, list only preferences that have a value.
+                if (preference.getValue() != null) {
+                    preferences.add(preference);
+                }
+            }
+            return preferences;
+        }
+
+        @Override
+        public PushIOPreference getPreference(String key) {
+            return mPreferences.get(key);
+        }
+
+        @Override
+        public void setPreference(String key, String value) throws ValidationException {
+            write(key, value);
+        }
+
+        @Override
+        public void setPreference(String key, Number value) throws ValidationException {
+            write(key, value);
+        }
+
+        @Override
+        public void setPreference(String key, boolean value) throws ValidationException {
+            write(key, value);
+        }
+
+        @Override
+        public void removePreference(String key) {
+            mWrites.add("remove " + key);
+            PushIOPreference current = mPreferences.get(key);
+            mPreferences.put(key, new PushIOPreference(key, current.getLabel(), current.getType(), null));
+        }
+    }
+
+    private FakeSdk mSdk;
+    private PushIOPreferenceStore mStore;
+
+    @Before
+    public void setUp() {
+        mSdk = new FakeSdk();
+        mStore = new PushIOPreferenceStore(mSdk);
+    }
+
+    private static Map<String, Object> values(Object... keysAndValues) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            values.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return values;
+    }
+
+    @Test
+    public void preferenceDeclaredWithoutValueCanBeSet() throws Exception {
+        mSdk.declare("color", PushIOPreference.Type.STRING, null);
+
+        JSONObject result = mStore.set(values("color", "red"));
+
+        assertEquals(1, result.getInt("queued"));
+        assertEquals(0, result.getJSONObject("invalid").length());
+    }
+
+    @Test
+    public void undeclaredAndMistypedValuesAreInvalid() throws Exception {
+        mSdk.declare("count", PushIOPreference.Type.NUMBER, 1.0);
+
+        JSONObject invalid = mStore.set(values("unknown", "x", "count", "many")).getJSONObject("invalid");
+
+        assertEquals("Preference not declared", invalid.getString("unknown"));
+        assertEquals("Expected a value of type NUMBER", invalid.getString("count"));
+        assertFalse(mStore.shouldScheduleFlush());
+    }
+
+    @Test
+    public void flushHandsPendingValuesToTheSdkInOrder() throws Exception {
+        mSdk.declare("color", PushIOPreference.Type.STRING, "blue");
+        mSdk.declare("count", PushIOPreference.Type.NUMBER, 1.0);
+        mSdk.declare("opted", PushIOPreference.Type.BOOLEAN, false);
+
+        mStore.set(values("count", 3, "color", "red"));
+        mStore.set(values("opted", true));
+        assertTrue(mSdk.mWrites.isEmpty());
+        assertTrue(mStore.shouldScheduleFlush());
+        assertFalse(mStore.shouldScheduleFlush());
+
+        mStore.flush();
+        assertEquals(Arrays.asList("count=3.0", "color=red", "opted=true"), mSdk.mWrites);
+
+        mStore.flush();
+        assertEquals(3, mSdk.mWrites.size());
+    }
+
+    @Test
+    public void pendingValuesAreReadBeforeTheFlush() throws Exception {
+        mSdk.declare("color", PushIOPreference.Type.STRING, "blue");
+
+        mStore.set(values("color", "red"));
+
+        assertEquals("red", new JSONObject(mStore.preferenceJson("color")).getString("value"));
+        assertTrue(mSdk.mWrites.isEmpty());
+    }
+
+    @Test
+    public void unchangedValuesAreSkipped() throws Exception {
+        mSdk.declare("color", PushIOPreference.Type.STRING, "blue");
+        mSdk.declare("count", PushIOPreference.Type.NUMBER, 2.0);
+
+        JSONObject result = mStore.set(values("color", "blue", "count", 2));
+
+        assertEquals(0, result.getInt("queued"));
+        assertEquals(2, result.getInt("unchanged"));
+        assertFalse(mStore.shouldScheduleFlush());
+        mStore.flush();
+        assertTrue(mSdk.mWrites.isEmpty());
+    }
+
+    @Test
+    public void nullRemovesThePreference() throws Exception {
+        mSdk.declare("color", PushIOPreference.Type.STRING, "blue");
+        mSdk.declare("size", PushIOPreference.Type.STRING, null);
+
+        JSONObject result = mStore.set(values("color", null, "size", JSONObject.NULL));
+
+        assertEquals(1, result.getInt("queued"));
+        assertEquals(1, result.getInt("unchanged"));
+        assertEquals(0, new JSONArray(mStore.preferencesJson()).length());
+
+        mStore.flush();
+        assertEquals(Collections.singletonList("remove color"), mSdk.mWrites);
+    }
+
+    @Test
+    public void readsAreServedFromTheSnapshot() throws Exception {
+        mSdk.declare("color", PushIOPreference.Type.STRING, "blue");
+
+        String first = mStore.preferencesJson();
+        String second = mStore.preferencesJson();
+
+        assertEquals(1, mSdk.mListReads);
+        assertEquals(first, second);
+        assertEquals("color", new JSONArray(first).getJSONObject(0).getString("key"));
+    }
+
+    @Test
+    public void valueRejectedByTheSdkIsReloaded() throws Exception {
+        mSdk.declare("color", PushIOPreference.Type.STRING, "blue");
+        mSdk.mRejectedKey = "color";
+
+        mStore.set(values("color", "red"));
+        mStore.flush();
+
+        assertEquals("blue", new JSONObject(mStore.preferenceJson("color")).getString("value"));
+        assertEquals(1, mStore.metricsAsJson().getLong("flushErrors"));
+    }
+
+    @Test
+    public void missingPreferenceIsLookedUpOnce() {
+        assertNull(mStore.preferenceJson("unknown"));
+        assertNull(mStore.preferenceJson("unknown"));
+
+        assertEquals(1, mStore.metricsAsJson().optLong("readThroughs"));
+    }
+}
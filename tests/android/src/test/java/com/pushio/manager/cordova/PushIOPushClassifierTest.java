@@ -0,0 +1,69 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PushIOPushClassifierTest {
+    private final PushIOPushClassifier mClassifier = new PushIOPushClassifier("ei");
+
+    @Test
+    public void payloadWithMarkerKeyMayBeResponsys() {
+        assertTrue(mClassifier.mayBeResponsys("[{\"data\":{\"ei\":\"abc\",\"alert\":\"Hi\"}}]"));
+        assertTrue(mClassifier.mayBeResponsys("{\"ei\" \n: \"abc\"}"));
+    }
+
+    @Test
+    public void payloadWithoutMarkerKeyIsNotResponsys() {
+        assertFalse(mClassifier.mayBeResponsys("[{\"data\":{\"alert\":\"Hi\"}}]"));
+        assertFalse(mClassifier.mayBeResponsys("{}"));
+        assertFalse(mClassifier.mayBeResponsys(null));
+    }
+
+    @Test
+    public void markerAsValueIsNotAMember() {
+        assertFalse(mClassifier.mayBeResponsys("{\"key\":\"ei\"}"));
+        assertFalse(mClassifier.mayBeResponsys("[\"ei\", \"ei\"]"));
+    }
+
+    @Test
+    public void markerInsideAnotherStringIsNotAMember() {
+        assertFalse(mClassifier.mayBeResponsys("{\"alert\":\"say \\\"ei\\\": hi\"}"));
+    }
+
+    @Test
+    public void markerNameIsMatchedWhole() {
+        assertFalse(mClassifier.mayBeResponsys("{\"eid\":1,\"sei\":2}"));
+    }
+
+    @Test
+    public void laterOccurrenceIsFoundAfterAValue() {
+        assertTrue(mClassifier.mayBeResponsys("{\"tag\":\"ei\",\"ei\":\"abc\"}"));
+    }
+
+    @Test
+    public void anyOfSeveralMarkerKeysIsEnough() {
+        PushIOPushClassifier classifier = new PushIOPushClassifier(" ei , p_event ,");
+        assertTrue(classifier.mayBeResponsys("{\"p_event\":1}"));
+        assertFalse(classifier.mayBeResponsys("{\"event\":1}"));
+    }
+
+    @Test
+    public void byDefaultEveryPayloadGoesToTheSdk() {
+        PushIOPushClassifier classifier = new PushIOPushClassifier(PushIOPushClassifier.DEFAULT_MARKER_KEYS);
+        assertTrue(classifier.mayBeResponsys("[{\"to\":\"sender\",\"data\":{\"alert\":\"Hi\"}}]"));
+    }
+
+    @Test
+    public void withoutMarkerKeysEveryPayloadGoesToTheSdk() {
+        PushIOPushClassifier classifier = new PushIOPushClassifier("");
+        assertTrue(classifier.mayBeResponsys("{}"));
+        assertTrue(classifier.mayBeResponsys(null));
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.junit.Test;
+
+import static com.pushio.manager.PIORegionEventType.BEACON_ENTRY;
+import static com.pushio.manager.PIORegionEventType.BEACON_EXIT;
+import static com.pushio.manager.PIORegionEventType.GEOFENCE_ENTRY;
+import static com.pushio.manager.PIORegionEventType.GEOFENCE_EXIT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PushIORegionEventFilterTest {
+    private static class FakeClock implements PushIORegionEventFilter.Clock {
+        long mNow = 1000;
+
+        @Override
+        public long now() {
+            return mNow;
+        }
+    }
+
+    private final FakeClock mClock = new FakeClock();
+
+    private PushIORegionEventFilter filter(boolean dedupe, long hysteresisMs, long minDwellMs, int rateLimit) {
+        return new PushIORegionEventFilter(dedupe, hysteresisMs, minDwellMs, rateLimit,
+                PushIORegionEventFilter.DEFAULT_RATE_WINDOW_MS, mClock);
+    }
+
+    @Test
+    public void repeatedTransitionIsDuplicate() {
+        PushIORegionEventFilter filter = filter(true, 0, 0, 0);
+
+        assertNull(filter.filter(GEOFENCE_ENTRY, "a"));
+        assertEquals(PushIORegionEventFilter.REASON_DUPLICATE, filter.filter(GEOFENCE_ENTRY, "a"));
+        assertNull(filter.filter(GEOFENCE_EXIT, "a"));
+        assertEquals(PushIORegionEventFilter.REASON_DUPLICATE, filter.filter(GEOFENCE_EXIT, "a"));
+    }
+
+    @Test
+    public void withoutDedupeRepeatsPass() {
+        PushIORegionEventFilter filter = filter(false, 0, 0, 0);
+
+        assertNull(filter.filter(BEACON_ENTRY, "a"));
+        assertNull(filter.filter(BEACON_ENTRY, "a"));
+    }
+
+    @Test
+    public void regionsAndKindsAreTrackedSeparately() {
+        PushIORegionEventFilter filter = filter(true, 0, 0, 0);
+
+        assertNull(filter.filter(GEOFENCE_ENTRY, "a"));
+        assertNull(filter.filter(GEOFENCE_ENTRY, "b"));
+        assertNull(filter.filter(BEACON_ENTRY, "a"));
+    }
+
+    @Test
+    public void beaconFlappingWithinHysteresisIsSuppressed() {
+        PushIORegionEventFilter filter = filter(true, 5000, 0, 0);
+
+        assertNull(filter.filter(BEACON_ENTRY, "a"));
+        mClock.mNow += 4999;
+        assertEquals(PushIORegionEventFilter.REASON_HYSTERESIS, filter.filter(BEACON_EXIT, "a"));
+        mClock.mNow += 1;
+        assertNull(filter.filter(BEACON_EXIT, "a"));
+    }
+
+    @Test
+    public void beaconExitBeforeMinDwellIsSuppressedUntilItHasPassed() {
+        PushIORegionEventFilter filter = filter(true, 0, 10000, 0);
+
+        assertNull(filter.filter(BEACON_ENTRY, "a"));
+        mClock.mNow += 3000;
+        assertEquals(PushIORegionEventFilter.REASON_DWELL, filter.filter(BEACON_EXIT, "a"));
+        // The scanner reports the exit again; the region is still inside, so it is not a duplicate.
+        mClock.mNow += 7000;
+        assertNull(filter.filter(BEACON_EXIT, "a"));
+    }
+
+    @Test
+    public void geofenceExitIsNeverHeldBack() {
+        PushIORegionEventFilter filter = filter(true, 5000, 10000, 1);
+
+        assertNull(filter.filter(GEOFENCE_ENTRY, "a"));
+        mClock.mNow += 1;
+        assertNull(filter.filter(GEOFENCE_EXIT, "a"));
+        mClock.mNow += 1;
+        assertNull(filter.filter(GEOFENCE_ENTRY, "a"));
+    }
+
+    @Test
+    public void beaconTransitionsOverTheRateLimitAreSuppressedUntilTheNextWindow() {
+        PushIORegionEventFilter filter = filter(true, 0, 0, 2);
+
+        assertNull(filter.filter(BEACON_ENTRY, "a"));
+        assertNull(filter.filter(BEACON_EXIT, "a"));
+        assertEquals(PushIORegionEventFilter.REASON_RATE_LIMITED, filter.filter(BEACON_ENTRY, "a"));
+
+        mClock.mNow += PushIORegionEventFilter.DEFAULT_RATE_WINDOW_MS;
+        assertNull(filter.filter(BEACON_ENTRY, "a"));
+    }
+
+    @Test
+    public void leastRecentlySeenRegionsAreForgotten() throws Exception {
+        PushIORegionEventFilter filter = filter(true, 0, 0, 0);
+
+        assertNull(filter.filter(GEOFENCE_ENTRY, "first"));
+        for (int i = 0; i < PushIORegionEventFilter.MAX_REGIONS; i++) {
+            filter.filter(GEOFENCE_ENTRY, "region-" + i);
+        }
+
+        assertEquals(PushIORegionEventFilter.MAX_REGIONS, filter.metricsAsJson().getInt("regions"));
+        // Its entry was forgotten, so a repeat is passed on as a first transition.
+        assertNull(filter.filter(GEOFENCE_ENTRY, "first"));
+    }
+
+    @Test
+    public void metricsCountEachReason() throws Exception {
+        PushIORegionEventFilter filter = filter(true, 5000, 0, 0);
+
+        filter.filter(BEACON_ENTRY, "a");
+        filter.filter(BEACON_ENTRY, "a");
+        filter.filter(BEACON_EXIT, "a");
+
+        assertEquals(1, filter.metricsAsJson().getLong("passed"));
+        assertEquals(1, filter.metricsAsJson().getLong("duplicate"));
+        assertEquals(1, filter.metricsAsJson().getLong("hysteresis"));
+    }
+}
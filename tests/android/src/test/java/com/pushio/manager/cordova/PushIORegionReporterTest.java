@@ -0,0 +1,159 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import com.pushio.manager.PIOBeaconRegion;
+import com.pushio.manager.PIOGeoRegion;
+import com.pushio.manager.PIORegionCompletionListener;
+import com.pushio.manager.PIORegionEventType;
+import com.pushio.manager.PIORegionException;
+import com.pushio.manager.PushIOManager;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PushIORegionReporterTest {
+    /**
+     * Plays the SDK: keeps every listener it is given, and answers at once if
+     * {@code mAnswerAtOnce} is set.
+     */
+    private static class FakeSdk extends PushIOManager {
+        final List<PIORegionCompletionListener> mListeners = new ArrayList<>();
+        boolean mAnswerAtOnce;
+
+        private void onRegion(String regionId, PIORegionEventType type, PIORegionCompletionListener listener) {
+            if (mAnswerAtOnce) {
+                listener.onRegionReported(regionId, type, null);
+            } else {
+                mListeners.add(listener);
+            }
+        }
+
+        @Override
+        public void onGeoRegionEntered(PIOGeoRegion region, PIORegionCompletionListener listener) {
+            onRegion("geo", PIORegionEventType.GEOFENCE_ENTRY, listener);
+        }
+
+        @Override
+        public void onGeoRegionExited(PIOGeoRegion region, PIORegionCompletionListener listener) {
+            onRegion("geo", PIORegionEventType.GEOFENCE_EXIT, listener);
+        }
+
+        @Override
+        public void onBeaconRegionEntered(PIOBeaconRegion region, PIORegionCompletionListener listener) {
+            onRegion("beacon", PIORegionEventType.BEACON_ENTRY, listener);
+        }
+
+        @Override
+        public void onBeaconRegionExited(PIOBeaconRegion region, PIORegionCompletionListener listener) {
+            onRegion("beacon", PIORegionEventType.BEACON_EXIT, listener);
+        }
+    }
+
+    private static class RecordingCallbackContext extends CallbackContext {
+        final List<PluginResult> mResults = new ArrayList<>();
+
+        RecordingCallbackContext() {
+            super("callback", null);
+        }
+
+        @Override
+        public void sendPluginResult(PluginResult pluginResult) {
+            mResults.add(pluginResult);
+        }
+    }
+
+    private final FakeSdk mSdk = new FakeSdk();
+    private final PushIORegionReporter mReporter = new PushIORegionReporter(mSdk);
+
+    @Test
+    public void resultIsSentToTheCaller() {
+        mSdk.mAnswerAtOnce = true;
+        RecordingCallbackContext callbackContext = new RecordingCallbackContext();
+
+        mReporter.report(PIORegionEventType.GEOFENCE_ENTRY, new PIOGeoRegion(), null, callbackContext);
+
+        assertEquals(1, callbackContext.mResults.size());
+        PluginResult result = callbackContext.mResults.get(0);
+        assertEquals(PluginResult.Status.OK.ordinal(), result.getStatus());
+        assertEquals(PluginResult.MESSAGE_TYPE_JSON, result.getMessageType());
+        assertEquals("{\"regionID\":\"geo\",\"regionType\":\"GEOFENCE_ENTRY\"}", result.getMessage());
+    }
+
+    @Test
+    public void secondAnswerFromTheSdkGoesNowhere() {
+        RecordingCallbackContext first = new RecordingCallbackContext();
+        RecordingCallbackContext second = new RecordingCallbackContext();
+
+        mReporter.report(PIORegionEventType.BEACON_ENTRY, null, new PIOBeaconRegion(), first);
+        PIORegionCompletionListener firstListener = mSdk.mListeners.get(0);
+        firstListener.onRegionReported("beacon", PIORegionEventType.BEACON_ENTRY, null);
+        mReporter.report(PIORegionEventType.BEACON_EXIT, null, new PIOBeaconRegion(), second);
+
+        // The SDK still holds the first listener and answers it again.
+        firstListener.onRegionReported("beacon", PIORegionEventType.BEACON_ENTRY, null);
+
+        assertEquals(1, first.mResults.size());
+        assertTrue(second.mResults.isEmpty());
+
+        mSdk.mListeners.get(1).onRegionReported("beacon", PIORegionEventType.BEACON_EXIT, null);
+        assertEquals(1, second.mResults.size());
+        assertTrue(second.mResults.get(0).getMessage().contains("BEACON_EXIT"));
+    }
+
+    @Test
+    public void sdkErrorIsSentAsError() {
+        RecordingCallbackContext callbackContext = new RecordingCallbackContext();
+
+        mReporter.report(PIORegionEventType.GEOFENCE_EXIT, new PIOGeoRegion(), null, callbackContext);
+        mSdk.mListeners.get(0).onRegionReported("geo", PIORegionEventType.GEOFENCE_EXIT,
+                new PIORegionException("Not registered"));
+
+        assertEquals(1, callbackContext.mResults.size());
+        assertEquals(PluginResult.Status.ERROR.ordinal(), callbackContext.mResults.get(0).getStatus());
+        assertEquals("Not registered", callbackContext.mResults.get(0).getMessage());
+    }
+
+    @Test
+    public void batchCallbackGetsTheOutcome() {
+        final List<String> outcomes = new ArrayList<>();
+        mReporter.report(PIORegionEventType.GEOFENCE_ENTRY, new PIOGeoRegion(), null,
+                new PushIORegionReporter.Callback() {
+                    @Override
+                    public void onRegionReported(String regionId, PIORegionEventType type, String errorMessage) {
+                        outcomes.add(regionId + " " + type + " " + errorMessage);
+                    }
+                });
+        mSdk.mListeners.get(0).onRegionReported("geo", null, null);
+        mSdk.mListeners.get(0).onRegionReported("geo", null, null);
+
+        assertEquals(1, outcomes.size());
+        assertEquals("geo GEOFENCE_ENTRY null", outcomes.get(0));
+    }
+
+    @Test
+    public void resultJsonMatchesJSONObject() throws Exception {
+        String regionId = "id \"quoted\" \\ / \t\n\u0001 é";
+        JSONObject expected = new JSONObject();
+        expected.put("regionID", regionId);
+        expected.put("regionType", PIORegionEventType.BEACON_EXIT.toString());
+        expected.put("suppressed", "dwell");
+
+        String json = PushIORegionReporter.resultJson(regionId, PIORegionEventType.BEACON_EXIT, "suppressed",
+                "dwell");
+
+        assertTrue(json, expected.similar(new JSONObject(json)));
+        assertEquals("{\"error\":null}", PushIORegionReporter.resultJson(null, null, "error", null));
+    }
+}
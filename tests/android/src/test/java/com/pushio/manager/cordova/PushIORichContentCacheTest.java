@@ -0,0 +1,147 @@
+/**
+ * Copyright © 2020, Oracle and/or its affiliates. All rights reserved.
+ * Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+ */
+
+package com.pushio.manager.cordova;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PushIORichContentCacheTest {
+    private static final long HOUR_MS = 60 * 60 * 1000;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private File mDiskDir;
+
+    @Before
+    public void setUp() {
+        mDiskDir = new File(mFolder.getRoot(), "richcontent");
+    }
+
+    private PushIORichContentCache open() {
+        return new PushIORichContentCache(PushIORichContentCache.DEFAULT_MEMORY_BYTES, mDiskDir, 1024 * 1024);
+    }
+
+    private long bytesOnDisk() {
+        long total = 0;
+        for (File file : mDiskDir.listFiles()) {
+            total += file.length();
+        }
+        return total;
+    }
+
+    private static String content(int index) {
+        StringBuilder content = new StringBuilder("<p>");
+        for (int i = 0; i < 100; i++) {
+            content.append(String.format("Message %03d ", index));
+        }
+        return content.append("</p>").toString();
+    }
+
+    @Test
+    public void contentIsServedFromDiskAfterRestart() {
+        open().put("m1", "<p>Hi</p>");
+
+        PushIORichContentCache cache = open();
+        assertTrue(cache.contains("m1"));
+        assertEquals("<p>Hi</p>", cache.get("m1"));
+    }
+
+    @Test
+    public void expiredDiskEntryIsNotContained() throws InterruptedException {
+        PushIORichContentCache previous = open();
+        previous.setExpiry("m1", System.currentTimeMillis() + 50);
+        previous.put("m1", "<p>Hi</p>");
+        Thread.sleep(100);
+
+        // A new process has not seen the message center yet; only the expiry on disk is known.
+        PushIORichContentCache cache = open();
+        assertFalse(cache.contains("m1"));
+        assertNull(cache.get("m1"));
+    }
+
+    @Test
+    public void expirySeenInMessageCenterWinsOverTheOneOnDisk() {
+        PushIORichContentCache previous = open();
+        previous.setExpiry("m1", System.currentTimeMillis() + HOUR_MS);
+        previous.put("m1", "<p>Hi</p>");
+
+        PushIORichContentCache cache = open();
+        cache.setExpiry("m1", System.currentTimeMillis() - 1);
+        assertFalse(cache.contains("m1"));
+
+        cache.setExpiry("m1", 0);
+        assertTrue(cache.contains("m1"));
+    }
+
+    @Test
+    public void expiredMemoryEntryIsNotContained() {
+        PushIORichContentCache cache = new PushIORichContentCache(PushIORichContentCache.DEFAULT_MEMORY_BYTES, null, 0);
+        cache.put("m1", "<p>Hi</p>");
+        assertTrue(cache.contains("m1"));
+
+        cache.setExpiry("m1", System.currentTimeMillis() - 1);
+        assertFalse(cache.contains("m1"));
+    }
+
+    @Test
+    public void containsDoesNotCountHitsOrMisses() throws Exception {
+        PushIORichContentCache cache = open();
+        cache.put("m1", "<p>Hi</p>");
+        cache.contains("m1");
+        cache.contains("m2");
+
+        assertEquals(0, cache.metricsAsJson().getLong("memoryHits"));
+        assertEquals(0, cache.metricsAsJson().getLong("misses"));
+    }
+
+    @Test
+    public void directoryIsListedOnlyWhenItGrowsPastItsSize() throws Exception {
+        final long entryBytes = content(0).length() + 3;
+        PushIORichContentCache cache = new PushIORichContentCache(PushIORichContentCache.DEFAULT_MEMORY_BYTES,
+                mDiskDir, entryBytes * 10);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put("m" + i, content(i));
+        }
+        // Measured once, on the first write.
+        assertEquals(1, cache.metricsAsJson().getLong("diskScans"));
+        assertEquals(bytesOnDisk(), cache.metricsAsJson().getLong("diskBytes"));
+
+        cache.put("m10", content(10));
+        assertEquals(2, cache.metricsAsJson().getLong("diskScans"));
+        assertEquals(1, cache.metricsAsJson().getLong("evictions"));
+        assertEquals(10, mDiskDir.listFiles().length);
+        assertEquals(bytesOnDisk(), cache.metricsAsJson().getLong("diskBytes"));
+    }
+
+    @Test
+    public void runningTotalFollowsRewritesAndRemovals() throws Exception {
+        PushIORichContentCache cache = open();
+        cache.put("m1", content(1));
+        cache.put("m2", content(2));
+        cache.put("m1", "<p>Shorter</p>");
+        assertEquals(bytesOnDisk(), cache.metricsAsJson().getLong("diskBytes"));
+
+        cache.setExpiry("m2", System.currentTimeMillis() - 1);
+        cache.evictExpired();
+        assertEquals(bytesOnDisk(), cache.metricsAsJson().getLong("diskBytes"));
+        assertEquals(1, mDiskDir.listFiles().length);
+
+        cache.clear();
+        assertEquals(0, cache.metricsAsJson().getLong("diskBytes"));
+        assertEquals(1, cache.metricsAsJson().getLong("diskScans"));
+    }
+}
@@ -199,6 +199,29 @@ PushIOManager.prototype.getPreferences = function (success, failure) {
     this.call_native(success, failure, "getPreferences");
 }
 
+/**
+ * Gets the preferences for the given keys. Keys that have no preference are left out.
+ * 
+ * @param {string[]} keys Unique IDs of the preferences.
+ * @param {function} [success] Success callback. 
+ * @param {function} [failure] Failure callback.
+ * @returns {Preference[]} Array of [Preference]{@link Preference} in success callback.
+ * @memberof PushIOManager
+ */
+PushIOManager.prototype.getPreferencesForKeys = function (keys, success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "getPreferences", [keys]);
+    } else {
+        this.call_native(function (preferences) {
+            if (success) {
+                success((preferences || []).filter(function (preference) {
+                    return keys.indexOf(preference.key) !== -1;
+                }));
+            }
+        }, failure, "getPreferences");
+    }
+}
+
 /**
  * Gets a single preference for the provided key.
  * @param {string} key Unique ID for this preference.
@@ -273,6 +296,45 @@ PushIOManager.prototype.clearAllPreferences = function (success, failure) {
     this.call_native(success, failure, "clearAllPreferences");
 }
 
+/**
+ * Saves several preferences declared earlier in [declarePreference]{@link PushIOManager#declarePreference} in one call.
+ * A `null` value removes the preference.
+ * 
+ * On Android, values are checked against the declared types, unchanged values are skipped and the
+ * rest are written together right after the call returns.
+ * 
+ * @param {object} preferences Map of preference key to a string, number, boolean or `null` value.
+ * @param {function(result)} [success] Success callback.
+ * @param {number} success.queued Number of preferences that will be written.
+ * @param {number} success.unchanged Number of preferences that already had the given value.
+ * @param {object} success.invalid Map of key to reason for the preferences that were rejected.
+ * @param {function} [failure] Failure callback.
+ * @memberof PushIOManager
+ */
+PushIOManager.prototype.setPreferences = function (preferences, success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "setPreferences", [preferences]);
+    } else {
+        var queued = 0;
+        for (var key in preferences) {
+            var value = preferences[key];
+            if (value === null) {
+                this.call_native(undefined, undefined, "removePreference", [key]);
+            } else if (typeof value === 'number') {
+                this.call_native(undefined, undefined, "setNumberPreference", [key, value]);
+            } else if (typeof value === 'boolean') {
+                this.call_native(undefined, undefined, "setBooleanPreference", [key, value]);
+            } else {
+                this.call_native(undefined, undefined, "setStringPreference", [key, value]);
+            }
+            queued++;
+        }
+        if (success) {
+            success({ queued: queued, unchanged: 0, invalid: {} });
+        }
+    }
+}
+
 PushIOManager.prototype.setNotificationsStacked = function (isNotificationStacked, success, failure) {
     if (cordova.platformId === 'android') {
         this.call_native(success, failure, "setNotificationsStacked", [isNotificationStacked]);
@@ -302,6 +364,31 @@ PushIOManager.prototype.trackEvent = function (eventName, properties, success, f
     this.call_native(success, failure, "trackEvent", [eventName, properties]);
 }
 
+/**
+ * Records several events with a single bridge call.
+ * 
+ * <br/><br/>On Android the events are buffered natively and handed to the SDK in batches. 
+ * If the native buffer is full, the extra events are dropped and reported in the success callback; 
+ * callers should slow down when `dropped` is non-zero. On iOS each event is sent with [trackEvent()]{@link PushIOManager#trackEvent}.
+ * 
+ * @param {TrackedEvent[]} events
+ * @param {function(TrackEventsResult)} [success] Success callback.
+ * @param {function} [failure] Failure callback.
+ * @memberof PushIOManager
+ */
+PushIOManager.prototype.trackEvents = function (events, success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "trackEvents", [events]);
+    } else {
+        for (var i = 0; i < events.length; i++) {
+            this.call_native(undefined, undefined, "trackEvent", [events[i].type, events[i].properties]);
+        }
+        if (success) {
+            success({ accepted: events.length, dropped: 0, invalid: 0, pending: 0, totalDropped: 0 });
+        }
+    }
+}
+
 /**
  * Fetches messages for the given message center.
  * 
@@ -309,6 +396,8 @@ PushIOManager.prototype.trackEvent = function (eventName, properties, success, f
  * @param {function(messageCenter, messages)} [success] Success callback.
  * @param {string} success.messageCenter 
  * @param {MessageCenterMessage[]} success.messages
+ * @param {boolean} success.fromCache (Android only) True if the messages were served from the plugin's cache.
+ * @param {number} success.age (Android only) Age of the cached messages in milliseconds; 0 if freshly fetched.
  * @param {function(messageCenter, errorReason)} [failure] Failure callback.
  * @param {string} failure.messageCenter 
  * @param {string} failure.errorReason
@@ -318,6 +407,36 @@ PushIOManager.prototype.fetchMessagesForMessageCenter = function (messageCenter,
     this.call_native(success, failure, "fetchMessagesForMessageCenter", [messageCenter]);
 }
 
+/**
+ * Fetches messages for the given message center in pages.
+ * 
+ * Only available on Android platform.
+ * 
+ * @param {string} messageCenter
+ * @param {object} [options]
+ * @param {number} [options.pageSize=50] Messages per page, max. 500.
+ * @param {string} [options.cursor] `nextCursor` of the previous page; omit to start with the first page.
+ * @param {string[]} [options.fields] Message fields to include, e.g. `["messageID", "subject"]`. All fields if omitted.
+ * @param {boolean} [options.stream=false] If true, all pages are delivered to `success`, one call per page.
+ * @param {function(page)} [success] Success callback, called once per page.
+ * @param {string} success.messageCenter
+ * @param {MessageCenterMessage[]} success.messages
+ * @param {number} success.total Number of messages in the message center.
+ * @param {?string} success.nextCursor Cursor of the next page; null on the last page.
+ * @param {boolean} success.done True on the last page.
+ * @param {function(messageCenter, errorReason)} [failure] Failure callback.
+ * @param {string} failure.messageCenter 
+ * @param {string} failure.errorReason
+ * @memberof PushIOManager
+ */
+PushIOManager.prototype.fetchMessagesForMessageCenterPaged = function (messageCenter, options, success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "fetchMessagesForMessageCenterPaged", [messageCenter, options || {}]);
+    } else {
+        console.log("Not supported in iOS.");
+    }
+}
+
 /**
  * Sends push engagement information to Responsys.
  * 
@@ -538,6 +657,7 @@ PushIOManager.prototype.setMessageCenterEnabled = function (messageCenterEnabled
  * @param {function(messageId, richContent)} [success] Success callback. 
  * @param {string} success.messageId
  * @param {string} success.richContent
+ * @param {boolean} success.fromCache (Android only) True if the content was served from the plugin's cache.
  * @param {function(messageId, errorReason)} [failure] Failure callback.
  * @param {string} failure.messageId
  * @param {string} failure.errorReason
@@ -546,6 +666,26 @@ PushIOManager.prototype.fetchRichContentForMessage = function (messageID, succes
     this.call_native(success, failure, "fetchRichContentForMessage", [messageID]);
 }
 
+/**
+ * Fetches the rich content of the given messages in the background and caches it, so that
+ * a later `fetchRichContentForMessage` call is answered without a network round trip.
+ * 
+ * Only available on Android platform.
+ * 
+ * @param {string[]} messageIDs
+ * @param {function(result)} [success] Success callback.
+ * @param {number} success.requested Number of message IDs passed.
+ * @param {number} success.fetching Number of messages whose content was not cached and is now being fetched.
+ * @param {function} [failure] Failure callback.
+ */
+PushIOManager.prototype.prefetchRichContent = function (messageIDs, success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "prefetchRichContent", [messageIDs]);
+    } else {
+        console.log("Not supported in iOS.");
+    }
+}
+
 /**
  * @param {boolean} inAppFetchEnabled
  * @param {function} [success] Success callback. 
@@ -601,6 +741,9 @@ PushIOManager.prototype.setMessageCenterBadgingEnabled = function (messageCenter
 /**
  * Sets the badge count on app icon for the no. of Message Center messages.
  * 
+ * <br/><br/>On Android, calls made in quick succession are synced as one update with the count of the latest call;
+ * each call's callback gets the result of that sync.
+ * 
  * @param {number} badgeCount
  * @param {boolean} forceSetBadge Force a server-sync for the newly set badge count.
  * @param {function} [success] Success callback. 
@@ -754,6 +897,44 @@ PushIOManager.prototype.addInteractiveNotificationCategory = function (notificat
     }
 }
 
+/**
+ * Adds several app-defined Interactive Notification categories in one call. Categories the SDK already has with the
+ * same buttons are left as they are, so this can be called on every app start.
+ * 
+ * Only available on Android platform.
+ * 
+ * @param {InteractiveNotificationCategory[]} notificationCategories
+ * @param {function(result)} [success] Success callback.
+ * @param {string[]} success.added IDs of categories that were new.
+ * @param {string[]} success.updated IDs of categories whose buttons changed.
+ * @param {string[]} success.unchanged IDs of categories that were already registered as given.
+ * @param {number[]} success.invalid Indexes of entries that are not valid categories.
+ * @param {function} [failure] Failure callback.
+ */
+PushIOManager.prototype.addInteractiveNotificationCategories = function (notificationCategories, success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "addInteractiveNotificationCategories", [notificationCategories]);
+    } else {
+        console.log("Not supported in iOS.");
+    }
+}
+
+/**
+ * Gets every app-defined Interactive Notification category added through the plugin.
+ * 
+ * Only available on Android platform.
+ * 
+ * @param {function(InteractiveNotificationCategory[])} [success] Success callback.
+ * @param {function} [failure] Failure callback.
+ */
+PushIOManager.prototype.getAllInteractiveNotificationCategories = function (success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "getAllInteractiveNotificationCategories");
+    } else {
+        console.log("Not supported in iOS.");
+    }
+}
+
 /**
  * Returns `true` if the given push notification payload is from Responsys, `false` otherwise.
  * 
@@ -768,8 +949,11 @@ PushIOManager.prototype.isResponsysPush = function (remoteMessage, success, fail
 /**
  * Request the SDK to process the given push notification payload.
  * 
+ * Payloads that are not from Responsys are ignored.
+ * 
  * @param {RemoteMessage} remoteMessage
- * @param {function} [success] Success callback. 
+ * @param {function} [success] Success callback as a boolean value, `true` if the payload was from Responsys and
+ * was processed. 
  * @param {function} [failure] Failure callback.
  */
 PushIOManager.prototype.handleMessage = function (remoteMessage, success, failure) {
@@ -787,6 +971,8 @@ PushIOManager.prototype.handleMessage = function (remoteMessage, success, failur
  * @param {function(regionID, regionType)} [success] Success callback. 
  * @param {string} success.regionID
  * @param {string} success.regionType
+ * @param {string} [success.suppressed] (Android only) Set if the plugin did not report this transition, to the
+ * reason: 'duplicate', 'hysteresis', 'dwell' or 'rateLimited'. See the `PushIORegion*` plugin settings.
  * @param {function} [failure] Failure callback.
  */
 PushIOManager.prototype.onGeoRegionEntered = function (region, success, failure) {
@@ -800,6 +986,8 @@ PushIOManager.prototype.onGeoRegionEntered = function (region, success, failure)
  * @param {function(regionID, regionType)} [success] Success callback. 
  * @param {string} success.regionID
  * @param {string} success.regionType
+ * @param {string} [success.suppressed] (Android only) Set if the plugin did not report this transition, to the
+ * reason: 'duplicate', 'hysteresis', 'dwell' or 'rateLimited'. See the `PushIORegion*` plugin settings.
  * @param {function} [failure] Failure callback.
  */
 PushIOManager.prototype.onGeoRegionExited = function (region, success, failure) {
@@ -813,6 +1001,8 @@ PushIOManager.prototype.onGeoRegionExited = function (region, success, failure)
  * @param {function(regionID, regionType)} [success] Success callback. 
  * @param {string} success.regionID
  * @param {string} success.regionType
+ * @param {string} [success.suppressed] (Android only) Set if the plugin did not report this transition, to the
+ * reason: 'duplicate', 'hysteresis', 'dwell' or 'rateLimited'. See the `PushIORegion*` plugin settings.
  * @param {function} [failure] Failure callback.
  */
 PushIOManager.prototype.onBeaconRegionEntered = function (region, success, failure) {
@@ -826,12 +1016,33 @@ PushIOManager.prototype.onBeaconRegionEntered = function (region, success, failu
  * @param {function(regionID, regionType)} [success] Success callback. 
  * @param {string} success.regionID
  * @param {string} success.regionType
+ * @param {string} [success.suppressed] (Android only) Set if the plugin did not report this transition, to the
+ * reason: 'duplicate', 'hysteresis', 'dwell' or 'rateLimited'. See the `PushIORegion*` plugin settings.
  * @param {function} [failure] Failure callback.
  */
 PushIOManager.prototype.onBeaconRegionExited = function (region, success, failure) {
     this.call_native(success, failure, "onBeaconRegionExited", [region]);
 }
 
+/**
+ * Informs the SDK of several geofence and beacon transitions in one call.
+ * 
+ * Only available on Android platform.
+ * 
+ * @param {RegionEvent[]} records
+ * @param {function(results)} [success] Success callback, called once all transitions were reported.
+ * @param {object[]} success.results One result per record, in the same order: `regionID`, `regionType` and,
+ * if the transition was not reported, `suppressed` or `error`.
+ * @param {function} [failure] Failure callback.
+ */
+PushIOManager.prototype.reportRegionEvents = function (records, success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "reportRegionEvents", [records]);
+    } else {
+        console.log("Not supported in iOS.");
+    }
+}
+
 PushIOManager.prototype.setExecuteRsysWebUrl = function (flag, success, failure) {
     this.call_native(success, failure, "setExecuteRsysWebUrl", [flag]);
 }
@@ -900,6 +1111,10 @@ PushIOManager.prototype.resetEngagementContext = function (success, failure) {
  * 
  * <br/><br/>This should be called everytime the app comes to the foreground.
  * 
+ * <br/><br/>Links are queued until they are read, and each link is returned once, oldest first. If no link is
+ * queued, the success callback is called when the next link arrives. Prefer [subscribeDeepLinks()]{@link PushIOManager#subscribeDeepLinks}, which
+ * needs a single call.
+ * 
  * @param {function(deepLinkURL, webLinkURL)} [success] Success callback. 
  * @param {string} success.deepLinkURL
  * @param {string} success.webLinkURL
@@ -913,6 +1128,45 @@ PushIOManager.prototype.onDeepLinkReceived = function (success, failure) {
     }
 }
 
+/**
+ * Calls `success` for every Responsys deeplink the app is opened with, until [unsubscribeDeepLinks()]{@link PushIOManager#unsubscribeDeepLinks} is called.
+ * Links that arrived before subscribing, including links received before the app was last killed, are replayed
+ * first. Each link is delivered once.
+ * 
+ * Only for Android. For iOS use the document listener.
+ * 
+ * @param {function(link)} [success] Success callback, called once per link.
+ * @param {string} success.deepLinkUrl
+ * @param {string} success.webLinkUrl
+ * @param {number} success.receivedAt Time the link was received, in milliseconds since the epoch.
+ * @param {boolean} success.replayed True if the link was queued before this subscription.
+ * @param {function} [failure] Failure callback.
+ */
+PushIOManager.prototype.subscribeDeepLinks = function (success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "subscribeDeepLinks");
+    } else {
+        console.log("Not supported in iOS. Please check docs for further information.");
+    }
+}
+
+/**
+ * Stops delivering deeplinks to the [subscribeDeepLinks()]{@link PushIOManager#subscribeDeepLinks} callback. Links are queued again until the next
+ * subscription.
+ * 
+ * Only for Android.
+ * 
+ * @param {function} [success] Success callback.
+ * @param {function} [failure] Failure callback.
+ */
+PushIOManager.prototype.unsubscribeDeepLinks = function (success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "unsubscribeDeepLinks");
+    } else {
+        console.log("Not supported in iOS. Please check docs for further information.");
+    }
+}
+
 PushIOManager.prototype.setDelayRichPushDisplay = function (flag, success, failure) {
     this.call_native(success, failure, "delayRichPushDisplay", [flag]);
 }
@@ -972,6 +1226,90 @@ PushIOManager.prototype.setInterceptOpenURL = function (enabled, success, failur
 }
 
 
+/**
+ * Subscribes to events from the native plugin, so that the app does not have to poll for state changes. The
+ * success callback is called with batches of events until [unsubscribeEvents()]{@link PushIOManager#unsubscribeEvents}
+ * is called. Events published before subscribing are delivered in the first batches.
+ * 
+ * Event types and their `data`:
+ * - `registration`: `success`, `error`; result of the latest `registerApp` call.
+ * - `iamHyperlink`: `requestUrl` and `deeplinkUrl`, `weblinkUrl` or `errorReason`; an in-app message link was
+ * handled after `setExecuteRsysWebUrl`.
+ * - `deepLink`: `deepLinkUrl`, `webLinkUrl`; the app was opened with a Responsys deeplink. This does not take the
+ * link off the queue read by [subscribeDeepLinks()]{@link PushIOManager#subscribeDeepLinks}.
+ * - `badge`: `count`, `synced`, `message`; latest result of `setBadgeCount` or `resetBadgeCount`.
+ * - `messageCenter`: `messageCenter`, `reason` and `count`; messages were fetched (`fetched`), or cached messages
+ * were dropped because a notification was opened (`notificationOpened`), the Message Center was reset (`reset`) or
+ * disabled (`disabled`). `messageCenter` is null if every message center is affected.
+ * 
+ * Events of type `registration` and `badge`, and `messageCenter` events of the same message center, replace
+ * earlier events of their kind that were not sent yet.
+ * 
+ * Only available on Android platform.
+ * 
+ * @param {function(batch)} [success] Success callback, called once per batch.
+ * @param {object[]} success.events Events in the order they were published, each with `type`, `timestamp`
+ * (milliseconds since the epoch) and `data`.
+ * @param {number} success.dropped Events dropped since the previous batch because too many were waiting.
+ * @param {function} [failure] Failure callback.
+ */
+PushIOManager.prototype.subscribeEvents = function (success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "subscribeEvents");
+    } else {
+        console.log("Not supported in iOS.");
+    }
+}
+
+/**
+ * Stops delivering events to the [subscribeEvents()]{@link PushIOManager#subscribeEvents} callback.
+ * 
+ * Only available on Android platform.
+ * 
+ * @param {function} [success] Success callback.
+ * @param {function} [failure] Failure callback.
+ */
+PushIOManager.prototype.unsubscribeEvents = function (success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "unsubscribeEvents");
+    } else {
+        console.log("Not supported in iOS.");
+    }
+}
+
+/**
+ * Gets runtime metrics of the native plugin, such as per-action latencies and the queue depth of each executor lane.
+ * 
+ * Only available on Android platform.
+ * 
+ * @param {function(metrics)} [success] Success callback.
+ * @param {object} success.actions Per-action `calls`, `errors`, `exceptions`, `rejected` and the `wait`, `handler`
+ * and `callback` latency distributions (`count`, `avgMs`, `p50Ms`, `p90Ms`, `p99Ms`, `maxMs`), measured from the
+ * time the call reached the plugin.
+ * @param {number} success.unknownActions Calls to actions the plugin does not implement.
+ * @param {object} success.lanes Per-lane `queueDepth` and peak `maxQueueDepth`, `started`, `completed`, `rejected`,
+ * `avgWaitMs`, `maxWaitMs`, the queue `wait` distribution and `throughputPerSec` while the lane was in use.
+ * @param {object} success.messageCenterCache Message Center cache `entries`, `hits`, `staleHits`, `misses` and `invalidations`.
+ * @param {object} success.richContentCache Rich content cache size, `diskBytes`, hits, misses, evictions and
+ * `diskScans`, the times the disk directory was listed.
+ * @param {object} success.regionReports Per region event type `reported`, `errors`, `exceptions`, `inFlight` and
+ * the `latency` distribution of geofence and beacon reports.
+ * @param {object} success.singleFlight Identical concurrent calls that shared one operation: `requests`,
+ * `operations`, `collapsed`, `bypassed` (table full), `inFlight` and `maxWaiters`.
+ * @param {object} success.pushClassifier `isResponsysPush`/`handleMessage` payloads `filtered` by the marker key
+ * scan, found `responsys` by the SDK or passed the scan as `falsePositives`, with the latency of each path.
+ * @param {object} success.startup Startup `mode`, `readyAfterMs`, `mainThreadMs` against `budgetMs`, the time of each
+ * init `phases` and `callsWaitedForInit`.
+ * @param {function} [failure] Failure callback.
+ */
+PushIOManager.prototype.getPluginMetrics = function (success, failure) {
+    if (cordova.platformId === 'android') {
+        this.call_native(success, failure, "getPluginMetrics");
+    } else {
+        console.log("Not supported in iOS.");
+    }
+}
+
 /**
  * @typedef {object} Preference
  * @property {string} key - Unique Identifier for this preference.
@@ -980,6 +1318,27 @@ PushIOManager.prototype.setInterceptOpenURL = function (enabled, success, failur
  * @property {string} value - Preference value.
  */
 
+/**
+ * @typedef {object} RegionEvent
+ * @property {string} eventType - Possible values: 'GEOFENCE_ENTRY', 'GEOFENCE_EXIT', 'BEACON_ENTRY', 'BEACON_EXIT'.
+ * @property {GeoRegion|BeaconRegion} region
+ */
+
+/**
+ * @typedef {object} TrackedEvent
+ * @property {string} type - Event name.
+ * @property {object=} properties - Custom data.
+ */
+
+/**
+ * @typedef {object} TrackEventsResult
+ * @property {number} accepted - Events added to the native buffer by this call.
+ * @property {number} dropped - Events dropped by this call because the buffer was full.
+ * @property {number} invalid - Events without a `type` or with unreadable properties.
+ * @property {number} pending - Events waiting in the buffer to be handed to the SDK.
+ * @property {number} totalDropped - Events dropped since the app started.
+ */
+
 /**
  * @typedef {object} MessageCenterMessage
  * @property {string} messageID